@@ -0,0 +1,59 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public abstract class AbstractDrawingObject { 
+    int drawMode;
+    Point startPoint;
+    Point endPoint;
+    Color color; 
+    int stroke; 
+    boolean isFilled;
+    Color fillColor;
+    
+    public AbstractDrawingObject(int drawMode, Point startPoint, Point endPoint, Color color, int stroke, boolean isFilled, Color fillColor) {
+        this.drawMode = drawMode;
+        this.startPoint = new Point(startPoint.x, startPoint.y); 
+        this.endPoint = new Point(endPoint.x, endPoint.y);     
+        this.color = color;
+        this.stroke = stroke;
+        this.isFilled = isFilled;
+        this.fillColor = fillColor;
+    }
+    
+    public abstract void draw(Graphics2D g);
+    public abstract String toString();
+    public abstract void saveToStream(DataOutputStream dos) throws IOException;
+    public abstract AbstractDrawingObject copy();
+    
+    public abstract boolean contains(Rectangle selectionRect);
+    
+    public abstract boolean isValid();
+    
+    public String getDetailedState() {
+        String state = "Object Mode: " + this.drawMode + "\n";
+        state += "  Start: (" + this.startPoint.x + ", " + this.startPoint.y + ")\n";
+        state += "  End: (" + this.endPoint.x + ", " + this.endPoint.y + ")\n";
+        state += "  Color (Line/Text): RGB " + this.color.getRGB() + "\n";
+        state += "  Color (Fill): RGB " + this.fillColor.getRGB() + "\n";
+        state += "  Stroke: " + this.stroke + " | Filled: " + this.isFilled;
+        return state;
+    }
+    
+    public void translate(int dx, int dy) {
+        this.startPoint.translate(dx, dy);
+        this.endPoint.translate(dx, dy);
+    }
+    
+    public Rectangle getBounds() {
+        int pad = (int)Math.ceil(this.stroke * Math.sqrt(2) / 2) + 1;
+        int x = Math.min(this.startPoint.x, this.endPoint.x);
+        int y = Math.min(this.startPoint.y, this.endPoint.y);
+        int w = Math.abs(this.startPoint.x - this.endPoint.x);
+        int h = Math.abs(this.startPoint.y - this.endPoint.y);
+        return new Rectangle(x - pad, y - pad, w + pad * 2 + 1, h + pad * 2 + 1);
+    }
+}
@@ -0,0 +1,98 @@
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+
+public final class BrushEngine {
+
+    public static final float DEFAULT_SPACING = 0.25f;
+    public static final float HARD = 1.0f;
+
+    public interface DabSink {
+        void dab(int x, int y);
+    }
+
+    private final int size;
+    private final float hardness;
+    private final float spacing;
+    private double lastX;
+    private double lastY;
+    private double travelled;
+    private int lastDabX;
+    private int lastDabY;
+    private boolean isStroking = false;
+
+    public BrushEngine(int size, float hardness, float spacing) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Brush size must be positive: " + size);
+        }
+        this.size = size;
+        this.hardness = hardness;
+        this.spacing = spacing;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public float getHardness() {
+        return hardness;
+    }
+
+    public double getSpacingPixels() {
+        return Math.max(1.0, size * spacing);
+    }
+
+    public boolean isStroking() {
+        return isStroking;
+    }
+
+    public Rectangle getDabBounds(int x, int y) {
+        return new Rectangle(x, y, size + 1, size + 1);
+    }
+
+    public void beginStroke(int x, int y, DabSink sink) {
+        lastX = x;
+        lastY = y;
+        travelled = 0;
+        lastDabX = x;
+        lastDabY = y;
+        isStroking = true;
+        sink.dab(x, y);
+    }
+
+    public void strokeTo(int x, int y, DabSink sink) {
+        if (!isStroking) {
+            beginStroke(x, y, sink);
+            return;
+        }
+        double dx = x - lastX;
+        double dy = y - lastY;
+        double distance = Math.hypot(dx, dy);
+        if (distance == 0) {
+            return;
+        }
+        double step = getSpacingPixels();
+        double next = step - travelled;
+        while (next <= distance) {
+            int dabX = (int)Math.round(lastX + dx * next / distance);
+            int dabY = (int)Math.round(lastY + dy * next / distance);
+            if (dabX != lastDabX || dabY != lastDabY) {
+                sink.dab(dabX, dabY);
+                lastDabX = dabX;
+                lastDabY = dabY;
+            }
+            next += step;
+        }
+        travelled = distance - (next - step);
+        lastX = x;
+        lastY = y;
+    }
+
+    public void endStroke() {
+        isStroking = false;
+    }
+
+    public static boolean canStamp(Graphics2D g) {
+        return (g.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) == 0;
+    }
+}
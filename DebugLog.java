@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public final class DebugLog {
+
+    public static final int CAPACITY = 4096;
+
+    private static final int MASK = CAPACITY - 1;
+    private static final long DRAIN_INTERVAL_NANOS = 50_000_000L;
+
+    private static final class Entry {
+        final long sequence;
+        final long timeMillis;
+        final String threadName;
+        final String message;
+
+        Entry(long sequence, long timeMillis, String threadName, String message) {
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.threadName = threadName;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%tT.%<tL [%s] %s", timeMillis, threadName, message);
+        }
+    }
+
+    private static final AtomicReferenceArray<Entry> ring = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLong writeSequence = new AtomicLong();
+    private static final AtomicLong droppedCount = new AtomicLong();
+
+    private static volatile boolean isEnabled = false;
+    private static volatile boolean isConsoleOutput = true;
+    private static Thread drainThread = null;
+
+    private DebugLog() {
+    }
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public static synchronized void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+        if (enabled && drainThread == null) {
+            drainThread = new Thread(DebugLog::drainLoop, "DebugLog-drain");
+            drainThread.setDaemon(true);
+            drainThread.start();
+        }
+    }
+
+    public static void setConsoleOutput(boolean consoleOutput) {
+        isConsoleOutput = consoleOutput;
+    }
+
+    public static void log(String message) {
+        if (isEnabled) {
+            append(message);
+        }
+    }
+
+    public static void log(Supplier<String> message) {
+        if (isEnabled) {
+            append(message.get());
+        }
+    }
+
+    public static long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public static List<String> snapshot() {
+        long end = writeSequence.get();
+        long start = Math.max(0, end - CAPACITY);
+        List<String> lines = new ArrayList<>((int)(end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Entry entry = ring.get((int)sequence & MASK);
+            if (entry != null && entry.sequence == sequence) {
+                lines.add(entry.toString());
+            }
+        }
+        return lines;
+    }
+
+    private static void append(String message) {
+        long sequence = writeSequence.getAndIncrement();
+        ring.set((int)sequence & MASK, new Entry(sequence, System.currentTimeMillis(), Thread.currentThread().getName(), message));
+    }
+
+    private static void drainLoop() {
+        long readSequence = 0;
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            long end = writeSequence.get();
+            if (end - readSequence > CAPACITY) {
+                droppedCount.addAndGet(end - CAPACITY - readSequence);
+                readSequence = end - CAPACITY;
+            }
+            while (readSequence < end) {
+                Entry entry = ring.get((int)readSequence & MASK);
+                if (entry == null || entry.sequence < readSequence) {
+                    break;
+                }
+                if (entry.sequence == readSequence && isConsoleOutput) {
+                    batch.append("[DEBUG] ").append(entry).append(System.lineSeparator());
+                } else if (entry.sequence > readSequence) {
+                    droppedCount.incrementAndGet();
+                }
+                readSequence++;
+            }
+            if (batch.length() > 0) {
+                System.out.print(batch);
+                batch.setLength(0);
+            }
+            LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+        }
+    }
+}
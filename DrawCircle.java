@@ -0,0 +1,100 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class DrawCircle extends AbstractDrawingObject {
+    public DrawCircle(Point startPoint, Point endPoint, Color color, int stroke, boolean isFilled, Color fillColor) {
+        super(Screen.CIRCLE, startPoint, endPoint, color, stroke, isFilled, fillColor);
+    }
+    
+    @Override
+    public AbstractDrawingObject copy() {
+        return new DrawCircle(startPoint, endPoint, color, stroke, isFilled, fillColor);
+    }
+    
+    private int getDrawX() { return Math.min(this.startPoint.x, this.endPoint.x); }
+    private int getDrawY() { return Math.min(this.startPoint.y, this.endPoint.y); }
+    private int getDrawW() { return Math.abs(this.startPoint.x - this.endPoint.x); }
+    private int getDrawH() { return Math.abs(this.startPoint.y - this.endPoint.y); }
+
+    @Override
+    public void draw(Graphics2D g) {
+        int x = this.getDrawX();
+        int y = this.getDrawY();
+        int w = this.getDrawW();
+        int h = this.getDrawH();
+        
+        if (this.isFilled) {
+            g.setColor(this.fillColor);
+            g.fillOval(x, y, w, h);
+        }
+        g.setStroke(ResourceCache.getStroke(this.stroke));
+        g.setColor(this.color);
+        g.drawOval(x, y, w, h);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CIRCLE: Start(%d,%d), End(%d,%d), Filled(%s), FColor(%d)",
+            startPoint.x, startPoint.y, endPoint.x, endPoint.y, isFilled, fillColor.getRGB());
+    }
+
+    @Override
+    public void saveToStream(DataOutputStream dos) throws IOException {
+        int mode = this.drawMode;
+        int startX = this.startPoint.x;
+        int startY = this.startPoint.y;
+        int endX = this.endPoint.x;
+        int endY = this.endPoint.y;
+        int lineColorRGB = this.color.getRGB();
+        int lineStroke = this.stroke;
+        boolean isCircleFilled = this.isFilled;
+        int fillColorValue = this.fillColor.getRGB();
+
+        dos.writeInt(mode);
+        dos.writeInt(startX);
+        dos.writeInt(startY);
+        dos.writeInt(endX);
+        dos.writeInt(endY);
+        dos.writeInt(lineColorRGB);
+        dos.writeInt(lineStroke);
+        dos.writeBoolean(isCircleFilled);
+        dos.writeInt(fillColorValue);
+    }
+    
+    public static AbstractDrawingObject loadFromStream(DataInputStream dis) throws IOException {
+         int sx = dis.readInt();
+         int sy = dis.readInt();
+         int ex = dis.readInt();
+         int ey = dis.readInt();
+         Color color = new Color(dis.readInt());
+         int stroke = dis.readInt();
+         boolean isFilled = dis.readBoolean();
+         Color fillColor = new Color(dis.readInt());
+         return new DrawCircle(new Point(sx, sy), new Point(ex, ey), color, stroke, isFilled, fillColor);
+    }
+
+    @Override
+    public boolean contains(Rectangle selectionRect) {
+        int x = this.getDrawX();
+        int y = this.getDrawY();
+        int w = this.getDrawW();
+        int h = this.getDrawH();
+        return selectionRect.intersects(new Rectangle(x, y, w, h));
+    }
+
+    @Override
+    public boolean isValid() {
+        if (this.stroke <= 0 || this.stroke > 100) {
+            return false;
+        }
+        if (this.startPoint.equals(this.endPoint)) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class DrawLine extends AbstractDrawingObject {
+    public DrawLine(Point startPoint, Point endPoint, Color color, int stroke) {
+        super(Screen.LINE, startPoint, endPoint, color, stroke, false, Color.WHITE);
+    }
+    
+    @Override
+    public AbstractDrawingObject copy() {
+        return new DrawLine(startPoint, endPoint, color, stroke);
+    }
+    
+    @Override
+    public void draw(Graphics2D g) {
+        g.setStroke(ResourceCache.getStroke(this.stroke));
+        g.setColor(this.color);
+        g.drawLine(this.startPoint.x, this.startPoint.y, this.endPoint.x, this.endPoint.y);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("LINE: Start(%d,%d), End(%d,%d), Color(%d), Stroke(%d)",
+            startPoint.x, startPoint.y, endPoint.x, endPoint.y, color.getRGB(), stroke);
+    }
+    
+    @Override
+    public void saveToStream(DataOutputStream dos) throws IOException {
+        int mode = this.drawMode;
+        int startX = this.startPoint.x;
+        int startY = this.startPoint.y;
+        int endX = this.endPoint.x;
+        int endY = this.endPoint.y;
+        int lineColorRGB = this.color.getRGB();
+        int lineStroke = this.stroke;
+        boolean isLineFilled = this.isFilled;
+        int fillColorValue = this.fillColor.getRGB();
+
+        dos.writeInt(mode);
+        dos.writeInt(startX);
+        dos.writeInt(startY);
+        dos.writeInt(endX);
+        dos.writeInt(endY);
+        dos.writeInt(lineColorRGB);
+        dos.writeInt(lineStroke);
+        dos.writeBoolean(isLineFilled); 
+        dos.writeInt(fillColorValue);
+    }
+    
+    public static AbstractDrawingObject loadFromStream(DataInputStream dis) throws IOException {
+         int readStartX = dis.readInt();
+         int readStartY = dis.readInt();
+         int readEndX = dis.readInt();
+         int readEndY = dis.readInt();
+         Color readColor = new Color(dis.readInt());
+         int readStroke = dis.readInt();
+         boolean readIsFilled = dis.readBoolean();
+         Color readFillColor = new Color(dis.readInt());
+         
+         Point startP = new Point(readStartX, readStartY);
+         Point endP = new Point(readEndX, readEndY);
+         
+         return new DrawLine(startP, endP, readColor, readStroke);
+    }
+    
+    @Override
+    public boolean contains(Rectangle selectionRect) {
+        return selectionRect.contains(this.startPoint) || selectionRect.contains(this.endPoint) || selectionRect.intersects(
+            new Rectangle(
+                Math.min(this.startPoint.x, this.endPoint.x), 
+                Math.min(this.startPoint.y, this.endPoint.y), 
+                Math.abs(this.startPoint.x - this.endPoint.x), 
+                Math.abs(this.startPoint.y - this.endPoint.y)
+            )
+        );
+    }
+
+    @Override
+    public boolean isValid() {
+        if (this.startPoint == null || this.endPoint == null) {
+            return false;
+        }
+        if (this.stroke <= 0 || this.stroke > 100) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class DrawRectangle extends AbstractDrawingObject {
+    public DrawRectangle(Point startPoint, Point endPoint, Color color, int stroke, boolean isFilled, Color fillColor) {
+        super(Screen.RECTANGLE, startPoint, endPoint, color, stroke, isFilled, fillColor);
+    }
+    
+    @Override
+    public AbstractDrawingObject copy() {
+        return new DrawRectangle(startPoint, endPoint, color, stroke, isFilled, fillColor);
+    }
+    
+    private int getDrawX() { return Math.min(this.startPoint.x, this.endPoint.x); }
+    private int getDrawY() { return Math.min(this.startPoint.y, this.endPoint.y); }
+    private int getDrawW() { return Math.abs(this.startPoint.x - this.endPoint.x); }
+    private int getDrawH() { return Math.abs(this.startPoint.y - this.endPoint.y); }
+    
+    @Override
+    public void draw(Graphics2D g) {
+        int x = this.getDrawX();
+        int y = this.getDrawY();
+        int w = this.getDrawW();
+        int h = this.getDrawH();
+        
+        if (this.isFilled) {
+            g.setColor(this.fillColor);
+            g.fillRect(x, y, w, h);
+        }
+        g.setStroke(ResourceCache.getStroke(this.stroke));
+        g.setColor(this.color);
+        g.drawRect(x, y, w, h);
+    }
+
+    @Override
+    public void saveToStream(DataOutputStream dos) throws IOException {
+        int mode = this.drawMode;
+        int startX = this.startPoint.x;
+        int startY = this.startPoint.y;
+        int endX = this.endPoint.x;
+        int endY = this.endPoint.y;
+        int lineColorRGB = this.color.getRGB();
+        int lineStroke = this.stroke;
+        boolean isRectFilled = this.isFilled;
+        int fillColorValue = this.fillColor.getRGB();
+        
+        dos.writeInt(mode);
+        dos.writeInt(startX);
+        dos.writeInt(startY);
+        dos.writeInt(endX);
+        dos.writeInt(endY);
+        dos.writeInt(lineColorRGB);
+        dos.writeInt(lineStroke);
+        dos.writeBoolean(isRectFilled);
+        dos.writeInt(fillColorValue);
+    }
+    
+    public static AbstractDrawingObject loadFromStream(DataInputStream dis) throws IOException {
+         int sx = dis.readInt();
+         int sy = dis.readInt();
+         int ex = dis.readInt();
+         int ey = dis.readInt();
+         Color color = new Color(dis.readInt());
+         int stroke = dis.readInt();
+         boolean isFilled = dis.readBoolean();
+         Color fillColor = new Color(dis.readInt());
+         return new DrawRectangle(new Point(sx, sy), new Point(ex, ey), color, stroke, isFilled, fillColor);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RECT: Start(%d,%d), End(%d,%d), Filled(%s), FColor(%d)",
+            startPoint.x, startPoint.y, endPoint.x, endPoint.y, isFilled, fillColor.getRGB());
+    }
+
+    @Override
+    public boolean contains(Rectangle selectionRect) {
+        int x = this.getDrawX();
+        int y = this.getDrawY();
+        int w = this.getDrawW();
+        int h = this.getDrawH();
+        return selectionRect.intersects(new Rectangle(x, y, w, h));
+    }
+
+    @Override
+    public boolean isValid() {
+        if (this.stroke < 0 || this.stroke > 100) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,108 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class DrawText extends AbstractDrawingObject {
+    public static final String FONT_FAMILY = "맑은 고딕";
+    private static final FontRenderContext TEXT_RENDER_CONTEXT = new FontRenderContext(null, false, false);
+    
+    String text;
+    int fontSize;
+    
+    public DrawText(Point location, Color color, String text, int fontSize) {
+        super(Screen.TEXT, location, location, color, 0, false, Color.WHITE);
+        this.text = text;
+        this.fontSize = fontSize;
+    }
+    
+    @Override
+    public AbstractDrawingObject copy() {
+        return new DrawText(startPoint, color, text, fontSize);
+    }
+    
+    @Override
+    public void draw(Graphics2D g) {
+        g.setColor(this.color);
+        g.setFont(ResourceCache.getFont(FONT_FAMILY, Font.PLAIN, this.fontSize));
+        g.drawString(this.text, this.startPoint.x, this.startPoint.y);
+    }
+    
+    @Override
+    public void saveToStream(DataOutputStream dos) throws IOException {
+        int mode = this.drawMode;
+        int startX = this.startPoint.x;
+        int startY = this.startPoint.y;
+        int lineColorRGB = this.color.getRGB();
+        String textContent = this.text;
+        int textFontSize = this.fontSize;
+        boolean isTextFilled = this.isFilled;
+        int fillColorValue = this.fillColor.getRGB();
+        
+        dos.writeInt(mode);
+        dos.writeInt(startX);
+        dos.writeInt(startY);
+        dos.writeInt(lineColorRGB);
+        dos.writeUTF(textContent);
+        dos.writeInt(textFontSize);
+        dos.writeBoolean(isTextFilled); 
+        dos.writeInt(fillColorValue);
+    }
+
+    public static AbstractDrawingObject loadFromStream(DataInputStream dis) throws IOException {
+         int sx = dis.readInt();
+         int sy = dis.readInt();
+         Color color = new Color(dis.readInt());
+         String text = dis.readUTF();
+         int fontSize = dis.readInt();
+         dis.readBoolean();
+         Color fillColor = new Color(dis.readInt());
+         return new DrawText(new Point(sx, sy), color, text, fontSize);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TEXT: Loc(%d,%d), Text('%s'), Size(%d)",
+            startPoint.x, startPoint.y, text, fontSize);
+    }
+    
+    @Override
+    public boolean contains(Rectangle selectionRect) {
+        return selectionRect.contains(this.startPoint);
+    }
+    
+    @Override
+    public void translate(int dx, int dy) {
+        this.startPoint.translate(dx, dy);
+    }
+    
+    @Override
+    public Rectangle getBounds() {
+        Font font = ResourceCache.getFont(FONT_FAMILY, Font.PLAIN, this.fontSize);
+        Rectangle2D textBounds = font.getStringBounds(this.text, TEXT_RENDER_CONTEXT);
+        int pad = this.fontSize / 4 + 1;
+        return new Rectangle(
+            this.startPoint.x + (int)Math.floor(textBounds.getX()) - pad,
+            this.startPoint.y + (int)Math.floor(textBounds.getY()) - pad,
+            (int)Math.ceil(textBounds.getWidth()) + pad * 2,
+            (int)Math.ceil(textBounds.getHeight()) + pad * 2
+        );
+    }
+
+    @Override
+    public boolean isValid() {
+        if (this.fontSize < 8 || this.fontSize > 72) {
+            return false;
+        }
+        if (this.text == null || this.text.trim().isEmpty()) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.swing.SwingWorker;
+
+public abstract class FileTask<T> extends SwingWorker<T, Void> {
+
+    public enum Outcome { COMPLETED, CANCELLED, FAILED }
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "file-io-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ConcurrentHashMap<Path, ReentrantLock> fileLocks = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final File file;
+    private final long total;
+    protected final AtomicLong progress = new AtomicLong();
+    private Outcome outcome = null;
+    private T result = null;
+    private Throwable failure = null;
+
+    protected FileTask(String name, File file, long total) {
+        this.name = name;
+        this.file = file;
+        this.total = Math.max(1, total);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getPercent() {
+        return (int)Math.min(99, progress.get() * 100 / total);
+    }
+
+    public void start() {
+        executor.execute(this);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public T getResult() {
+        return result;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    protected final T doInBackground() throws Exception {
+        ReentrantLock lock = fileLocks.computeIfAbsent(file.getAbsoluteFile().toPath().normalize(), path -> new ReentrantLock(true));
+        if (lock.isLocked()) {
+            DebugLog.log(() -> name + " waiting for another operation on " + file.getName());
+        }
+        lock.lockInterruptibly();
+        try {
+            if (isCancelled()) {
+                throw new CancellationException(name + " cancelled before it started");
+            }
+            return perform();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected abstract T perform() throws IOException;
+
+    @Override
+    protected final void done() {
+        try {
+            result = get();
+            outcome = Outcome.COMPLETED;
+        } catch (CancellationException | InterruptedException e) {
+            outcome = Outcome.CANCELLED;
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+            outcome = (failure instanceof CancellationException) ? Outcome.CANCELLED : Outcome.FAILED;
+        }
+    }
+
+    public static File createTempFile(File target) throws IOException {
+        File directory = target.getAbsoluteFile().getParentFile();
+        return File.createTempFile(target.getName() + ".", ".tmp", directory);
+    }
+
+    public static void replace(File temp, File target) throws IOException {
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
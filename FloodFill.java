@@ -0,0 +1,366 @@
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class FloodFill {
+
+    public static final int PARALLEL_THRESHOLD = 4_000_000;
+    public static final int BAND_ALIGNMENT = 64;
+
+    public static final int RGB_DISTANCE = 0;
+    public static final int PERCEPTUAL_DISTANCE = 1;
+
+    private static final int PROGRESS_BATCH = 1 << 16;
+
+    private FloodFill() {
+    }
+
+    public static Rectangle fill(BufferedImage image, int x, int y, int replacementRGB, boolean allowParallel) {
+        return fill(image, x, y, replacementRGB, 0, RGB_DISTANCE, allowParallel, null);
+    }
+
+    public static Rectangle fill(BufferedImage image, int x, int y, int replacementRGB, int tolerance, int metric, boolean allowParallel, AtomicLong progress) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return null;
+        }
+        int[] pixels = getPixels(image);
+        int colorMask = getColorMask(image);
+        int target = pixels[y * width + x] & colorMask;
+        int replacement = replacementRGB & colorMask;
+
+        if (tolerance <= 0) {
+            if (target == replacement) {
+                return null;
+            }
+            Matcher matcher = new Matcher(target, colorMask, 0, metric, null);
+            return grow(pixels, width, height, x, y, matcher, replacement, allowParallel, progress);
+        }
+
+        SelectionMask mask = select(image, x, y, tolerance, metric, allowParallel, progress);
+        mask.fill(pixels, replacement);
+        return mask.getBounds();
+    }
+
+    public static SelectionMask select(BufferedImage image, int x, int y, int tolerance, int metric, boolean allowParallel, AtomicLong progress) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        SelectionMask mask = new SelectionMask(width, height);
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return mask;
+        }
+        int[] pixels = getPixels(image);
+        int colorMask = getColorMask(image);
+        Matcher matcher = new Matcher(pixels[y * width + x] & colorMask, colorMask, Math.max(0, tolerance), metric, mask);
+        grow(pixels, width, height, x, y, matcher, 0, allowParallel, progress);
+        return mask;
+    }
+
+    private static Rectangle grow(int[] pixels, int width, int height, int x, int y, Matcher matcher, int replacement, boolean allowParallel, AtomicLong progress) {
+        boolean isParallel = allowParallel
+            && (long)width * height >= PARALLEL_THRESHOLD
+            && ForkJoinPool.getCommonPoolParallelism() > 1;
+        if (isParallel) {
+            return fillParallel(pixels, width, height, x, y, matcher, replacement, progress);
+        }
+        return fillSerial(pixels, width, height, x, y, matcher, replacement, progress);
+    }
+
+    private static int getColorMask(BufferedImage image) {
+        return image.getColorModel().hasAlpha() ? 0xFFFFFFFF : 0x00FFFFFF;
+    }
+
+    public static int[] getPixels(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        if (!(buffer instanceof DataBufferInt) || image.getRaster().getNumDataElements() != 1) {
+            throw new IllegalArgumentException("Flood fill requires an int-packed image, got type " + image.getType());
+        }
+        return ((DataBufferInt)buffer).getData();
+    }
+
+    static Rectangle fillSerial(int[] pixels, int width, int height, int x, int y, Matcher matcher, int replacement, AtomicLong progress) {
+        Band band = new Band(0, height, height, matcher, replacement, progress);
+        band.stack.push(x, y);
+        band.run(pixels, width);
+        band.flushProgress();
+        return band.getBounds();
+    }
+
+    static Rectangle fillParallel(int[] pixels, int width, int height, int x, int y, Matcher matcher, int replacement, AtomicLong progress) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int bandHeight = (height + parallelism * 4 - 1) / (parallelism * 4);
+        bandHeight = Math.max(BAND_ALIGNMENT, (bandHeight + BAND_ALIGNMENT - 1) / BAND_ALIGNMENT * BAND_ALIGNMENT);
+
+        int bandCount = (height + bandHeight - 1) / bandHeight;
+        Band[] bands = new Band[bandCount];
+        for (int i = 0; i < bandCount; i++) {
+            bands[i] = new Band(i * bandHeight, Math.min(height, (i + 1) * bandHeight), height, matcher, replacement, progress);
+        }
+        bands[y / bandHeight].incoming.push3(y, x, x);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        while (true) {
+            tasks.clear();
+            for (final Band band : bands) {
+                if (!band.incoming.isEmpty()) {
+                    tasks.add(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            band.seedFromIncoming(pixels, width);
+                            band.run(pixels, width);
+                            band.flushProgress();
+                            return null;
+                        }
+                    });
+                }
+            }
+            if (tasks.isEmpty()) {
+                break;
+            }
+            ForkJoinPool.commonPool().invokeAll(tasks);
+
+            for (int i = 0; i < bandCount; i++) {
+                if (i > 0) {
+                    bands[i].incoming.pushAll(bands[i - 1].toLower);
+                    bands[i - 1].toLower.clear();
+                }
+                if (i < bandCount - 1) {
+                    bands[i].incoming.pushAll(bands[i + 1].toUpper);
+                    bands[i + 1].toUpper.clear();
+                }
+            }
+        }
+
+        Rectangle bounds = null;
+        for (Band band : bands) {
+            Rectangle bandBounds = band.getBounds();
+            if (bandBounds != null) {
+                bounds = (bounds == null) ? bandBounds : bounds.union(bandBounds);
+            }
+        }
+        return bounds;
+    }
+
+    private static final class Band {
+        final int startRow;
+        final int endRow;
+        final int totalRows;
+        final Matcher matcher;
+        final int replacement;
+        final AtomicLong progress;
+        long pendingProgress = 0;
+        final IntStack stack = new IntStack();
+        final IntStack incoming = new IntStack();
+        final IntStack toUpper = new IntStack();
+        final IntStack toLower = new IntStack();
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        Band(int startRow, int endRow, int totalRows, Matcher matcher, int replacement, AtomicLong progress) {
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.totalRows = totalRows;
+            this.matcher = matcher;
+            this.replacement = replacement;
+            this.progress = progress;
+        }
+
+        void seedFromIncoming(int[] pixels, int width) {
+            int[] ranges = incoming.data;
+            for (int i = 0; i < incoming.size; i += 3) {
+                pushRuns(pixels, width, ranges[i], ranges[i + 1], ranges[i + 2]);
+            }
+            incoming.clear();
+        }
+
+        void run(int[] pixels, int width) {
+            Matcher matcher = this.matcher;
+            SelectionMask mask = matcher.mask;
+            while (!stack.isEmpty()) {
+                int y = stack.pop();
+                int x = stack.pop();
+                int row = y * width;
+                if (!matcher.matches(pixels[row + x], x, y)) {
+                    continue;
+                }
+
+                int left = x;
+                while (left > 0 && matcher.matches(pixels[row + left - 1], left - 1, y)) {
+                    left--;
+                }
+                int right = x;
+                while (right < width - 1 && matcher.matches(pixels[row + right + 1], right + 1, y)) {
+                    right++;
+                }
+                if (mask == null) {
+                    for (int i = row + left; i <= row + right; i++) {
+                        pixels[i] = replacement;
+                    }
+                } else {
+                    mask.setSpan(y, left, right);
+                }
+
+                if (progress != null) {
+                    pendingProgress += right - left + 1;
+                    if (pendingProgress >= PROGRESS_BATCH) {
+                        flushProgress();
+                    }
+                }
+
+                if (left < minX) minX = left;
+                if (right > maxX) maxX = right;
+                if (y < minY) minY = y;
+                if (y > maxY) maxY = y;
+
+                visitRow(pixels, width, y - 1, left, right, toUpper);
+                visitRow(pixels, width, y + 1, left, right, toLower);
+            }
+        }
+
+        void flushProgress() {
+            if (progress != null && pendingProgress > 0) {
+                progress.addAndGet(pendingProgress);
+                pendingProgress = 0;
+            }
+        }
+
+        private void visitRow(int[] pixels, int width, int y, int left, int right, IntStack outbox) {
+            if (y >= startRow && y < endRow) {
+                pushRuns(pixels, width, y, left, right);
+            } else if (y >= 0 && y < totalRows) {
+                outbox.push3(y, left, right);
+            }
+        }
+
+        private void pushRuns(int[] pixels, int width, int y, int left, int right) {
+            if (y < startRow || y >= endRow) {
+                return;
+            }
+            int row = y * width;
+            boolean inRun = false;
+            for (int x = left; x <= right; x++) {
+                boolean matches = matcher.matches(pixels[row + x], x, y);
+                if (matches && !inRun) {
+                    stack.push(x, y);
+                }
+                inRun = matches;
+            }
+        }
+
+        Rectangle getBounds() {
+            if (maxX < minX) {
+                return null;
+            }
+            return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+        }
+    }
+
+    static final class Matcher {
+        final int target;
+        final int colorMask;
+        final int tolerance;
+        final int metric;
+        final int threshold;
+        final SelectionMask mask;
+        final int targetRed;
+        final int targetGreen;
+        final int targetBlue;
+
+        Matcher(int target, int colorMask, int tolerance, int metric, SelectionMask mask) {
+            this.target = target;
+            this.colorMask = colorMask;
+            this.tolerance = tolerance;
+            this.metric = metric;
+            this.threshold = (metric == PERCEPTUAL_DISTANCE) ? 9 * tolerance * tolerance : tolerance;
+            this.mask = mask;
+            this.targetRed = (target >> 16) & 0xFF;
+            this.targetGreen = (target >> 8) & 0xFF;
+            this.targetBlue = target & 0xFF;
+        }
+
+        boolean matches(int pixel, int x, int y) {
+            if (mask != null && mask.get(x, y)) {
+                return false;
+            }
+            pixel &= colorMask;
+            if (pixel == target) {
+                return true;
+            }
+            if (tolerance == 0) {
+                return false;
+            }
+            if (colorMask == 0xFFFFFFFF && Math.abs((pixel >>> 24) - (target >>> 24)) > tolerance) {
+                return false;
+            }
+            int dr = ((pixel >> 16) & 0xFF) - targetRed;
+            int dg = ((pixel >> 8) & 0xFF) - targetGreen;
+            int db = (pixel & 0xFF) - targetBlue;
+            if (metric == PERCEPTUAL_DISTANCE) {
+                int redMean = (((pixel >> 16) & 0xFF) + targetRed) >> 1;
+                int distance = (((512 + redMean) * dr * dr) >> 8) + 4 * dg * dg + (((767 - redMean) * db * db) >> 8);
+                return distance <= threshold;
+            }
+            return Math.max(Math.abs(dr), Math.max(Math.abs(dg), Math.abs(db))) <= threshold;
+        }
+    }
+
+    static final class IntStack {
+        int[] data = new int[1024];
+        int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int a, int b) {
+            if (size + 2 > data.length) {
+                grow(size + 2);
+            }
+            data[size++] = a;
+            data[size++] = b;
+        }
+
+        void push3(int a, int b, int c) {
+            if (size + 3 > data.length) {
+                grow(size + 3);
+            }
+            data[size++] = a;
+            data[size++] = b;
+            data[size++] = c;
+        }
+
+        void pushAll(IntStack other) {
+            if (other.size == 0) {
+                return;
+            }
+            if (size + other.size > data.length) {
+                grow(size + other.size);
+            }
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+        }
+
+        int pop() {
+            return data[--size];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        private void grow(int minCapacity) {
+            int[] grown = new int[Math.max(minCapacity, data.length * 2)];
+            System.arraycopy(data, 0, grown, 0, size);
+            data = grown;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.Timer;
+
+public final class FrameScheduler {
+
+    public static final int DEFAULT_REFRESH_RATE = 60;
+
+    private static final long MAX_QUEUE_DELAY_MILLIS = 1000;
+
+    private final Consumer<List<MouseEvent>> consumer;
+    private final Timer timer;
+    private final int refreshRate;
+    private List<MouseEvent> queue = new ArrayList<>();
+    private long oldestQueuedNanos = 0;
+    private long unpaintedInputNanos = 0;
+    private int lastBatchSize = 0;
+    private int maxBatchSize = 0;
+    private long eventCount = 0;
+    private long frameCount = 0;
+
+    public FrameScheduler(Consumer<List<MouseEvent>> consumer) {
+        this.consumer = consumer;
+        this.refreshRate = getDisplayRefreshRate();
+        this.timer = new Timer(Math.max(1, 1000 / refreshRate), new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (queue.isEmpty()) {
+                    timer.stop();
+                } else {
+                    flush();
+                }
+            }
+        });
+        timer.setCoalesce(true);
+    }
+
+    public static int getDisplayRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_REFRESH_RATE;
+        }
+        DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+        int rate = (mode != null) ? mode.getRefreshRate() : DisplayMode.REFRESH_RATE_UNKNOWN;
+        return (rate > 0) ? rate : DEFAULT_REFRESH_RATE;
+    }
+
+    public int getRefreshRate() {
+        return refreshRate;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public void post(MouseEvent e) {
+        long delayMillis = Math.max(0, Math.min(MAX_QUEUE_DELAY_MILLIS, System.currentTimeMillis() - e.getWhen()));
+        if (queue.isEmpty()) {
+            oldestQueuedNanos = System.nanoTime() - delayMillis * 1_000_000L;
+        }
+        queue.add(e);
+        eventCount++;
+        if (!timer.isRunning()) {
+            flush();
+            timer.start();
+        }
+    }
+
+    public void flush() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        List<MouseEvent> batch = queue;
+        queue = new ArrayList<>();
+        if (unpaintedInputNanos == 0) {
+            unpaintedInputNanos = oldestQueuedNanos;
+        }
+        lastBatchSize = batch.size();
+        maxBatchSize = Math.max(maxBatchSize, lastBatchSize);
+        frameCount++;
+        consumer.accept(batch);
+    }
+
+    public void framePainted() {
+        if (unpaintedInputNanos != 0) {
+            PerformanceStats.INPUT_TO_PAINT.record(System.nanoTime() - unpaintedInputNanos);
+            unpaintedInputNanos = 0;
+        }
+    }
+
+    public void stop() {
+        timer.stop();
+        queue.clear();
+    }
+}
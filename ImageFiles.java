@@ -0,0 +1,137 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+public final class ImageFiles {
+
+    private ImageFiles() {
+    }
+
+    public static void write(BufferedImage image, String format, File file, AtomicLong progress, BooleanSupplier isCancelled) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No image writer for format " + format);
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            if (out == null) {
+                throw new IOException("Cannot open " + file + " for writing");
+            }
+            writer.setOutput(out);
+            writer.addIIOWriteProgressListener(new IIOWriteProgressListener() {
+                @Override
+                public void imageProgress(ImageWriter source, float percentageDone) {
+                    progress.set((long)percentageDone);
+                    if (isCancelled.getAsBoolean()) {
+                        source.abort();
+                    }
+                }
+
+                @Override
+                public void imageStarted(ImageWriter source, int imageIndex) {
+                }
+
+                @Override
+                public void imageComplete(ImageWriter source) {
+                }
+
+                @Override
+                public void thumbnailStarted(ImageWriter source, int imageIndex, int thumbnailIndex) {
+                }
+
+                @Override
+                public void thumbnailProgress(ImageWriter source, float percentageDone) {
+                }
+
+                @Override
+                public void thumbnailComplete(ImageWriter source) {
+                }
+
+                @Override
+                public void writeAborted(ImageWriter source) {
+                }
+            });
+            writer.write(image);
+        } finally {
+            writer.dispose();
+        }
+        if (isCancelled.getAsBoolean()) {
+            throw new CancellationException("Image export cancelled");
+        }
+    }
+
+    public static BufferedImage read(File file, AtomicLong progress, BooleanSupplier isCancelled) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            if (in == null) {
+                throw new IOException("Cannot open " + file + " for reading");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                reader.addIIOReadProgressListener(new IIOReadProgressListener() {
+                    @Override
+                    public void imageProgress(ImageReader source, float percentageDone) {
+                        progress.set((long)percentageDone);
+                        if (isCancelled.getAsBoolean()) {
+                            source.abort();
+                        }
+                    }
+
+                    @Override
+                    public void sequenceStarted(ImageReader source, int minIndex) {
+                    }
+
+                    @Override
+                    public void sequenceComplete(ImageReader source) {
+                    }
+
+                    @Override
+                    public void imageStarted(ImageReader source, int imageIndex) {
+                    }
+
+                    @Override
+                    public void imageComplete(ImageReader source) {
+                    }
+
+                    @Override
+                    public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
+                    }
+
+                    @Override
+                    public void thumbnailProgress(ImageReader source, float percentageDone) {
+                    }
+
+                    @Override
+                    public void thumbnailComplete(ImageReader source) {
+                    }
+
+                    @Override
+                    public void readAborted(ImageReader source) {
+                    }
+                });
+                BufferedImage image = reader.read(0);
+                if (isCancelled.getAsBoolean()) {
+                    throw new CancellationException("Image load cancelled");
+                }
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FileDialog;
+import java.awt.Font;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
@@ -10,13 +11,20 @@ import java.awt.event.InputEvent;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
+import java.util.List;
 import javax.swing.BorderFactory;
+import javax.swing.ButtonGroup;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JColorChooser;
+import javax.swing.JDialog;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -24,8 +32,13 @@ import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JRadioButtonMenuItem;
+import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
+import javax.swing.JTextArea;
 import javax.swing.JToolBar;
+import javax.swing.JViewport;
 import javax.swing.KeyStroke;
 import javax.swing.SpinnerNumberModel;
 import javax.swing.border.Border;
@@ -33,16 +46,28 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
-public class MainFrame extends JFrame implements ActionListener, ChangeListener {
+public class MainFrame extends JFrame implements ActionListener, ChangeListener, PropertyChangeListener {
 	private final String MENU_FILE_NEW = "새로만들기(N)";
 	private final String MENU_FILE_CLOSE = "끝내기(E)";
 	private final String MENU_FILE_OPEN = "열기(O)";
 	private final String MENU_FILE_SAVE = "저장(S)";
-	private final String[] TOOL_NAMES = {"점", "선", "원", "네모", "지우개", "텍스트", "선택", "삭제", "채우기"};
+	private final String[] TOOL_NAMES = {"점", "선", "원", "네모", "지우개", "텍스트", "선택", "삭제", "채우기", "마법봉"};
     
+    private final String MENU_FILE_COMPRESS = "압축하여 저장";
+    private final String MENU_FILE_CANCEL = "파일 작업 취소";
+    private final String BUTTON_CANCEL_FILE_TASKS = "취소";
     private final String MENU_FILE_SAVE_IMAGE = "이미지 파일로 저장...";
     private final String MENU_FILE_OPEN_IMAGE = "이미지 파일 열기...";
+    private final String MENU_EDIT_UNDO = "실행 취소";
+    private final String MENU_EDIT_REDO = "다시 실행";
+    private final String MENU_EDIT_UNDO_COMPRESS = "실행 취소 기록 압축";
+    private final String MENU_EDIT_UNDO_BUDGET = "실행 취소 메모리 한도";
+    private final int[] UNDO_BUDGET_MB = {64, 256, 1024};
+    private final String MENU_VIEW_TILE_CACHE = "큰 이미지 타일 캐시 한도";
+    private final int[] TILE_CACHE_MB = {128, 256, 1024};
+    private final int SCROLL_UNIT = 16;
     private final String MENU_VIEW_DEBUG = "디버그 정보 보기";
+    private final String MENU_VIEW_DEBUG_LOG = "디버그 로그 보기...";
     
     private final String MENU_VIEW_FLIP_H = "좌우 대칭";
     private final String MENU_VIEW_FLIP_V = "상하 대칭";
@@ -68,7 +93,14 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 	private final int MAX_FONT_SIZE = 48;
 	private JSpinner fontSizeSpinner;
 	
+	private final int MAX_TOLERANCE = 255;
+	private JSpinner toleranceSpinner;
+	private JCheckBox perceptualCheckBox;
+	
 	private JLabel statusBar = null;
+	private JPanel statusPanel = null;
+	private JPanel fileTaskPanel = null;
+	private JProgressBar fileProgressBar = null;
 	private JButton []toolboxButtons;
 	private JButton lineColorButton;
 	private JButton fillColorButton;
@@ -79,27 +111,45 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
     
     private float zoomLevel = 1.0f;
     private final float ZOOM_STEP = 0.5f;
-    private final float MAX_ZOOM = 4.0f;
-    private final float MIN_ZOOM = 0.5f;
     private JCheckBoxMenuItem debugMenuItem;
+    private JCheckBoxMenuItem compressMenuItem;
+    private JCheckBoxMenuItem undoCompressMenuItem;
 	
 	public MainFrame() {
 		screen = new Screen(); 
+		screen.addPropertyChangeListener(Screen.PROPERTY_RASTER_PROGRESS, this);
+		screen.addPropertyChangeListener(Screen.PROPERTY_FILE_PROGRESS, this);
+		screen.addPropertyChangeListener(Screen.PROPERTY_FILE_TASKS, this);
+		screen.addPropertyChangeListener(Screen.PROPERTY_ZOOM, this);
 		
 		Border border = BorderFactory.createLineBorder(Color.GRAY, 1);
-        screen.setBorder(border);
+		JScrollPane scrollPane = new JScrollPane(screen);
+		scrollPane.setBorder(border);
+		scrollPane.getViewport().setScrollMode(JViewport.BLIT_SCROLL_MODE);
+		scrollPane.getHorizontalScrollBar().setUnitIncrement(SCROLL_UNIT);
+		scrollPane.getVerticalScrollBar().setUnitIncrement(SCROLL_UNIT);
         
-		add(screen);
+		add(scrollPane);
 		this.setJMenuBar(createMenuBar());
 		this.statusBar = createStatusBar();
-		this.add(statusBar, BorderLayout.SOUTH);
+		this.add(createStatusPanel(), BorderLayout.SOUTH);
 		this.add(createToolBar(), BorderLayout.NORTH);
 		this.setSize(800, 600);
 		this.setTitle("Windows Painter");
 		
 		this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		this.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				screen.endSession();
+			}
+		});
 		this.setLocationRelativeTo(null);
 		this.setVisible(true);
+		
+		if (screen.startSession(outcome -> reportFileTask(outcome, "이전 작업 복구", ""))) {
+			statusBar.setText("이전 작업을 복구하는 중...");
+		}
 	}
 	
 	private JToolBar createToolBar() {
@@ -109,7 +159,7 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 		JPanel groupPanelDrawBox = new JPanel();
 		groupPanelDrawBox.setLayout(new GridLayout(5, 2));
 		
-		toolboxButtons = new JButton[9];
+		toolboxButtons = new JButton[10];
 		
 		JButton pointButton = new JButton(TOOL_NAMES[0]);
 		pointButton.setPreferredSize(new Dimension(60, 30));
@@ -165,6 +215,12 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 		groupPanelDrawBox.add(fillBucketButton);
 		toolboxButtons[8] = fillBucketButton;
 		
+		JButton magicWandButton = new JButton(TOOL_NAMES[9]);
+		magicWandButton.setPreferredSize(new Dimension(60, 30));
+		magicWandButton.addActionListener(this);
+		groupPanelDrawBox.add(magicWandButton);
+		toolboxButtons[9] = magicWandButton;
+		
 		JPanel groupPanelEraser = new JPanel();
 		groupPanelEraser.setBorder(BorderFactory.createTitledBorder("지우개 크기"));
 		
@@ -198,6 +254,21 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 		fillSelectionButton.addActionListener(this);
 		groupPanelFillControl.add(fillSelectionButton);
 		
+		JPanel groupPanelTolerance = new JPanel();
+		groupPanelTolerance.setLayout(new GridLayout(2, 1));
+		groupPanelTolerance.setBorder(BorderFactory.createTitledBorder("허용 오차"));
+		
+		SpinnerNumberModel toleranceModel = new SpinnerNumberModel(0, 0, MAX_TOLERANCE, 4);
+		toleranceSpinner = new JSpinner(toleranceModel);
+		toleranceSpinner.setPreferredSize(new Dimension(60, 20));
+		toleranceSpinner.addChangeListener(this);
+		groupPanelTolerance.add(toleranceSpinner);
+		
+		perceptualCheckBox = new JCheckBox("지각 색상 거리");
+		perceptualCheckBox.setSelected(false);
+		perceptualCheckBox.addActionListener(this);
+		groupPanelTolerance.add(perceptualCheckBox);
+		
 		JPanel groupPanelStroke = new JPanel();
 		groupPanelStroke.setBorder(BorderFactory.createTitledBorder("선 두께"));
 		
@@ -262,6 +333,7 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 		toolbar.add(groupPanelEraser);
 		toolbar.add(groupPanelFont);
 		toolbar.add(groupPanelFillControl);
+		toolbar.add(groupPanelTolerance);
 		toolbar.add(groupPanelStroke); 
 		toolbar.add(groupPanelColorControl);
 		toolbar.add(groupPanelColorPalette);
@@ -274,6 +346,37 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 		return statusBar;
 	}
 	
+	private JPanel createStatusPanel() {
+		statusPanel = new JPanel(new BorderLayout());
+		statusPanel.add(statusBar, BorderLayout.CENTER);
+		
+		fileTaskPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+		fileProgressBar = new JProgressBar(0, 100);
+		fileProgressBar.setStringPainted(true);
+		fileTaskPanel.add(fileProgressBar);
+		JButton cancelButton = new JButton(BUTTON_CANCEL_FILE_TASKS);
+		cancelButton.setToolTipText("진행 중인 파일 작업을 취소합니다. (Esc)");
+		cancelButton.addActionListener(this);
+		fileTaskPanel.add(cancelButton);
+		fileTaskPanel.setVisible(false);
+		statusPanel.add(fileTaskPanel, BorderLayout.EAST);
+		return statusPanel;
+	}
+	
+	private void reportFileTask(FileTask.Outcome outcome, String operation, String name) {
+		switch (outcome) {
+			case COMPLETED:
+				statusBar.setText(operation + " 완료: " + name);
+				break;
+			case CANCELLED:
+				statusBar.setText(operation + " 취소됨: " + name);
+				break;
+			default:
+				statusBar.setText(operation + " 실패! " + name);
+				break;
+		}
+	}
+	
 	private JMenuBar createMenuBar() {
 		JMenuBar menuBar = new JMenuBar();
 		ImageIcon iconNew = new ImageIcon("resource/new.png");
@@ -309,6 +412,14 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 		fileMenu.add(saveMenuItem);
 		fileMenu.add(openMenuItem);
 		fileMenu.add(saveasMenuItem);
+		JMenuItem cancelMenuItem = new JMenuItem(MENU_FILE_CANCEL);
+		cancelMenuItem.addActionListener(this);
+		cancelMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0));
+		fileMenu.add(cancelMenuItem);
+		compressMenuItem = new JCheckBoxMenuItem(MENU_FILE_COMPRESS);
+		compressMenuItem.setSelected(false);
+		compressMenuItem.addActionListener(this);
+		fileMenu.add(compressMenuItem);
 		fileMenu.addSeparator();
 		
 		JMenuItem closeMenuItem = new JMenuItem(MENU_FILE_CLOSE, iconClose);
@@ -318,6 +429,42 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 		closeMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_E, InputEvent.CTRL_DOWN_MASK));
 		fileMenu.add(closeMenuItem);
 		
+		JMenu editMenu = new JMenu("편집");
+		menuBar.add(editMenu);
+		
+		JMenuItem undoMenuItem = new JMenuItem(MENU_EDIT_UNDO);
+		undoMenuItem.addActionListener(this);
+		undoMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+		editMenu.add(undoMenuItem);
+		
+		JMenuItem redoMenuItem = new JMenuItem(MENU_EDIT_REDO);
+		redoMenuItem.addActionListener(this);
+		redoMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
+		editMenu.add(redoMenuItem);
+		editMenu.addSeparator();
+		
+		undoCompressMenuItem = new JCheckBoxMenuItem(MENU_EDIT_UNDO_COMPRESS);
+		undoCompressMenuItem.setSelected(false);
+		undoCompressMenuItem.addActionListener(this);
+		editMenu.add(undoCompressMenuItem);
+		
+		JMenu budgetMenu = new JMenu(MENU_EDIT_UNDO_BUDGET);
+		ButtonGroup budgetGroup = new ButtonGroup();
+		for (int megabytes : UNDO_BUDGET_MB) {
+			JRadioButtonMenuItem budgetMenuItem = new JRadioButtonMenuItem(megabytes + " MB");
+			budgetMenuItem.setSelected(((long)megabytes << 20) == screen.getUndoHistory().getMemoryBudget());
+			budgetMenuItem.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					screen.setUndoMemoryBudget((long)megabytes << 20);
+					statusBar.setText(MENU_EDIT_UNDO_BUDGET + ": " + megabytes + " MB");
+				}
+			});
+			budgetGroup.add(budgetMenuItem);
+			budgetMenu.add(budgetMenuItem);
+		}
+		editMenu.add(budgetMenu);
+		
 		JMenu viewMenu = new JMenu("보기(V)");
 		
 		JMenuItem zoomInMenuItem = new JMenuItem("확대 (Z)");
@@ -348,12 +495,33 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 		rotateCCMenuItem.addActionListener(this);
 		viewMenu.add(rotateCCMenuItem);
 		
+		JMenu tileCacheMenu = new JMenu(MENU_VIEW_TILE_CACHE);
+		ButtonGroup tileCacheGroup = new ButtonGroup();
+		for (int megabytes : TILE_CACHE_MB) {
+			JRadioButtonMenuItem tileCacheMenuItem = new JRadioButtonMenuItem(megabytes + " MB");
+			tileCacheMenuItem.setSelected(((long)megabytes << 20) == screen.getTileMemoryCap());
+			tileCacheMenuItem.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					screen.setTileMemoryCap((long)megabytes << 20);
+					statusBar.setText(MENU_VIEW_TILE_CACHE + ": " + megabytes + " MB");
+				}
+			});
+			tileCacheGroup.add(tileCacheMenuItem);
+			tileCacheMenu.add(tileCacheMenuItem);
+		}
+		viewMenu.add(tileCacheMenu);
+		
 		viewMenu.addSeparator();
 
 		debugMenuItem = new JCheckBoxMenuItem(MENU_VIEW_DEBUG);
 		debugMenuItem.setSelected(false);
 		debugMenuItem.addActionListener(this);
 		viewMenu.add(debugMenuItem);
+		
+		JMenuItem debugLogMenuItem = new JMenuItem(MENU_VIEW_DEBUG_LOG);
+		debugLogMenuItem.addActionListener(this);
+		viewMenu.add(debugLogMenuItem);
 		viewMenu.addSeparator();
 		
 		JCheckBoxMenuItem showStatusMenuItem = new JCheckBoxMenuItem("상태바 보기(S)");
@@ -363,10 +531,10 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 			@Override
 			public void itemStateChanged(ItemEvent e) {
 				if(e.getStateChange() == ItemEvent.SELECTED) {
-					statusBar.setVisible(true);
+					statusPanel.setVisible(true);
 				}
 				else {
-					statusBar.setVisible(false);
+					statusPanel.setVisible(false);
 				}
 			}
 		});
@@ -412,19 +580,54 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 	}
     
     private void setZoom(float newZoomLevel) {
-        if (newZoomLevel < MIN_ZOOM) {
-            newZoomLevel = MIN_ZOOM;
-        } else if (newZoomLevel > MAX_ZOOM) {
-            newZoomLevel = MAX_ZOOM;
+        if (newZoomLevel < Screen.MIN_ZOOM) {
+            newZoomLevel = Screen.MIN_ZOOM;
+        } else if (newZoomLevel > Screen.MAX_ZOOM) {
+            newZoomLevel = Screen.MAX_ZOOM;
         }
         
         if (newZoomLevel != zoomLevel) {
-            zoomLevel = newZoomLevel;
-            screen.setZoomLevel(zoomLevel);
-            statusBar.setText("확대/축소: " + (int)(zoomLevel * 100) + "%");
+            screen.zoomAt(newZoomLevel, null);
         }
     }
     
+    private void showDebugLogDialog() {
+        JDialog dialog = new JDialog(this, "디버그 로그", false);
+        JTextArea logArea = new JTextArea();
+        logArea.setEditable(false);
+        logArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        
+        JLabel summaryLabel = new JLabel();
+        Runnable refresh = new Runnable() {
+            @Override
+            public void run() {
+                List<String> lines = DebugLog.snapshot();
+                logArea.setText(String.join("\n", lines));
+                logArea.setCaretPosition(logArea.getDocument().getLength());
+                summaryLabel.setText("최근 " + lines.size() + "개 / 버려진 항목 " + DebugLog.getDroppedCount() + "개");
+            }
+        };
+        refresh.run();
+        
+        JButton refreshButton = new JButton("새로고침");
+        refreshButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh.run();
+            }
+        });
+        
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(summaryLabel, BorderLayout.CENTER);
+        bottomPanel.add(refreshButton, BorderLayout.EAST);
+        
+        dialog.add(new JScrollPane(logArea), BorderLayout.CENTER);
+        dialog.add(bottomPanel, BorderLayout.SOUTH);
+        dialog.setSize(700, 400);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+    
     private void updateDebugMode() {
         boolean isDebug = debugMenuItem.isSelected();
         screen.setDebugMode(isDebug);
@@ -443,6 +646,10 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 			updateDebugMode();
 			return;
 		}
+		else if (cmd.equals(MENU_VIEW_DEBUG_LOG)) {
+			showDebugLogDialog();
+			return;
+		}
         
         if (cmd.equals(MENU_VIEW_FLIP_H)) {
             screen.applyFlipHorizontal();
@@ -466,6 +673,17 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
             
         }
 		
+		if (cmd.equals(MENU_EDIT_UNDO)) {
+			String name = screen.undo();
+			statusBar.setText((name != null) ? "실행 취소: " + name : "실행 취소할 작업이 없습니다.");
+			return;
+		}
+		else if (cmd.equals(MENU_EDIT_REDO)) {
+			String name = screen.redo();
+			statusBar.setText((name != null) ? "다시 실행: " + name : "다시 실행할 작업이 없습니다.");
+			return;
+		}
+		
 		if(cmd.equals(MENU_FILE_NEW)) {
 			screen.clearAll(); 
             statusBar.setText("새로운 그림을 시작합니다.");
@@ -475,7 +693,9 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 			fd.setVisible(true);
 			if(fd.getFile() != null)
 			{
-				screen.save(fd.getDirectory()+fd.getFile());
+				String name = fd.getFile();
+				statusBar.setText("파일을 저장하는 중... " + name);
+				screen.saveInBackground(fd.getDirectory() + name, outcome -> reportFileTask(outcome, "파일 저장", name));
 			}
 		}
 		else if(cmd.equals(MENU_FILE_OPEN)) {
@@ -484,11 +704,18 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 			fd.setVisible(true);
 			if(fd.getFile() != null)
 			{
-				screen.open(fd.getDirectory()+fd.getFile());
-				screen.repaint();
+				String name = fd.getFile();
+				statusBar.setText("파일을 여는 중... " + name);
+				screen.openInBackground(fd.getDirectory() + name, outcome -> reportFileTask(outcome, "파일 열기", name));
+			}
+		}
+		else if(cmd.equals(MENU_FILE_CANCEL) || cmd.equals(BUTTON_CANCEL_FILE_TASKS)) {
+			if (screen.hasFileTasks()) {
+				screen.cancelFileTasks();
 			}
 		}
 		else if(cmd.equals(MENU_FILE_CLOSE)) {
+			screen.endSession();
 			this.dispose();
 			System.exit(0);
 		}
@@ -511,13 +738,9 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
                     file = new File(path + "." + ext);
                 }
                 
-                boolean saveSuccess = screen.saveImage(file, ext);
-                
-                if (saveSuccess) {
-                    statusBar.setText("이미지 파일 저장 완료: " + file.getName());
-                } else {
-                    statusBar.setText("이미지 파일 저장 실패!");
-                }
+                String name = file.getName();
+                statusBar.setText("이미지 파일을 저장하는 중... " + name);
+                screen.saveImageInBackground(file, ext, outcome -> reportFileTask(outcome, "이미지 파일 저장", name));
             }
             return;
         } 
@@ -529,21 +752,18 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
             
             if (dialogResult == JFileChooser.APPROVE_OPTION) {
                 File file = fileChooser.getSelectedFile();
-                if (screen.loadImage(file)) {
-                    statusBar.setText("이미지 파일 열기 완료: " + file.getName());
-                    screen.repaint();
-                } else {
-                    statusBar.setText("이미지 파일 열기 실패!");
-                }
+                String name = file.getName();
+                statusBar.setText("이미지 파일을 여는 중... " + name);
+                screen.loadImageInBackground(file, outcome -> reportFileTask(outcome, "이미지 파일 열기", name));
             }
             return;
         }
         
         if (cmd.equals("확대 (Z)")) {
-			setZoom(zoomLevel + ZOOM_STEP);
+			setZoom((zoomLevel < 1.0f) ? zoomLevel * 2 : zoomLevel + ZOOM_STEP);
 			return;
 		} else if (cmd.equals("축소 (X)")) {
-			setZoom(zoomLevel - ZOOM_STEP);
+			setZoom((zoomLevel <= 1.0f) ? zoomLevel / 2 : zoomLevel - ZOOM_STEP);
 			return;
 		}
 		
@@ -553,6 +773,27 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 			statusBar.setText("도형 채우기 상태: " + (isFilled ? "사용" : "미사용"));
 			return;
 		}
+		
+		if (e.getSource() == compressMenuItem) {
+			boolean isCompressed = compressMenuItem.isSelected();
+			screen.setSaveCompressed(isCompressed);
+			statusBar.setText("저장 압축: " + (isCompressed ? "사용" : "미사용"));
+			return;
+		}
+		
+		if (e.getSource() == undoCompressMenuItem) {
+			boolean isCompressed = undoCompressMenuItem.isSelected();
+			screen.setUndoCompressed(isCompressed);
+			statusBar.setText("실행 취소 기록 압축: " + (isCompressed ? "사용" : "미사용"));
+			return;
+		}
+		
+		if (e.getSource() == perceptualCheckBox) {
+			boolean isPerceptual = perceptualCheckBox.isSelected();
+			screen.setPerceptualColorDistance(isPerceptual);
+			statusBar.setText("색상 거리 계산: " + (isPerceptual ? "지각 기반" : "RGB"));
+			return;
+		}
         
         if (cmd.equals(BUTTON_FILL_SELECTION)) {
             screen.fillSelectedArea(fillColorButton.getBackground());
@@ -634,6 +875,11 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 			    statusBar.setText("채우기 도구가 선택되었습니다.");
 			    return;
 			}
+			else if (e.getSource() == toolboxButtons[9]) {
+			    screen.setDrawMode(Screen.MAGIC_WAND);
+			    statusBar.setText("마법봉 도구가 선택되었습니다.");
+			    return;
+			}
 
 			if (e.getSource() instanceof JMenuItem) {
 				if(cmd.equals("점(P)")) {
@@ -689,5 +935,35 @@ public class MainFrame extends JFrame implements ActionListener, ChangeListener
 	        screen.setCurrentFontSize(newFontSize);
 	        statusBar.setText("폰트 크기가 " + newFontSize + "로 변경되었습니다.");
 	    }
+	    else if (e.getSource() == toleranceSpinner) {
+	        int newTolerance = (int) toleranceSpinner.getValue();
+	        screen.setFillTolerance(newTolerance);
+	        statusBar.setText("허용 오차가 " + newTolerance + "로 변경되었습니다.");
+	    }
+	}
+	
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+	    if (Screen.PROPERTY_FILE_TASKS.equals(evt.getPropertyName())) {
+	        fileProgressBar.setValue(0);
+	        fileTaskPanel.setVisible((boolean) evt.getNewValue());
+	        statusPanel.revalidate();
+	        return;
+	    }
+	    if (Screen.PROPERTY_ZOOM.equals(evt.getPropertyName())) {
+	        zoomLevel = (float) evt.getNewValue();
+	        statusBar.setText("확대/축소: " + Math.round(zoomLevel * 100) + "%");
+	        return;
+	    }
+	    if (Screen.PROPERTY_FILE_PROGRESS.equals(evt.getPropertyName())) {
+	        fileProgressBar.setValue((int) evt.getNewValue());
+	        return;
+	    }
+	    int percent = (int) evt.getNewValue();
+	    if (percent >= 100) {
+	        statusBar.setText("작업이 완료되었습니다.");
+	    } else {
+	        statusBar.setText("작업 중... " + percent + "%");
+	    }
 	}
 }
\ No newline at end of file
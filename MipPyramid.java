@@ -0,0 +1,184 @@
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public final class MipPyramid {
+
+    public static final int TILE_SIZE = 128;
+
+    private final BufferedImage source;
+    private final BufferedImage[] levels;
+    private final BitSet[] dirtyTiles;
+    private long tilesBuilt = 0;
+
+    public MipPyramid(BufferedImage source) {
+        this.source = source;
+        int count = 1;
+        while ((source.getWidth() >> count) > 0 && (source.getHeight() >> count) > 0) {
+            count++;
+        }
+        this.levels = new BufferedImage[count];
+        this.dirtyTiles = new BitSet[count];
+        levels[0] = source;
+    }
+
+    public static int levelFor(double scale) {
+        if (!(scale > 0) || scale >= 1) {
+            return 0;
+        }
+        return (int)Math.floor(Math.log(1 / scale) / Math.log(2) + 1e-9);
+    }
+
+    public BufferedImage getSource() {
+        return source;
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    public int getLevelWidth(int level) {
+        return Math.max(1, (source.getWidth() + (1 << level) - 1) >> level);
+    }
+
+    public int getLevelHeight(int level) {
+        return Math.max(1, (source.getHeight() + (1 << level) - 1) >> level);
+    }
+
+    public long getTilesBuilt() {
+        return tilesBuilt;
+    }
+
+    public long getMemoryUsage() {
+        long bytes = 0;
+        for (int level = 1; level < levels.length; level++) {
+            if (levels[level] != null) {
+                bytes += 4L * levels[level].getWidth() * levels[level].getHeight();
+            }
+        }
+        return bytes;
+    }
+
+    public void invalidate(Rectangle region) {
+        Rectangle clipped = region.intersection(new Rectangle(0, 0, source.getWidth(), source.getHeight()));
+        if (clipped.isEmpty()) {
+            return;
+        }
+        for (int level = 1; level < levels.length; level++) {
+            if (levels[level] == null) {
+                continue;
+            }
+            int tilesPerRow = getTilesPerRow(level);
+            int minTileX = (clipped.x >> level) / TILE_SIZE;
+            int minTileY = (clipped.y >> level) / TILE_SIZE;
+            int maxTileX = ((clipped.x + clipped.width - 1) >> level) / TILE_SIZE;
+            int maxTileY = ((clipped.y + clipped.height - 1) >> level) / TILE_SIZE;
+            for (int ty = minTileY; ty <= maxTileY; ty++) {
+                dirtyTiles[level].set(ty * tilesPerRow + minTileX, ty * tilesPerRow + maxTileX + 1);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (int level = 1; level < levels.length; level++) {
+            if (levels[level] != null) {
+                dirtyTiles[level].set(0, getTilesPerRow(level) * getTilesPerColumn(level));
+            }
+        }
+    }
+
+    public BufferedImage getLevel(int level, Rectangle region) {
+        level = Math.max(0, Math.min(level, levels.length - 1));
+        if (level > 0) {
+            Rectangle clipped = (region == null) ? new Rectangle(0, 0, source.getWidth(), source.getHeight())
+                : region.intersection(new Rectangle(0, 0, source.getWidth(), source.getHeight()));
+            if (levels[level] == null) {
+                levels[level] = new BufferedImage(getLevelWidth(level), getLevelHeight(level), BufferedImage.TYPE_INT_RGB);
+                dirtyTiles[level] = new BitSet();
+                dirtyTiles[level].set(0, getTilesPerRow(level) * getTilesPerColumn(level));
+            }
+            if (!clipped.isEmpty()) {
+                refresh(level, clipped);
+            }
+        }
+        return levels[level];
+    }
+
+    private void refresh(int level, Rectangle region) {
+        BitSet dirty = dirtyTiles[level];
+        int tilesPerRow = getTilesPerRow(level);
+        int minTileX = (region.x >> level) / TILE_SIZE;
+        int minTileY = (region.y >> level) / TILE_SIZE;
+        int maxTileX = ((region.x + region.width - 1) >> level) / TILE_SIZE;
+        int maxTileY = ((region.y + region.height - 1) >> level) / TILE_SIZE;
+        int from = level - 1;
+        while (levels[from] == null) {
+            from--;
+        }
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = dirty.nextSetBit(ty * tilesPerRow + minTileX); tx >= 0 && tx <= ty * tilesPerRow + maxTileX; tx = dirty.nextSetBit(tx + 1)) {
+                int x = (tx - ty * tilesPerRow) * TILE_SIZE;
+                int y = ty * TILE_SIZE;
+                Rectangle tile = new Rectangle(x, y, Math.min(TILE_SIZE, getLevelWidth(level) - x), Math.min(TILE_SIZE, getLevelHeight(level) - y));
+                if (from > 0) {
+                    int shift = level - from;
+                    refresh(from, new Rectangle(tile.x << level, tile.y << level, tile.width << level, tile.height << level)
+                        .intersection(new Rectangle(0, 0, source.getWidth(), source.getHeight())));
+                    downsample(levels[from], shift, tile, levels[level].getRaster());
+                } else {
+                    downsample(source, level, tile, levels[level].getRaster());
+                }
+                dirty.clear(tx);
+                tilesBuilt++;
+            }
+        }
+    }
+
+    private static void downsample(BufferedImage from, int shift, Rectangle tile, WritableRaster target) {
+        int factor = 1 << shift;
+        int fromWidth = from.getWidth();
+        int fromHeight = from.getHeight();
+        int sourceX = tile.x << shift;
+        int sourceWidth = Math.min(tile.width << shift, fromWidth - sourceX);
+        int[] row = new int[sourceWidth * factor];
+        int[] red = new int[tile.width];
+        int[] green = new int[tile.width];
+        int[] blue = new int[tile.width];
+        int[] counts = new int[tile.width];
+        int[] output = new int[tile.width];
+        for (int y = 0; y < tile.height; y++) {
+            int sourceY = (tile.y + y) << shift;
+            int rows = Math.min(factor, fromHeight - sourceY);
+            from.getRaster().getDataElements(sourceX, sourceY, sourceWidth, rows, row);
+            Arrays.fill(red, 0);
+            Arrays.fill(green, 0);
+            Arrays.fill(blue, 0);
+            Arrays.fill(counts, 0);
+            for (int r = 0, i = 0; r < rows; r++) {
+                for (int sx = 0; sx < sourceWidth; sx++, i++) {
+                    int pixel = row[i];
+                    int x = sx >> shift;
+                    red[x] += (pixel >> 16) & 0xFF;
+                    green[x] += (pixel >> 8) & 0xFF;
+                    blue[x] += pixel & 0xFF;
+                    counts[x]++;
+                }
+            }
+            for (int x = 0; x < tile.width; x++) {
+                int n = counts[x];
+                output[x] = ((red[x] + n / 2) / n) << 16 | ((green[x] + n / 2) / n) << 8 | ((blue[x] + n / 2) / n);
+            }
+            target.setDataElements(tile.x, tile.y + y, tile.width, 1, output);
+        }
+    }
+
+    private int getTilesPerRow(int level) {
+        return (getLevelWidth(level) + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    private int getTilesPerColumn(int level) {
+        return (getLevelHeight(level) + TILE_SIZE - 1) / TILE_SIZE;
+    }
+}
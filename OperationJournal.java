@@ -0,0 +1,1086 @@
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+public final class OperationJournal {
+
+    public static final int MAGIC = 0x57504A4C;
+    public static final int VERSION = 1;
+    public static final long NO_BASE = -1;
+
+    private static final int HEADER_SIZE = 13;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long GROUP_COMMIT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final int GROUP_COMMIT_BYTES = 1 << 16;
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String SESSION_DIRECTORY = ".windowpainter";
+
+    private static final int OP_COMMIT = 0;
+    private static final int OP_RESET = 1;
+    private static final int OP_CLEAR = 2;
+    private static final int OP_ADD_POINT = 3;
+    private static final int OP_ADD_OBJECT = 4;
+    private static final int OP_TRANSLATE = 5;
+    private static final int OP_DELETE = 6;
+    private static final int OP_FLOOD_FILL = 7;
+    private static final int OP_SELECT_WAND = 8;
+    private static final int OP_FILL_RECT = 9;
+    private static final int OP_FILL_SELECTION = 10;
+    private static final int OP_TRANSFORM = 11;
+    private static final int OP_BACKGROUND = 12;
+    private static final int OP_LOAD_IMAGE = 13;
+    private static final int OP_TRUNCATE_POINTS = 14;
+    private static final int OP_INSERT_OBJECTS = 15;
+    private static final int OP_PATCH = 16;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long baseLength;
+    private final long compactedEnd;
+    private final Record record = new Record();
+    private final Record frame = new Record();
+    private final CRC32 crc = new CRC32();
+    private final Object lock = new Object();
+    private final Thread writer;
+
+    private byte[] pending = new byte[GROUP_COMMIT_BYTES];
+    private byte[] spare = new byte[GROUP_COMMIT_BYTES];
+    private int pendingLength = 0;
+    private long appended;
+    private long durable;
+    private long lastCommit;
+    private boolean isSyncRequested = false;
+    private boolean isClosed = false;
+    private IOException failure = null;
+
+    private OperationJournal(File file, FileChannel channel, long baseLength, long end, long lastCommit, long compactedEnd) {
+        this.file = file;
+        this.channel = channel;
+        this.baseLength = baseLength;
+        this.appended = end;
+        this.durable = end;
+        this.lastCommit = lastCommit;
+        this.compactedEnd = compactedEnd;
+        this.writer = new Thread(this::writeLoop, "journal-" + file.getName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static File getJournalFile(File document) {
+        return new File(document.getAbsolutePath() + JOURNAL_SUFFIX);
+    }
+
+    public static File getSessionJournal() {
+        return new File(getSessionDirectory(), "session" + JOURNAL_SUFFIX);
+    }
+
+    public static String readSessionMarker() {
+        File marker = getSessionMarker();
+        if (!marker.isFile()) {
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            DebugLog.log(() -> "Could not read session marker: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void writeSessionMarker(File document) {
+        try {
+            Files.createDirectories(getSessionDirectory().toPath());
+            String path = (document == null) ? "" : document.getAbsolutePath();
+            Files.write(getSessionMarker().toPath(), path.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            DebugLog.log(() -> "Could not write session marker: " + e.getMessage());
+        }
+    }
+
+    public static void clearSessionMarker() {
+        try {
+            Files.deleteIfExists(getSessionMarker().toPath());
+        } catch (IOException e) {
+            DebugLog.log(() -> "Could not remove session marker: " + e.getMessage());
+        }
+    }
+
+    public static OperationJournal create(File file, long baseLength, byte[] background) throws IOException {
+        return create(file, baseLength, background, ByteBuffer.allocate(0));
+    }
+
+    public static OperationJournal open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            long baseLength = readHeader(channel, file);
+            FrameReader frames = new FrameReader(Channels.newInputStream(channel.position(HEADER_SIZE)), HEADER_SIZE, size);
+            long lastCommit = HEADER_SIZE;
+            long compactedEnd = -1;
+            ByteBuffer body;
+            while ((body = frames.next()) != null) {
+                if ((body.get() & 0xFF) == OP_COMMIT) {
+                    lastCommit = frames.getPosition();
+                    if (compactedEnd < 0) {
+                        compactedEnd = lastCommit;
+                    }
+                }
+            }
+            long end = frames.getPosition();
+            if (end < size) {
+                DebugLog.log(() -> "Dropping " + (size - end) + " torn bytes from " + file.getName());
+                channel.truncate(end);
+                channel.force(false);
+            }
+            channel.position(end);
+            return new OperationJournal(file, channel, baseLength, end, lastCommit, Math.max(HEADER_SIZE, compactedEnd));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static Replay replayDocument(File document, Scene scene, AtomicLong progress, BooleanSupplier isCancelled) throws IOException {
+        File journalFile = getJournalFile(document);
+        if (!journalFile.isFile()) {
+            return null;
+        }
+        return replay(journalFile, scene, document.length(), progress, isCancelled);
+    }
+
+    public static Replay replay(File file, Scene scene, long baseLength, AtomicLong progress, BooleanSupplier isCancelled) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long base;
+            try {
+                base = readHeader(channel, file);
+            } catch (IOException e) {
+                DebugLog.log(() -> "Ignoring " + file.getName() + ": " + e.getMessage());
+                return null;
+            }
+            if (base != baseLength) {
+                DebugLog.log(() -> "Ignoring stale journal " + file.getName() + " (base " + base + ", expected " + baseLength + ").");
+                return null;
+            }
+
+            FrameReader frames = new FrameReader(Channels.newInputStream(channel.position(HEADER_SIZE)), HEADER_SIZE, size);
+            Replayer replayer = new Replayer(scene);
+            int applied = 0;
+            int uncommitted = 0;
+            ByteBuffer body;
+            while ((body = frames.next()) != null) {
+                if (isCancelled != null && isCancelled.getAsBoolean()) {
+                    throw new CancellationException("Journal replay cancelled");
+                }
+                int op = body.get() & 0xFF;
+                if (op == OP_COMMIT) {
+                    uncommitted = 0;
+                } else {
+                    replayer.apply(op, body);
+                    applied++;
+                    uncommitted++;
+                }
+                if (progress != null) {
+                    progress.addAndGet(body.limit());
+                }
+            }
+            Replay replay = new Replay(applied, uncommitted, frames.getPosition() < size);
+            DebugLog.log(() -> "Replayed " + file.getName() + ": " + replay);
+            return replay;
+        }
+    }
+
+    public static byte[] encodeImage(BufferedImage image) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Record header = new Record();
+        header.writeVarint(width);
+        header.writeVarint(height);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        bytes.write(header.data, 0, header.length);
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater, BUFFER_SIZE)) {
+            int[] row = new int[width];
+            byte[] rgb = new byte[width * 3];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0, i = 0; x < width; x++) {
+                    int pixel = row[x];
+                    rgb[i++] = (byte)(pixel >>> 16);
+                    rgb[i++] = (byte)(pixel >>> 8);
+                    rgb[i++] = (byte)pixel;
+                }
+                out.write(rgb);
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getBaseLength() {
+        return baseLength;
+    }
+
+    public long position() {
+        return appended;
+    }
+
+    public long getCompactableBytes() {
+        return appended - compactedEnd;
+    }
+
+    public boolean hasUncommitted() {
+        return lastCommit < appended;
+    }
+
+    public void reset(int width, int height) {
+        record.clear();
+        record.writeByte(OP_RESET);
+        record.writeVarint(width);
+        record.writeVarint(height);
+        append(record);
+    }
+
+    public void clear() {
+        record.clear();
+        record.writeByte(OP_CLEAR);
+        append(record);
+    }
+
+    public void addPoint(int x, int y, int argb) {
+        record.clear();
+        record.writeByte(OP_ADD_POINT);
+        record.writeSignedVarint(x);
+        record.writeSignedVarint(y);
+        record.writeInt(argb);
+        append(record);
+    }
+
+    public void addObject(AbstractDrawingObject obj) {
+        record.clear();
+        record.writeByte(OP_ADD_OBJECT);
+        record.writeObject(obj);
+        append(record);
+    }
+
+    public void truncatePoints(int size) {
+        record.clear();
+        record.writeByte(OP_TRUNCATE_POINTS);
+        record.writeVarint(size);
+        append(record);
+    }
+
+    public void insertObjects(int[] indices, List<AbstractDrawingObject> objects) {
+        record.clear();
+        record.writeByte(OP_INSERT_OBJECTS);
+        record.writeIndices(indices);
+        for (AbstractDrawingObject obj : objects) {
+            record.writeObject(obj);
+        }
+        append(record);
+    }
+
+    public void translate(int[] indices, int dx, int dy) {
+        record.clear();
+        record.writeByte(OP_TRANSLATE);
+        record.writeSignedVarint(dx);
+        record.writeSignedVarint(dy);
+        record.writeIndices(indices);
+        append(record);
+    }
+
+    public void delete(int[] indices) {
+        record.clear();
+        record.writeByte(OP_DELETE);
+        record.writeIndices(indices);
+        append(record);
+    }
+
+    public void floodFill(int x, int y, int rgb, int tolerance, int metric) {
+        record.clear();
+        record.writeByte(OP_FLOOD_FILL);
+        record.writeSignedVarint(x);
+        record.writeSignedVarint(y);
+        record.writeInt(rgb);
+        record.writeVarint(tolerance);
+        record.writeVarint(metric);
+        append(record);
+    }
+
+    public void selectWand(int x, int y, int tolerance, int metric) {
+        record.clear();
+        record.writeByte(OP_SELECT_WAND);
+        record.writeSignedVarint(x);
+        record.writeSignedVarint(y);
+        record.writeVarint(tolerance);
+        record.writeVarint(metric);
+        append(record);
+    }
+
+    public void fillRect(Rectangle rect, int rgb) {
+        record.clear();
+        record.writeByte(OP_FILL_RECT);
+        record.writeSignedVarint(rect.x);
+        record.writeSignedVarint(rect.y);
+        record.writeSignedVarint(rect.width);
+        record.writeSignedVarint(rect.height);
+        record.writeInt(rgb);
+        append(record);
+    }
+
+    public void fillSelection(int rgb) {
+        record.clear();
+        record.writeByte(OP_FILL_SELECTION);
+        record.writeInt(rgb);
+        append(record);
+    }
+
+    public void transform(int transform) {
+        record.clear();
+        record.writeByte(OP_TRANSFORM);
+        record.writeVarint(transform);
+        append(record);
+    }
+
+    public void patch(BufferedImage image, TileDelta tiles) {
+        record.clear();
+        record.writeByte(OP_PATCH);
+        record.writeVarint(image.getWidth());
+        record.writeVarint(image.getHeight());
+        record.writeVarint(tiles.getTileCount());
+        int[] pixels = FloodFill.getPixels(image);
+        byte[] rgb = new byte[TileDelta.TILE_SIZE * TileDelta.TILE_SIZE * 3];
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            byte[] packed = new byte[rgb.length + 64];
+            for (int t = 0; t < tiles.getTileCount(); t++) {
+                Rectangle tile = tiles.getTileBounds(t);
+                record.writeVarint(tile.x);
+                record.writeVarint(tile.y);
+                record.writeVarint(tile.width);
+                record.writeVarint(tile.height);
+                int first = pixels[tile.y * image.getWidth() + tile.x] & 0xFFFFFF;
+                boolean isUniform = true;
+                int i = 0;
+                for (int y = tile.y; y < tile.y + tile.height; y++) {
+                    for (int p = y * image.getWidth() + tile.x, end = p + tile.width; p < end; p++) {
+                        int pixel = pixels[p];
+                        isUniform &= (pixel & 0xFFFFFF) == first;
+                        rgb[i++] = (byte)(pixel >>> 16);
+                        rgb[i++] = (byte)(pixel >>> 8);
+                        rgb[i++] = (byte)pixel;
+                    }
+                }
+                if (isUniform) {
+                    record.writeByte(0);
+                    record.writeInt(first);
+                    continue;
+                }
+                deflater.reset();
+                deflater.setInput(rgb, 0, i);
+                deflater.finish();
+                int size = 0;
+                while (!deflater.finished()) {
+                    size += deflater.deflate(packed, size, packed.length - size);
+                }
+                record.writeByte(1);
+                record.writeVarint(size);
+                record.writeBytes(packed, 0, size);
+            }
+        } finally {
+            deflater.end();
+        }
+        append(record);
+    }
+
+    public void background(byte[] encodedImage) {
+        record.clear();
+        record.writeByte(OP_BACKGROUND);
+        record.writeBytes(encodedImage, 0, encodedImage.length);
+        append(record);
+    }
+
+    public void loadImage(byte[] encodedImage) {
+        record.clear();
+        record.writeByte(OP_LOAD_IMAGE);
+        record.writeBytes(encodedImage, 0, encodedImage.length);
+        append(record);
+    }
+
+    public void commit() {
+        record.clear();
+        record.writeByte(OP_COMMIT);
+        append(record);
+        lastCommit = appended;
+    }
+
+    public void sync() throws IOException {
+        synchronized (lock) {
+            long target = appended;
+            isSyncRequested = true;
+            lock.notifyAll();
+            try {
+                while (durable < target && failure == null) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Journal sync interrupted");
+            }
+            if (failure != null) {
+                throw new IOException("Journal write failed: " + file.getName(), failure);
+            }
+        }
+    }
+
+    public OperationJournal rebase(File target, long baseLength, byte[] background, long fromPosition) throws IOException {
+        sync();
+        ByteBuffer tail = ByteBuffer.allocate((int)(appended - fromPosition));
+        while (tail.hasRemaining()) {
+            if (channel.read(tail, fromPosition + tail.position()) < 0) {
+                throw new EOFException("Journal ended before position " + appended);
+            }
+        }
+        tail.flip();
+        return create(target, baseLength, background, tail);
+    }
+
+    public void close(boolean discardUncommitted) throws IOException {
+        synchronized (lock) {
+            isClosed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (discardUncommitted && failure == null && lastCommit < appended) {
+                DebugLog.log(() -> "Discarding " + (appended - lastCommit) + " uncommitted journal bytes from " + file.getName());
+                channel.truncate(lastCommit);
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    public void discard() throws IOException {
+        close(false);
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private void append(Record body) {
+        frame.clear();
+        frame.writeFrame(body, crc);
+        synchronized (lock) {
+            if (isClosed) {
+                return;
+            }
+            if (pendingLength + frame.length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + frame.length));
+            }
+            System.arraycopy(frame.data, 0, pending, pendingLength, frame.length);
+            pendingLength += frame.length;
+            appended += frame.length;
+            lock.notifyAll();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                byte[] batch;
+                int length;
+                long end;
+                synchronized (lock) {
+                    while (pendingLength == 0 && !isClosed) {
+                        lock.wait();
+                    }
+                    if (pendingLength == 0) {
+                        return;
+                    }
+                    long deadline = System.nanoTime() + GROUP_COMMIT_NANOS;
+                    while (!isSyncRequested && !isClosed && pendingLength < GROUP_COMMIT_BYTES) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                    batch = pending;
+                    length = pendingLength;
+                    end = appended;
+                    pending = spare;
+                    pendingLength = 0;
+                    isSyncRequested = false;
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(batch, 0, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+
+                synchronized (lock) {
+                    spare = batch;
+                    durable = end;
+                    lock.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            DebugLog.log(() -> "Journal write FAILED for " + file.getName() + ": " + e.getMessage());
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OperationJournal create(File file, long baseLength, byte[] background, ByteBuffer tail) throws IOException {
+        Record out = new Record();
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(baseLength);
+        CRC32 crc = new CRC32();
+        if (background != null) {
+            Record body = new Record();
+            body.writeByte(OP_BACKGROUND);
+            body.writeBytes(background, 0, background.length);
+            out.writeFrame(body, crc);
+        }
+        Record commit = new Record();
+        commit.writeByte(OP_COMMIT);
+        out.writeFrame(commit, crc);
+
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        File temp = FileTask.createTempFile(file);
+        try {
+            try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                ByteBuffer head = ByteBuffer.wrap(out.data, 0, out.length);
+                while (head.hasRemaining()) {
+                    channel.write(head);
+                }
+                while (tail.hasRemaining()) {
+                    channel.write(tail);
+                }
+                channel.force(true);
+            }
+            FileTask.replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        return open(file);
+    }
+
+    private static long readHeader(FileChannel channel, File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("Not an operation journal: " + file.getName());
+        }
+        if ((header.get(4) & 0xFF) != VERSION) {
+            throw new IOException("Unsupported journal version " + (header.get(4) & 0xFF) + " in " + file.getName());
+        }
+        return header.getLong(5);
+    }
+
+    private static File getSessionDirectory() {
+        return new File(System.getProperty("user.home"), SESSION_DIRECTORY);
+    }
+
+    private static File getSessionMarker() {
+        return new File(getSessionDirectory(), "session");
+    }
+
+    private static BufferedImage decodeImage(ByteBuffer body) throws IOException {
+        int width = readVarint(body);
+        int height = readVarint(body);
+        if (width <= 0 || height <= 0) {
+            throw new IOException("Invalid journal image size " + width + "x" + height);
+        }
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = FloodFill.getPixels(image);
+        byte[] rgb = new byte[width * 3];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(body);
+            for (int y = 0; y < height; y++) {
+                int inflated = 0;
+                while (inflated < rgb.length) {
+                    int n = inflater.inflate(rgb, inflated, rgb.length - inflated);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new EOFException("Journal image ended early");
+                    }
+                    inflated += n;
+                }
+                for (int x = 0, i = 0, p = y * width; x < width; x++, p++) {
+                    pixels[p] = ((rgb[i++] & 0xFF) << 16) | ((rgb[i++] & 0xFF) << 8) | (rgb[i++] & 0xFF);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt image in journal", e);
+        } finally {
+            inflater.end();
+        }
+        return image;
+    }
+
+    private static int readVarint(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in journal");
+    }
+
+    private static int readSignedVarint(ByteBuffer in) throws IOException {
+        int value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int[] readIndices(ByteBuffer in) throws IOException {
+        int[] indices = new int[readVarint(in)];
+        int index = 0;
+        for (int i = 0; i < indices.length; i++) {
+            index += readVarint(in);
+            indices[i] = index;
+        }
+        return indices;
+    }
+
+    public static final class Replay {
+        private final int applied;
+        private final int uncommitted;
+        private final boolean isTorn;
+
+        Replay(int applied, int uncommitted, boolean isTorn) {
+            this.applied = applied;
+            this.uncommitted = uncommitted;
+            this.isTorn = isTorn;
+        }
+
+        public int getApplied() {
+            return applied;
+        }
+
+        public int getUncommitted() {
+            return uncommitted;
+        }
+
+        public boolean isTorn() {
+            return isTorn;
+        }
+
+        @Override
+        public String toString() {
+            return applied + " operations, " + uncommitted + " uncommitted" + (isTorn ? ", torn tail dropped" : "");
+        }
+    }
+
+    private static final class Replayer {
+        private final Scene scene;
+        private SelectionMask mask = null;
+        private boolean ownsBackground = false;
+
+        Replayer(Scene scene) {
+            this.scene = scene;
+        }
+
+        void apply(int op, ByteBuffer in) throws IOException {
+            switch (op) {
+                case OP_RESET:
+                    scene.resetBackground(readVarint(in), readVarint(in));
+                    ownsBackground = true;
+                    break;
+                case OP_CLEAR:
+                    scene.clearDrawings();
+                    mask = null;
+                    break;
+                case OP_ADD_POINT:
+                    scene.getPoints().add(readSignedVarint(in), readSignedVarint(in), in.getInt());
+                    break;
+                case OP_ADD_OBJECT:
+                    AbstractDrawingObject obj = readObject(in);
+                    if (obj.isValid()) {
+                        scene.addObject(obj);
+                    }
+                    break;
+                case OP_TRANSLATE:
+                    int dx = readSignedVarint(in);
+                    int dy = readSignedVarint(in);
+                    for (AbstractDrawingObject moved : scene.getObjectsAt(readIndices(in))) {
+                        moved.translate(dx, dy);
+                        scene.updateObjectBounds(moved);
+                    }
+                    break;
+                case OP_DELETE:
+                    scene.removeObjects(scene.getObjectsAt(readIndices(in)));
+                    break;
+                case OP_FLOOD_FILL:
+                    floodFill(readSignedVarint(in), readSignedVarint(in), in.getInt(), readVarint(in), readVarint(in));
+                    break;
+                case OP_SELECT_WAND:
+                    selectWand(readSignedVarint(in), readSignedVarint(in), readVarint(in), readVarint(in));
+                    break;
+                case OP_FILL_RECT:
+                    fillRect(new Rectangle(readSignedVarint(in), readSignedVarint(in), readSignedVarint(in), readSignedVarint(in)), in.getInt());
+                    break;
+                case OP_FILL_SELECTION:
+                    int rgb = in.getInt();
+                    if (mask != null && mask.getWidth() == scene.getWidth() && mask.getHeight() == scene.getHeight()) {
+                        mask.fill(FloodFill.getPixels(ownBackground()), rgb);
+                    }
+                    break;
+                case OP_TRANSFORM:
+                    setBackground(RasterTransform.apply(renderComposite(), readVarint(in), true));
+                    mask = null;
+                    break;
+                case OP_BACKGROUND:
+                    setBackground(decodeImage(in));
+                    break;
+                case OP_LOAD_IMAGE:
+                    scene.clearDrawings();
+                    setBackground(decodeImage(in));
+                    mask = null;
+                    break;
+                case OP_TRUNCATE_POINTS:
+                    int size = readVarint(in);
+                    scene.getPoints().truncate(Math.min(size, scene.getPoints().size()));
+                    break;
+                case OP_INSERT_OBJECTS:
+                    int[] indices = readIndices(in);
+                    List<AbstractDrawingObject> inserted = new ArrayList<>(indices.length);
+                    for (int i = 0; i < indices.length; i++) {
+                        inserted.add(readObject(in));
+                    }
+                    scene.insertObjects(indices, inserted);
+                    break;
+                case OP_PATCH:
+                    patch(in);
+                    break;
+                default:
+                    throw new IOException("Unknown journal operation " + op);
+            }
+        }
+
+        private void setBackground(BufferedImage background) {
+            scene.setBackground(background);
+            ownsBackground = true;
+        }
+
+        private BufferedImage ownBackground() {
+            if (!ownsBackground) {
+                BufferedImage source = scene.getBackground();
+                BufferedImage copy = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+                copy.setData(source.getRaster());
+                setBackground(copy);
+            }
+            return scene.getBackground();
+        }
+
+        private BufferedImage renderComposite() {
+            return new SceneRenderer(scene).renderToImage();
+        }
+
+        private boolean isInside(int x, int y) {
+            return x >= 0 && y >= 0 && x < scene.getWidth() && y < scene.getHeight();
+        }
+
+        private void floodFill(int x, int y, int rgb, int tolerance, int metric) {
+            if (!isInside(x, y)) {
+                return;
+            }
+            SelectionMask filled = FloodFill.select(renderComposite(), x, y, tolerance, metric, true, null);
+            filled.fill(FloodFill.getPixels(ownBackground()), rgb & 0xFFFFFF);
+        }
+
+        private void selectWand(int x, int y, int tolerance, int metric) {
+            mask = null;
+            if (isInside(x, y)) {
+                SelectionMask selected = FloodFill.select(renderComposite(), x, y, tolerance, metric, true, null);
+                mask = (selected.getBounds() != null) ? selected : null;
+            }
+        }
+
+        private void fillRect(Rectangle rect, int rgb) {
+            BufferedImage background = ownBackground();
+            int[] pixels = FloodFill.getPixels(background);
+            int width = background.getWidth();
+            int startX = Math.max(0, rect.x);
+            int startY = Math.max(0, rect.y);
+            int endX = Math.min(width, rect.x + rect.width);
+            int endY = Math.min(background.getHeight(), rect.y + rect.height);
+            for (int y = startY; y < endY && startX < endX; y++) {
+                Arrays.fill(pixels, y * width + startX, y * width + endX, rgb);
+            }
+        }
+
+        private void patch(ByteBuffer in) throws IOException {
+            int width = readVarint(in);
+            int height = readVarint(in);
+            int count = readVarint(in);
+            if (width != scene.getWidth() || height != scene.getHeight()) {
+                throw new IOException("Journal patch for " + width + "x" + height + " does not fit " + scene.getWidth() + "x" + scene.getHeight());
+            }
+            int[] pixels = FloodFill.getPixels(ownBackground());
+            byte[] rgb = new byte[TileDelta.TILE_SIZE * TileDelta.TILE_SIZE * 3];
+            Inflater inflater = new Inflater();
+            try {
+                for (int t = 0; t < count; t++) {
+                    Rectangle tile = new Rectangle(readVarint(in), readVarint(in), readVarint(in), readVarint(in));
+                    if (tile.x + tile.width > width || tile.y + tile.height > height || tile.width * tile.height * 3 > rgb.length) {
+                        throw new IOException("Journal patch tile out of range: " + tile);
+                    }
+                    if (in.get() == 0) {
+                        int color = in.getInt();
+                        for (int y = tile.y; y < tile.y + tile.height; y++) {
+                            Arrays.fill(pixels, y * width + tile.x, y * width + tile.x + tile.width, color);
+                        }
+                        continue;
+                    }
+                    int size = readVarint(in);
+                    ByteBuffer packed = in.slice();
+                    packed.limit(size);
+                    in.position(in.position() + size);
+                    inflater.reset();
+                    inflater.setInput(packed);
+                    int length = tile.width * tile.height * 3;
+                    int inflated = 0;
+                    while (inflated < length) {
+                        int n = inflater.inflate(rgb, inflated, length - inflated);
+                        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                            throw new EOFException("Journal patch ended early");
+                        }
+                        inflated += n;
+                    }
+                    int i = 0;
+                    for (int y = tile.y; y < tile.y + tile.height; y++) {
+                        for (int p = y * width + tile.x, end = p + tile.width; p < end; p++) {
+                            pixels[p] = ((rgb[i++] & 0xFF) << 16) | ((rgb[i++] & 0xFF) << 8) | (rgb[i++] & 0xFF);
+                        }
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt patch in journal", e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        private static AbstractDrawingObject readObject(ByteBuffer in) throws IOException {
+            int mode = in.get() & 0xFF;
+            Point start = new Point(readSignedVarint(in), readSignedVarint(in));
+            Color color = new Color(in.getInt(), true);
+            if (mode == Screen.TEXT) {
+                int fontSize = readSignedVarint(in);
+                byte[] text = new byte[readVarint(in)];
+                in.get(text);
+                return new DrawText(start, color, new String(text, StandardCharsets.UTF_8), fontSize);
+            }
+            Point end = new Point(readSignedVarint(in), readSignedVarint(in));
+            int stroke = readSignedVarint(in);
+            boolean isFilled = in.get() != 0;
+            Color fillColor = new Color(in.getInt(), true);
+            if (mode == Screen.LINE) {
+                return new DrawLine(start, end, color, stroke);
+            }
+            if (mode == Screen.CIRCLE) {
+                return new DrawCircle(start, end, color, stroke, isFilled, fillColor);
+            }
+            if (mode == Screen.RECTANGLE) {
+                return new DrawRectangle(start, end, color, stroke, isFilled, fillColor);
+            }
+            throw new IOException("Unknown drawMode " + mode + " in journal");
+        }
+    }
+
+    private static final class FrameReader {
+        private final DataInputStream in;
+        private final long size;
+        private final CRC32 crc = new CRC32();
+        private byte[] body = new byte[256];
+        private long position;
+
+        FrameReader(InputStream in, long position, long size) {
+            this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+            this.position = position;
+            this.size = size;
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        ByteBuffer next() throws IOException {
+            try {
+                int b = in.read();
+                if (b < 0) {
+                    return null;
+                }
+                int length = b & 0x7F;
+                int lengthBytes = 1;
+                while ((b & 0x80) != 0) {
+                    if (lengthBytes == 5) {
+                        return null;
+                    }
+                    b = in.readUnsignedByte();
+                    length |= (b & 0x7F) << (7 * lengthBytes++);
+                }
+                if (length <= 0 || position + lengthBytes + length + 4 > size) {
+                    return null;
+                }
+                if (body.length < length) {
+                    body = new byte[length];
+                }
+                in.readFully(body, 0, length);
+                int stored = in.readInt();
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int)crc.getValue() != stored) {
+                    return null;
+                }
+                position += lengthBytes + length + 4;
+                return ByteBuffer.wrap(body, 0, length);
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Record {
+        private byte[] data = new byte[256];
+        private int length = 0;
+
+        void clear() {
+            length = 0;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            data[length++] = (byte)value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            data[length++] = (byte)(value >>> 24);
+            data[length++] = (byte)(value >>> 16);
+            data[length++] = (byte)(value >>> 8);
+            data[length++] = (byte)value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int)(value >>> 32));
+            writeInt((int)value);
+        }
+
+        void writeVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte)value;
+        }
+
+        void writeSignedVarint(int value) {
+            writeVarint((value << 1) ^ (value >> 31));
+        }
+
+        void writeBytes(byte[] bytes, int offset, int count) {
+            ensure(count);
+            System.arraycopy(bytes, offset, data, length, count);
+            length += count;
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        void writeObject(AbstractDrawingObject obj) {
+            writeByte(obj.drawMode);
+            writeSignedVarint(obj.startPoint.x);
+            writeSignedVarint(obj.startPoint.y);
+            writeInt(obj.color.getRGB());
+            if (obj.drawMode == Screen.TEXT) {
+                DrawText text = (DrawText)obj;
+                writeSignedVarint(text.fontSize);
+                writeString(text.text);
+            } else {
+                writeSignedVarint(obj.endPoint.x);
+                writeSignedVarint(obj.endPoint.y);
+                writeSignedVarint(obj.stroke);
+                writeByte(obj.isFilled ? 1 : 0);
+                writeInt(obj.fillColor.getRGB());
+            }
+        }
+
+        void writeIndices(int[] indices) {
+            writeVarint(indices.length);
+            int previous = 0;
+            for (int index : indices) {
+                writeVarint(index - previous);
+                previous = index;
+            }
+        }
+
+        void writeFrame(Record body, CRC32 crc) {
+            writeVarint(body.length);
+            writeBytes(body.data, 0, body.length);
+            crc.reset();
+            crc.update(body.data, 0, body.length);
+            writeInt((int)crc.getValue());
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.lang.management.ManagementFactory;
+
+public final class PerformanceStats {
+
+    public static final LatencyHistogram PAINT = new LatencyHistogram("paint");
+    public static final LatencyHistogram FLOOD_FILL = new LatencyHistogram("floodFill");
+    public static final LatencyHistogram TRANSFORM = new LatencyHistogram("transform");
+    public static final LatencyHistogram SAVE = new LatencyHistogram("save");
+    public static final LatencyHistogram OPEN = new LatencyHistogram("open");
+    public static final LatencyHistogram SAVE_IMAGE = new LatencyHistogram("saveImage");
+    public static final LatencyHistogram LOAD_IMAGE = new LatencyHistogram("loadImage");
+    public static final LatencyHistogram UNDO = new LatencyHistogram("undo");
+    public static final LatencyHistogram TILE_DECODE = new LatencyHistogram("tileDecode");
+    public static final LatencyHistogram INPUT_TO_PAINT = new LatencyHistogram("inputToPaint");
+
+    private static final LatencyHistogram[] OPERATIONS = {
+        FLOOD_FILL, TRANSFORM, SAVE, OPEN, SAVE_IMAGE, LOAD_IMAGE, UNDO, TILE_DECODE
+    };
+
+    private static final long ALLOCATION_WINDOW_NANOS = 500_000_000L;
+
+    private static final com.sun.management.ThreadMXBean threadBean = getThreadBean();
+
+    private static long windowStartNanos = 0;
+    private static long windowStartBytes = -1;
+    private static double allocationRate = -1;
+
+    private PerformanceStats() {
+    }
+
+    public static LatencyHistogram[] getOperations() {
+        return OPERATIONS.clone();
+    }
+
+    public static void resetAll() {
+        PAINT.reset();
+        INPUT_TO_PAINT.reset();
+        for (LatencyHistogram histogram : OPERATIONS) {
+            histogram.reset();
+        }
+    }
+
+    public static double sampleAllocationRate() {
+        if (threadBean == null) {
+            return -1;
+        }
+        long now = System.nanoTime();
+        long bytes = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        if (windowStartBytes < 0 || bytes < windowStartBytes) {
+            windowStartNanos = now;
+            windowStartBytes = bytes;
+        } else if (now - windowStartNanos >= ALLOCATION_WINDOW_NANOS) {
+            allocationRate = (bytes - windowStartBytes) * 1e9 / (now - windowStartNanos);
+            windowStartNanos = now;
+            windowStartBytes = bytes;
+        }
+        return allocationRate;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    sunBean.setThreadAllocatedMemoryEnabled(true);
+                    return sunBean;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // not a HotSpot-compatible runtime; allocation rate is reported as unavailable
+        }
+        return null;
+    }
+}
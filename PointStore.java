@@ -0,0 +1,153 @@
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+public class PointStore {
+
+    public static final int BLOCK_SIZE = 256;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] xs = new int[INITIAL_CAPACITY];
+    private int[] ys = new int[INITIAL_CAPACITY];
+    private int[] colors = new int[INITIAL_CAPACITY];
+    private int[] blockBounds = new int[4 * blockCount(INITIAL_CAPACITY)];
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(int x, int y, int argb) {
+        if (size == xs.length) {
+            grow(size + 1);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        colors[size] = argb;
+        includeInBlock(size);
+        size++;
+    }
+
+    public void addAll(PointStore other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.xs, 0, xs, size, other.size);
+        System.arraycopy(other.ys, 0, ys, size, other.size);
+        System.arraycopy(other.colors, 0, colors, size, other.size);
+        for (int i = size; i < size + other.size; i++) {
+            includeInBlock(i);
+        }
+        size += other.size;
+    }
+
+    public PointStore copy() {
+        PointStore copy = new PointStore();
+        copy.addAll(this);
+        return copy;
+    }
+
+    public PointStore copy(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Point range " + from + ".." + to + " out of range (size " + size + ")");
+        }
+        PointStore copy = new PointStore();
+        copy.ensureCapacity(to - from);
+        System.arraycopy(xs, from, copy.xs, 0, to - from);
+        System.arraycopy(ys, from, copy.ys, 0, to - from);
+        System.arraycopy(colors, from, copy.colors, 0, to - from);
+        for (int i = 0; i < to - from; i++) {
+            copy.includeInBlock(i);
+        }
+        copy.size = to - from;
+        return copy;
+    }
+
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException("Point count " + newSize + " out of range (size " + size + ")");
+        }
+        size = newSize;
+        for (int i = newSize - newSize % BLOCK_SIZE; i < newSize; i++) {
+            includeInBlock(i);
+        }
+    }
+
+    public int getBlockCount() {
+        return blockCount(size);
+    }
+
+    public boolean blockIntersects(int block, Rectangle region, int pointSize) {
+        int offset = 4 * block;
+        return blockBounds[offset] <= region.x + region.width && blockBounds[offset + 1] <= region.y + region.height
+            && blockBounds[offset + 2] + pointSize >= region.x && blockBounds[offset + 3] + pointSize >= region.y;
+    }
+
+    public int getX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    public int getColor(int index) {
+        checkIndex(index);
+        return colors[index];
+    }
+
+    public void clear() {
+        size = 0;
+        if (xs.length > INITIAL_CAPACITY * 64) {
+            xs = new int[INITIAL_CAPACITY];
+            ys = new int[INITIAL_CAPACITY];
+            colors = new int[INITIAL_CAPACITY];
+            blockBounds = new int[4 * blockCount(INITIAL_CAPACITY)];
+        }
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity > xs.length) {
+            grow(capacity);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int newCapacity = Math.max(minCapacity, xs.length + (xs.length >> 1));
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        colors = Arrays.copyOf(colors, newCapacity);
+        blockBounds = Arrays.copyOf(blockBounds, 4 * blockCount(newCapacity));
+    }
+
+    private void includeInBlock(int index) {
+        int offset = 4 * (index / BLOCK_SIZE);
+        int x = xs[index];
+        int y = ys[index];
+        if (index % BLOCK_SIZE == 0) {
+            blockBounds[offset] = x;
+            blockBounds[offset + 1] = y;
+            blockBounds[offset + 2] = x;
+            blockBounds[offset + 3] = y;
+        } else {
+            blockBounds[offset] = Math.min(blockBounds[offset], x);
+            blockBounds[offset + 1] = Math.min(blockBounds[offset + 1], y);
+            blockBounds[offset + 2] = Math.max(blockBounds[offset + 2], x);
+            blockBounds[offset + 3] = Math.max(blockBounds[offset + 3], y);
+        }
+    }
+
+    private static int blockCount(int count) {
+        return (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Point index " + index + " out of range (size " + size + ")");
+        }
+    }
+}
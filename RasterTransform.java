@@ -0,0 +1,148 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+public final class RasterTransform {
+
+    public static final int FLIP_HORIZONTAL = 0;
+    public static final int FLIP_VERTICAL = 1;
+    public static final int ROTATE_CLOCKWISE = 2;
+    public static final int ROTATE_COUNTER_CLOCKWISE = 3;
+
+    public static final int TILE_SIZE = 64;
+    public static final int PARALLEL_THRESHOLD = 1_000_000;
+
+    private RasterTransform() {
+    }
+
+    public static BufferedImage apply(BufferedImage source, int transform, boolean allowParallel) {
+        BufferedImage input = toIntRGB(source);
+        int width = input.getWidth();
+        int height = input.getHeight();
+        boolean isRotation = transform == ROTATE_CLOCKWISE || transform == ROTATE_COUNTER_CLOCKWISE;
+
+        BufferedImage output = isRotation
+            ? new BufferedImage(height, width, BufferedImage.TYPE_INT_RGB)
+            : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] src = FloodFill.getPixels(input);
+        int[] dst = FloodFill.getPixels(output);
+
+        int lines = isRotation ? width : height;
+        boolean isParallel = allowParallel
+            && (long)width * height >= PARALLEL_THRESHOLD
+            && ForkJoinPool.getCommonPoolParallelism() > 1;
+        if (!isParallel) {
+            transformBand(src, dst, width, height, transform, 0, lines);
+            return output;
+        }
+
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int bandSize = (lines + parallelism * 4 - 1) / (parallelism * 4);
+        bandSize = Math.max(TILE_SIZE, (bandSize + TILE_SIZE - 1) / TILE_SIZE * TILE_SIZE);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < lines; start += bandSize) {
+            final int from = start;
+            final int to = Math.min(lines, start + bandSize);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    transformBand(src, dst, width, height, transform, from, to);
+                    return null;
+                }
+            });
+        }
+        ForkJoinPool.commonPool().invokeAll(tasks);
+        return output;
+    }
+
+    public static String getName(int transform) {
+        switch (transform) {
+            case FLIP_HORIZONTAL: return "Flip Horizontal";
+            case FLIP_VERTICAL: return "Flip Vertical";
+            case ROTATE_CLOCKWISE: return "Rotate 90 Clockwise";
+            case ROTATE_COUNTER_CLOCKWISE: return "Rotate 90 Counter-Clockwise";
+            default: throw new IllegalArgumentException("Unknown transform " + transform);
+        }
+    }
+
+    public static String getDisplayName(int transform) {
+        switch (transform) {
+            case FLIP_HORIZONTAL: return "좌우 대칭";
+            case FLIP_VERTICAL: return "상하 대칭";
+            case ROTATE_CLOCKWISE: return "90도 시계 방향 회전";
+            case ROTATE_COUNTER_CLOCKWISE: return "90도 반시계 방향 회전";
+            default: throw new IllegalArgumentException("Unknown transform " + transform);
+        }
+    }
+
+    static void transformBand(int[] src, int[] dst, int width, int height, int transform, int from, int to) {
+        switch (transform) {
+            case FLIP_HORIZONTAL:
+                flipHorizontal(src, dst, width, from, to);
+                break;
+            case FLIP_VERTICAL:
+                flipVertical(src, dst, width, height, from, to);
+                break;
+            case ROTATE_CLOCKWISE:
+            case ROTATE_COUNTER_CLOCKWISE:
+                rotate(src, dst, width, height, transform == ROTATE_CLOCKWISE, from, to);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown transform " + transform);
+        }
+    }
+
+    private static void flipHorizontal(int[] src, int[] dst, int width, int fromRow, int toRow) {
+        for (int y = fromRow; y < toRow; y++) {
+            int row = y * width;
+            int last = row + width - 1;
+            for (int x = 0; x < width; x++) {
+                dst[last - x] = src[row + x];
+            }
+        }
+    }
+
+    private static void flipVertical(int[] src, int[] dst, int width, int height, int fromRow, int toRow) {
+        for (int y = fromRow; y < toRow; y++) {
+            System.arraycopy(src, y * width, dst, (height - 1 - y) * width, width);
+        }
+    }
+
+    private static void rotate(int[] src, int[] dst, int width, int height, boolean clockwise, int fromColumn, int toColumn) {
+        for (int tileY = 0; tileY < height; tileY += TILE_SIZE) {
+            int endY = Math.min(height, tileY + TILE_SIZE);
+            for (int tileX = fromColumn; tileX < toColumn; tileX += TILE_SIZE) {
+                int endX = Math.min(toColumn, tileX + TILE_SIZE);
+                for (int y = tileY; y < endY; y++) {
+                    int srcRow = y * width;
+                    if (clockwise) {
+                        int dstColumn = height - 1 - y;
+                        for (int x = tileX; x < endX; x++) {
+                            dst[x * height + dstColumn] = src[srcRow + x];
+                        }
+                    } else {
+                        for (int x = tileX; x < endX; x++) {
+                            dst[(width - 1 - x) * height + y] = src[srcRow + x];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static BufferedImage toIntRGB(BufferedImage image) {
+        if (image.getRaster().getDataBuffer() instanceof DataBufferInt && image.getRaster().getNumDataElements() == 1) {
+            return image;
+        }
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = converted.createGraphics();
+        g2.drawImage(image, 0, 0, null);
+        g2.dispose();
+        return converted;
+    }
+}
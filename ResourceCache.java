@@ -0,0 +1,161 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public final class ResourceCache {
+
+    private static final int STROKE_SLOTS = 256;
+    private static final int FONT_SLOTS = 256;
+    private static final int DAB_SLOTS = 64;
+
+    private static final class Slot {
+        final long key;
+        final Object value;
+
+        Slot(long key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final AtomicReferenceArray<Slot> strokeSlots = new AtomicReferenceArray<>(STROKE_SLOTS);
+    private static final AtomicReferenceArray<Slot> fontSlots = new AtomicReferenceArray<>(FONT_SLOTS);
+    private static final AtomicReferenceArray<Slot> dabSlots = new AtomicReferenceArray<>(DAB_SLOTS);
+    private static final HashMap<String, Integer> fontFamilyIds = new HashMap<>();
+
+    private static final AtomicLong strokeHits = new AtomicLong();
+    private static final AtomicLong strokeMisses = new AtomicLong();
+    private static final AtomicLong fontHits = new AtomicLong();
+    private static final AtomicLong fontMisses = new AtomicLong();
+    private static final AtomicLong dabHits = new AtomicLong();
+    private static final AtomicLong dabMisses = new AtomicLong();
+
+    private ResourceCache() {
+    }
+
+    public static BasicStroke getStroke(float width) {
+        return getStroke(width, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER);
+    }
+
+    public static BasicStroke getStroke(float width, int cap, int join) {
+        long key = ((long)Float.floatToIntBits(width) << 32) | ((cap & 0xFF) << 8) | (join & 0xFF);
+        int index = slotIndex(key, STROKE_SLOTS);
+
+        Slot slot = strokeSlots.get(index);
+        if (slot != null && slot.key == key) {
+            strokeHits.incrementAndGet();
+            return (BasicStroke)slot.value;
+        }
+        strokeMisses.incrementAndGet();
+        BasicStroke stroke = new BasicStroke(width, cap, join);
+        strokeSlots.set(index, new Slot(key, stroke));
+        return stroke;
+    }
+
+    public static Font getFont(String family, int style, int size) {
+        long key = ((long)getFamilyId(family) << 40) | ((long)(style & 0xFF) << 32) | (size & 0xFFFFFFFFL);
+        int index = slotIndex(key, FONT_SLOTS);
+
+        Slot slot = fontSlots.get(index);
+        if (slot != null && slot.key == key) {
+            fontHits.incrementAndGet();
+            return (Font)slot.value;
+        }
+        fontMisses.incrementAndGet();
+        Font font = new Font(family, style, size);
+        fontSlots.set(index, new Slot(key, font));
+        return font;
+    }
+
+    public static BufferedImage getDab(int size, float hardness, int argb) {
+        int hardnessStep = Math.round(Math.max(0f, Math.min(1f, hardness)) * 255);
+        long key = ((long)(size & 0xFFFF) << 40) | ((long)hardnessStep << 32) | (argb & 0xFFFFFFFFL);
+        int index = slotIndex(key, DAB_SLOTS);
+
+        Slot slot = dabSlots.get(index);
+        if (slot != null && slot.key == key) {
+            dabHits.incrementAndGet();
+            return (BufferedImage)slot.value;
+        }
+        dabMisses.incrementAndGet();
+        BufferedImage dab = renderDab(size, hardnessStep / 255f, argb);
+        dabSlots.set(index, new Slot(key, dab));
+        return dab;
+    }
+
+    public static long getStrokeHits() {
+        return strokeHits.get();
+    }
+
+    public static long getStrokeMisses() {
+        return strokeMisses.get();
+    }
+
+    public static long getFontHits() {
+        return fontHits.get();
+    }
+
+    public static long getFontMisses() {
+        return fontMisses.get();
+    }
+
+    public static long getDabHits() {
+        return dabHits.get();
+    }
+
+    public static long getDabMisses() {
+        return dabMisses.get();
+    }
+
+    public static String getStatistics() {
+        return String.format("Stroke cache %d hits / %d misses, Font cache %d hits / %d misses, Dab cache %d hits / %d misses",
+            strokeHits.get(), strokeMisses.get(), fontHits.get(), fontMisses.get(), dabHits.get(), dabMisses.get());
+    }
+
+    private static BufferedImage renderDab(int size, float hardness, int argb) {
+        BufferedImage dab = new BufferedImage(size + 1, size + 1, BufferedImage.TYPE_INT_ARGB_PRE);
+        if (hardness >= 1f) {
+            Graphics2D g2 = dab.createGraphics();
+            g2.setColor(new Color(argb, true));
+            g2.fillOval(0, 0, size, size);
+            g2.dispose();
+            return dab;
+        }
+        double radius = size / 2.0;
+        double solid = radius * hardness;
+        int alpha = argb >>> 24;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double distance = Math.hypot(x + 0.5 - radius, y + 0.5 - radius);
+                if (distance >= radius) {
+                    continue;
+                }
+                double coverage = (distance <= solid) ? 1.0 : (radius - distance) / (radius - solid);
+                int a = (int)Math.round(alpha * coverage);
+                dab.setRGB(x, y, (a << 24) | (argb & 0xFFFFFF));
+            }
+        }
+        return dab;
+    }
+
+    private static int getFamilyId(String family) {
+        synchronized (fontFamilyIds) {
+            Integer id = fontFamilyIds.get(family);
+            if (id == null) {
+                id = fontFamilyIds.size();
+                fontFamilyIds.put(family, id);
+            }
+            return id;
+        }
+    }
+
+    private static int slotIndex(long key, int slots) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h >>> 40) & (slots - 1);
+    }
+}
@@ -0,0 +1,197 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+
+public class Scene {
+
+    private static final int INDEX_CELL_SIZE = 128;
+
+    private BufferedImage background;
+    private TiledRaster raster = null;
+    private final PointStore points = new PointStore();
+    private final LinkedList<AbstractDrawingObject> objects = new LinkedList<>();
+    private final SpatialGrid<AbstractDrawingObject> index = new SpatialGrid<>(INDEX_CELL_SIZE);
+
+    public Scene(int width, int height) {
+        this.background = createBlankBackground(width, height);
+    }
+
+    public Scene(BufferedImage background) {
+        this.background = background;
+    }
+
+    public int getWidth() {
+        return (raster != null) ? raster.getWidth() : background.getWidth();
+    }
+
+    public int getHeight() {
+        return (raster != null) ? raster.getHeight() : background.getHeight();
+    }
+
+    public BufferedImage getBackground() {
+        return background;
+    }
+
+    public void setBackground(BufferedImage background) {
+        if (background == null) {
+            throw new IllegalArgumentException("Scene background must not be null");
+        }
+        this.background = background;
+        this.raster = null;
+    }
+
+    public void resetBackground(int width, int height) {
+        this.background = createBlankBackground(width, height);
+        this.raster = null;
+    }
+
+    public boolean isTiled() {
+        return raster != null;
+    }
+
+    public TiledRaster getRaster() {
+        return raster;
+    }
+
+    public void setRaster(TiledRaster raster) {
+        if (raster == null) {
+            throw new IllegalArgumentException("Scene raster must not be null");
+        }
+        this.background = createBlankBackground(1, 1);
+        this.raster = raster;
+    }
+
+    public PointStore getPoints() {
+        return points;
+    }
+
+    public List<AbstractDrawingObject> getObjects() {
+        return Collections.unmodifiableList(objects);
+    }
+
+    public int getObjectCount() {
+        return objects.size();
+    }
+
+    public void addObject(AbstractDrawingObject obj) {
+        objects.add(obj);
+        index.insert(obj, obj.getBounds());
+    }
+
+    public void updateObjectBounds(AbstractDrawingObject obj) {
+        index.update(obj, obj.getBounds());
+    }
+
+    public void removeObjects(Collection<AbstractDrawingObject> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        Set<AbstractDrawingObject> removedSet = new HashSet<>(removed);
+        objects.removeIf(removedSet::contains);
+        for (AbstractDrawingObject obj : removedSet) {
+            index.remove(obj);
+        }
+    }
+
+    public AbstractDrawingObject removeLastObject() {
+        if (objects.isEmpty()) {
+            return null;
+        }
+        AbstractDrawingObject obj = objects.removeLast();
+        index.remove(obj);
+        return obj;
+    }
+
+    public void insertObjects(int[] indices, List<AbstractDrawingObject> inserted) {
+        if (indices.length != inserted.size()) {
+            throw new IllegalArgumentException("Expected " + indices.length + " objects, got " + inserted.size());
+        }
+        ListIterator<AbstractDrawingObject> iterator = objects.listIterator();
+        for (int i = 0; i < indices.length; i++) {
+            while (iterator.nextIndex() < indices[i] && iterator.hasNext()) {
+                iterator.next();
+            }
+            AbstractDrawingObject obj = inserted.get(i);
+            iterator.add(obj);
+            index.insert(obj, obj.getBounds());
+        }
+        index.reorder(objects);
+    }
+
+    public int[] indicesOf(Collection<AbstractDrawingObject> selection) {
+        Set<AbstractDrawingObject> selectionSet = new HashSet<>(selection);
+        int[] indices = new int[selectionSet.size()];
+        int count = 0;
+        int index = 0;
+        for (AbstractDrawingObject obj : objects) {
+            if (selectionSet.contains(obj)) {
+                indices[count++] = index;
+            }
+            index++;
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    public List<AbstractDrawingObject> getObjectsAt(int[] indices) {
+        List<AbstractDrawingObject> found = new ArrayList<>(indices.length);
+        ListIterator<AbstractDrawingObject> iterator = objects.listIterator();
+        for (int index : indices) {
+            if (index < iterator.nextIndex() || index >= objects.size()) {
+                continue;
+            }
+            while (iterator.nextIndex() < index) {
+                iterator.next();
+            }
+            found.add(iterator.next());
+        }
+        return found;
+    }
+
+    public SceneSnapshot snapshot() {
+        List<AbstractDrawingObject> copies = new ArrayList<>(objects.size());
+        for (AbstractDrawingObject obj : objects) {
+            copies.add(obj.copy());
+        }
+        return new SceneSnapshot(points.copy(), copies);
+    }
+
+    public List<AbstractDrawingObject> query(Rectangle region) {
+        return index.query(region);
+    }
+
+    public AbstractDrawingObject findTopmost(Rectangle hitRect) {
+        List<AbstractDrawingObject> candidates = index.query(hitRect);
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            AbstractDrawingObject obj = candidates.get(i);
+            if (obj.contains(hitRect)) {
+                return obj;
+            }
+        }
+        return null;
+    }
+
+    public void clearDrawings() {
+        points.clear();
+        objects.clear();
+        index.clear();
+    }
+
+    private static BufferedImage createBlankBackground(int width, int height) {
+        BufferedImage image = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setColor(Color.white);
+        g2.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g2.dispose();
+        return image;
+    }
+}
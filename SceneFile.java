@@ -0,0 +1,737 @@
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+public final class SceneFile {
+
+    public static final int MAGIC = 0x57505356;
+    public static final int VERSION = 3;
+    public static final int VERSION_STREAM = 2;
+    public static final int FLAG_DEFLATE = 1;
+    public static final int CHUNK_RECORDS = 1 << 15;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int HEADER_SIZE = 6;
+    private static final int TRAILER_SIZE = 12;
+    private static final int CHUNK_POINTS = 0;
+    private static final int CHUNK_OBJECTS = 1;
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+    private static final int MODE_MASK = 0x07;
+    private static final int FILLED_BIT = 0x08;
+    private static final int SIZE_SHIFT = 4;
+    private static final int SIZE_ESCAPE = 0x0F;
+
+    private SceneFile() {
+    }
+
+    public static void write(Scene scene, File file, boolean compress) throws IOException {
+        write(scene.getPoints(), scene.getObjects(), file, compress, null, null);
+    }
+
+    public static void write(SceneSnapshot snapshot, File file, boolean compress, AtomicLong progress, BooleanSupplier isCancelled) throws IOException {
+        write(snapshot.getPoints(), snapshot.getObjects(), file, compress, progress, isCancelled);
+    }
+
+    private static void write(PointStore points, List<AbstractDrawingObject> objectList, File file, boolean compress, AtomicLong progress, BooleanSupplier isCancelled) throws IOException {
+        ColorTable colorTable = buildColorTable(points, objectList);
+        List<ChunkEntry> entries = new ArrayList<>();
+
+        try (FileOutputStream fos = new FileOutputStream(file); FileChannel channel = fos.getChannel()) {
+            Encoder header = new Encoder(fos);
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+            header.writeByte(compress ? FLAG_DEFLATE : 0);
+            header.flush();
+
+            Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+            try {
+                for (int from = 0; from < points.size(); from += CHUNK_RECORDS) {
+                    checkCancelled(isCancelled);
+                    int to = Math.min(points.size(), from + CHUNK_RECORDS);
+                    ChunkEntry entry = new ChunkEntry(CHUNK_POINTS, to - from, channel.position());
+                    Encoder out = openChunk(fos, deflater);
+                    int[] cursor = new int[2];
+                    for (int i = from; i < to; i++) {
+                        writePoint(out, points.getX(i), points.getY(i), colorTable.indexOf(points.getColor(i)), cursor);
+                    }
+                    entries.add(closeChunk(out, entry, channel));
+                    if (progress != null) {
+                        progress.addAndGet(to - from);
+                    }
+                }
+
+                Iterator<AbstractDrawingObject> objects = objectList.iterator();
+                for (int remaining = objectList.size(); remaining > 0; ) {
+                    checkCancelled(isCancelled);
+                    int count = Math.min(remaining, CHUNK_RECORDS);
+                    ChunkEntry entry = new ChunkEntry(CHUNK_OBJECTS, count, channel.position());
+                    Encoder out = openChunk(fos, deflater);
+                    int[] cursor = new int[2];
+                    for (int i = 0; i < count; i++) {
+                        writeObject(out, objects.next(), colorTable, cursor);
+                    }
+                    entries.add(closeChunk(out, entry, channel));
+                    if (progress != null) {
+                        progress.addAndGet(count);
+                    }
+                    remaining -= count;
+                }
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+
+            long footerOffset = channel.position();
+            Encoder footer = new Encoder(fos);
+            footer.writeVarint(colorTable.size());
+            for (int i = 0; i < colorTable.size(); i++) {
+                footer.writeInt(colorTable.get(i));
+            }
+            footer.writeVarint(points.size());
+            footer.writeVarint(objectList.size());
+            footer.writeVarint(entries.size());
+            for (ChunkEntry entry : entries) {
+                footer.writeByte(entry.kind);
+                footer.writeVarint(entry.count);
+                footer.writeLong(entry.offset);
+                footer.writeVarint(entry.length);
+                footer.writeVarint(entry.rawLength);
+            }
+            footer.writeLong(footerOffset);
+            footer.writeInt(MAGIC);
+            footer.flush();
+        }
+    }
+
+    public static Scene load(File file, BufferedImage background) throws IOException {
+        return load(file, background, null, null);
+    }
+
+    public static Scene load(File file, BufferedImage background, AtomicLong progress, BooleanSupplier isCancelled) throws IOException {
+        Scene scene = new Scene(background);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                DebugLog.log(() -> "No scene file header in " + file.getName() + ", reading legacy format.");
+                InputStream in = new BufferedInputStream(new ProgressInputStream(Channels.newInputStream(channel.position(0)), progress), BUFFER_SIZE);
+                readLegacy(scene, new DataInputStream(in), isCancelled);
+                return scene;
+            }
+
+            int version = header.get(4) & 0xFF;
+            boolean isDeflated = (header.get(5) & FLAG_DEFLATE) != 0;
+            if (version == VERSION) {
+                readChunked(scene, channel, size, isDeflated, progress, isCancelled);
+            } else if (version == VERSION_STREAM) {
+                InputStream in = new ProgressInputStream(Channels.newInputStream(channel.position(HEADER_SIZE)), progress);
+                readStream(scene, new Decoder(isDeflated ? new InflaterInputStream(in, new Inflater(), BUFFER_SIZE) : in), isCancelled);
+            } else {
+                throw new IOException("Unsupported scene file version " + version + " in " + file.getName());
+            }
+        }
+        return scene;
+    }
+
+    private static ColorTable buildColorTable(PointStore points, List<AbstractDrawingObject> objects) {
+        ColorTable colorTable = new ColorTable();
+        for (int i = 0; i < points.size(); i++) {
+            colorTable.indexOf(points.getColor(i));
+        }
+        for (AbstractDrawingObject obj : objects) {
+            colorTable.indexOf(obj.color.getRGB());
+            colorTable.indexOf(obj.fillColor.getRGB());
+        }
+        return colorTable;
+    }
+
+    private static Encoder openChunk(OutputStream out, Deflater deflater) {
+        if (deflater == null) {
+            return new Encoder(out);
+        }
+        deflater.reset();
+        return new Encoder(new DeflaterOutputStream(out, deflater, BUFFER_SIZE));
+    }
+
+    private static ChunkEntry closeChunk(Encoder out, ChunkEntry entry, FileChannel channel) throws IOException {
+        out.finish();
+        entry.rawLength = (int)out.getWritten();
+        entry.length = (int)(channel.position() - entry.offset);
+        return entry;
+    }
+
+    private static void readChunked(Scene scene, FileChannel channel, long size, boolean isDeflated, AtomicLong progress, BooleanSupplier isCancelled) throws IOException {
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            throw new IOException("Truncated scene file");
+        }
+        ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - TRAILER_SIZE, TRAILER_SIZE);
+        long footerOffset = trailer.getLong();
+        if (trailer.getInt() != MAGIC || footerOffset < HEADER_SIZE || footerOffset > size - TRAILER_SIZE) {
+            throw new IOException("Missing chunk index in scene file");
+        }
+
+        Decoder footer = new Decoder(channel.map(FileChannel.MapMode.READ_ONLY, footerOffset, size - TRAILER_SIZE - footerOffset));
+        int paletteSize = footer.readVarint();
+        int[] palette = new int[paletteSize];
+        Color[] colors = new Color[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            palette[i] = footer.readInt();
+            colors[i] = new Color(palette[i], true);
+        }
+        scene.getPoints().ensureCapacity(footer.readVarint());
+        int objectCount = footer.readVarint();
+        ChunkEntry[] entries = new ChunkEntry[footer.readVarint()];
+        for (int i = 0; i < entries.length; i++) {
+            ChunkEntry entry = new ChunkEntry(footer.readByte(), footer.readVarint(), footer.readLong());
+            entry.length = footer.readVarint();
+            entry.rawLength = footer.readVarint();
+            if (entry.offset < HEADER_SIZE || entry.offset + entry.length > footerOffset) {
+                throw new IOException("Chunk " + i + " lies outside the scene file");
+            }
+            entries[i] = entry;
+        }
+        DebugLog.log(() -> "Decoding " + entries.length + " chunks (" + objectCount + " objects) in parallel.");
+
+        List<Future<DecodedChunk>> tasks = new ArrayList<>(entries.length);
+        for (ChunkEntry entry : entries) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> decodeChunk(channel, entry, isDeflated, palette, colors, isCancelled)));
+        }
+        int skipped = 0;
+        try {
+            for (int i = 0; i < entries.length; i++) {
+                DecodedChunk chunk = join(tasks.get(i));
+                if (chunk.points != null) {
+                    scene.getPoints().addAll(chunk.points);
+                } else {
+                    for (AbstractDrawingObject obj : chunk.objects) {
+                        if (obj != null) {
+                            scene.addObject(obj);
+                        } else {
+                            skipped++;
+                        }
+                    }
+                }
+                if (progress != null) {
+                    progress.addAndGet(entries[i].length);
+                }
+                checkCancelled(isCancelled);
+            }
+        } finally {
+            for (Future<DecodedChunk> task : tasks) {
+                task.cancel(false);
+            }
+        }
+        logSkipped(skipped);
+    }
+
+    private static DecodedChunk decodeChunk(FileChannel channel, ChunkEntry entry, boolean isDeflated, int[] palette, Color[] colors, BooleanSupplier isCancelled) throws IOException {
+        checkCancelled(isCancelled);
+        ByteBuffer stored = channel.map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length);
+        Decoder in = new Decoder(isDeflated ? inflate(stored, entry.rawLength) : stored);
+        int[] cursor = new int[2];
+
+        if (entry.kind == CHUNK_POINTS) {
+            PointStore points = new PointStore();
+            points.ensureCapacity(entry.count);
+            for (int i = 0; i < entry.count; i++) {
+                readPoint(in, palette, points, cursor);
+            }
+            return new DecodedChunk(points, null);
+        }
+        if (entry.kind != CHUNK_OBJECTS) {
+            throw new IOException("Unknown chunk kind " + entry.kind + " in scene file");
+        }
+        AbstractDrawingObject[] objects = new AbstractDrawingObject[entry.count];
+        for (int i = 0; i < entry.count; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0) {
+                checkCancelled(isCancelled);
+            }
+            AbstractDrawingObject obj = readObject(in, colors, cursor);
+            objects[i] = obj.isValid() ? obj : null;
+        }
+        return new DecodedChunk(null, objects);
+    }
+
+    private static ByteBuffer inflate(ByteBuffer stored, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            int inflated = 0;
+            while (inflated < rawLength) {
+                int n = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new EOFException("Compressed chunk ended early");
+                }
+                inflated += n;
+            }
+            return ByteBuffer.wrap(raw);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed chunk in scene file", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static DecodedChunk join(Future<DecodedChunk> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Scene load interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException("Chunk decoding failed", cause);
+        }
+    }
+
+    private static void checkCancelled(BooleanSupplier isCancelled) {
+        if (isCancelled != null && isCancelled.getAsBoolean()) {
+            throw new CancellationException("Scene file operation cancelled");
+        }
+    }
+
+    private static void logSkipped(int skipped) {
+        if (skipped > 0) {
+            DebugLog.log(() -> "Warning: skipped " + skipped + " invalid objects while loading.");
+        }
+    }
+
+    private static void writePoint(Encoder out, int x, int y, int colorIndex, int[] cursor) throws IOException {
+        out.writeSignedVarint(x - cursor[0]);
+        out.writeSignedVarint(y - cursor[1]);
+        out.writeVarint(colorIndex);
+        cursor[0] = x;
+        cursor[1] = y;
+    }
+
+    private static void readPoint(Decoder in, int[] palette, PointStore points, int[] cursor) throws IOException {
+        cursor[0] += in.readSignedVarint();
+        cursor[1] += in.readSignedVarint();
+        points.add(cursor[0], cursor[1], palette[paletteIndex(in.readVarint(), palette.length)]);
+    }
+
+    private static void writeObject(Encoder out, AbstractDrawingObject obj, ColorTable colorTable, int[] cursor) throws IOException {
+        int x = obj.startPoint.x;
+        int y = obj.startPoint.y;
+        boolean isText = obj.drawMode == Screen.TEXT;
+        int size = isText ? ((DrawText)obj).fontSize : obj.stroke;
+        int inlineSize = (size > 0 && size < SIZE_ESCAPE) ? size : SIZE_ESCAPE;
+        int filledBit = (obj.isFilled && obj.drawMode != Screen.LINE && !isText) ? FILLED_BIT : 0;
+        out.writeByte(obj.drawMode | filledBit | (inlineSize << SIZE_SHIFT));
+        if (inlineSize == SIZE_ESCAPE) {
+            out.writeSignedVarint(size);
+        }
+        out.writeSignedVarint(x - cursor[0]);
+        out.writeSignedVarint(y - cursor[1]);
+        out.writeVarint(colorTable.indexOf(obj.color.getRGB()));
+        cursor[0] = x;
+        cursor[1] = y;
+
+        if (isText) {
+            out.writeString(((DrawText)obj).text);
+            return;
+        }
+        out.writeSignedVarint(obj.endPoint.x - x);
+        out.writeSignedVarint(obj.endPoint.y - y);
+        if (obj.drawMode != Screen.LINE) {
+            out.writeVarint(colorTable.indexOf(obj.fillColor.getRGB()));
+        }
+    }
+
+    private static AbstractDrawingObject readObject(Decoder in, Color[] colors, int[] cursor) throws IOException {
+        int header = in.readByte();
+        int mode = header & MODE_MASK;
+        boolean isFilled = (header & FILLED_BIT) != 0;
+        int size = header >>> SIZE_SHIFT;
+        if (size == SIZE_ESCAPE) {
+            size = in.readSignedVarint();
+        }
+        cursor[0] += in.readSignedVarint();
+        cursor[1] += in.readSignedVarint();
+        Point start = new Point(cursor[0], cursor[1]);
+        Color color = colors[paletteIndex(in.readVarint(), colors.length)];
+
+        if (mode == Screen.TEXT) {
+            return new DrawText(start, color, in.readString(), size);
+        }
+        Point end = new Point(cursor[0] + in.readSignedVarint(), cursor[1] + in.readSignedVarint());
+        if (mode == Screen.LINE) {
+            return new DrawLine(start, end, color, size);
+        }
+        Color fillColor = colors[paletteIndex(in.readVarint(), colors.length)];
+        if (mode == Screen.CIRCLE) {
+            return new DrawCircle(start, end, color, size, isFilled, fillColor);
+        }
+        if (mode == Screen.RECTANGLE) {
+            return new DrawRectangle(start, end, color, size, isFilled, fillColor);
+        }
+        throw new IOException("Unknown drawMode " + mode + " in scene file");
+    }
+
+    private static int paletteIndex(int index, int paletteSize) throws IOException {
+        if (index >= paletteSize) {
+            throw new IOException("Color index " + index + " out of range (palette " + paletteSize + ")");
+        }
+        return index;
+    }
+
+    private static void readStream(Scene scene, Decoder in, BooleanSupplier isCancelled) throws IOException {
+        int paletteSize = in.readVarint();
+        int[] palette = new int[paletteSize];
+        Color[] colors = new Color[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            palette[i] = in.readInt();
+            colors[i] = new Color(palette[i], true);
+        }
+
+        PointStore points = scene.getPoints();
+        int pointCount = in.readVarint();
+        points.ensureCapacity(pointCount);
+        int[] cursor = new int[2];
+        for (int i = 0; i < pointCount; i++) {
+            readPoint(in, palette, points, cursor);
+        }
+
+        int objectCount = in.readVarint();
+        cursor = new int[2];
+        int skipped = 0;
+        for (int i = 0; i < objectCount; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0) {
+                checkCancelled(isCancelled);
+            }
+            AbstractDrawingObject obj = readObject(in, colors, cursor);
+            if (obj.isValid()) {
+                scene.addObject(obj);
+            } else {
+                skipped++;
+            }
+        }
+        logSkipped(skipped);
+    }
+
+    private static void readLegacy(Scene scene, DataInputStream dis, BooleanSupplier isCancelled) throws IOException {
+        PointStore points = scene.getPoints();
+        int pointCount = dis.readInt();
+        int defaultColor = Color.BLACK.getRGB();
+        for (int i = 0; i < pointCount; i++) {
+            int x = dis.readInt();
+            int y = dis.readInt();
+            points.add(x, y, defaultColor);
+        }
+
+        int objectCount = dis.readInt();
+        for (int i = 0; i < objectCount; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0) {
+                checkCancelled(isCancelled);
+            }
+            int drawMode = dis.readInt();
+            AbstractDrawingObject obj = null;
+
+            switch (drawMode) {
+                case Screen.LINE:
+                    obj = DrawLine.loadFromStream(dis);
+                    break;
+                case Screen.CIRCLE:
+                    obj = DrawCircle.loadFromStream(dis);
+                    break;
+                case Screen.RECTANGLE:
+                    obj = DrawRectangle.loadFromStream(dis);
+                    break;
+                case Screen.TEXT:
+                    obj = DrawText.loadFromStream(dis);
+                    break;
+            }
+
+            if (obj == null) {
+                DebugLog.log(() -> "Warning: Unknown drawMode encountered: " + drawMode);
+            } else if (obj.isValid()) {
+                scene.addObject(obj);
+            } else if (DebugLog.isEnabled()) {
+                DebugLog.log(() -> "Warning: Loaded object mode " + drawMode + " failed validation.");
+            }
+        }
+    }
+
+    private static final class ChunkEntry {
+        final int kind;
+        final int count;
+        final long offset;
+        int length;
+        int rawLength;
+
+        ChunkEntry(int kind, int count, long offset) {
+            this.kind = kind;
+            this.count = count;
+            this.offset = offset;
+        }
+    }
+
+    private static final class DecodedChunk {
+        final PointStore points;
+        final AbstractDrawingObject[] objects;
+
+        DecodedChunk(PointStore points, AbstractDrawingObject[] objects) {
+            this.points = points;
+            this.objects = objects;
+        }
+    }
+
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final AtomicLong progress;
+
+        ProgressInputStream(InputStream in, AtomicLong progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && progress != null) {
+                progress.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0 && progress != null) {
+                progress.addAndGet(n);
+            }
+            return n;
+        }
+    }
+
+    private static final class ColorTable {
+        private int[] colors = new int[16];
+        private int[] slots = new int[64];
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return colors[index];
+        }
+
+        int indexOf(int argb) {
+            int mask = slots.length - 1;
+            int slot = mix(argb) & mask;
+            while (slots[slot] != 0) {
+                int index = slots[slot] - 1;
+                if (colors[index] == argb) {
+                    return index;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == colors.length) {
+                colors = Arrays.copyOf(colors, size * 2);
+            }
+            colors[size] = argb;
+            slots[slot] = ++size;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = mix(colors[i]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+
+        private static int mix(int value) {
+            int h = value * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static final class Encoder {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position = 0;
+        private long written = 0;
+
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        long getWritten() {
+            return written + position;
+        }
+
+        void writeByte(int value) throws IOException {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = (byte)value;
+        }
+
+        void writeInt(int value) throws IOException {
+            writeByte(value >>> 24);
+            writeByte(value >>> 16);
+            writeByte(value >>> 8);
+            writeByte(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            writeInt((int)(value >>> 32));
+            writeInt((int)value);
+        }
+
+        void writeVarint(int value) throws IOException {
+            if (buffer.length - position < 5) {
+                flush();
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte)value;
+        }
+
+        void writeSignedVarint(int value) throws IOException {
+            writeVarint((value << 1) ^ (value >> 31));
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            flush();
+            out.write(bytes);
+            written += bytes.length;
+        }
+
+        void flush() throws IOException {
+            out.write(buffer, 0, position);
+            written += position;
+            position = 0;
+        }
+
+        void finish() throws IOException {
+            flush();
+            if (out instanceof DeflaterOutputStream) {
+                ((DeflaterOutputStream)out).finish();
+            }
+        }
+    }
+
+    private static final class Decoder {
+        private final InputStream in;
+        private final ByteBuffer data;
+
+        Decoder(InputStream in) {
+            this.in = in;
+            this.data = ByteBuffer.allocate(BUFFER_SIZE);
+            this.data.limit(0);
+        }
+
+        Decoder(ByteBuffer data) {
+            this.in = null;
+            this.data = data;
+        }
+
+        int readByte() throws IOException {
+            if (!data.hasRemaining()) {
+                fill();
+            }
+            return data.get() & 0xFF;
+        }
+
+        int readInt() throws IOException {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        long readLong() throws IOException {
+            return ((long)readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in scene file");
+        }
+
+        int readSignedVarint() throws IOException {
+            int value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() throws IOException {
+            int length = readVarint();
+            byte[] bytes = new byte[length];
+            int copied = 0;
+            while (copied < length) {
+                if (!data.hasRemaining()) {
+                    fill();
+                }
+                int n = Math.min(length - copied, data.remaining());
+                data.get(bytes, copied, n);
+                copied += n;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void fill() throws IOException {
+            int n = (in == null) ? -1 : in.read(data.array(), 0, data.capacity());
+            if (n <= 0) {
+                throw new EOFException("Unexpected end of scene file");
+            }
+            data.position(0);
+            data.limit(n);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.ListIterator;
+
+public class SceneRenderer {
+
+    public static final int POINT_SIZE = 10;
+
+    private final Scene scene;
+
+    private BufferedImage cache = null;
+    private Graphics2D cacheGraphics = null;
+    private MipPyramid pyramid = null;
+    private final ZoomTileCache zoomTiles = new ZoomTileCache(this);
+    private boolean isCacheValid = false;
+    private int cachedPointCount = 0;
+    private int cachedObjectCount = 0;
+    private Rectangle dirtyRegion = null;
+    private int objectsDrawn = 0;
+    private long generation = 0;
+
+    public SceneRenderer(Scene scene) {
+        this.scene = scene;
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public static Rectangle getPointBounds(int x, int y) {
+        return new Rectangle(x, y, POINT_SIZE + 1, POINT_SIZE + 1);
+    }
+
+    public void invalidate() {
+        isCacheValid = false;
+        dirtyRegion = null;
+    }
+
+    public void invalidateRegion(Rectangle region) {
+        if (region == null) return;
+        dirtyRegion = (dirtyRegion == null) ? new Rectangle(region) : dirtyRegion.union(region);
+    }
+
+    public boolean isObjectCacheCurrent() {
+        return cachedObjectCount == scene.getObjectCount();
+    }
+
+    public void markObjectsCommitted() {
+        cachedObjectCount = scene.getObjectCount();
+    }
+
+    public boolean isPointCacheCurrent() {
+        return cachedPointCount == scene.getPoints().size();
+    }
+
+    public void markPointsCommitted() {
+        cachedPointCount = scene.getPoints().size();
+    }
+
+    public MipPyramid getPyramid() {
+        return pyramid;
+    }
+
+    public ZoomTileCache getZoomTiles() {
+        return zoomTiles;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getObjectsDrawn() {
+        return objectsDrawn;
+    }
+
+    public void resetObjectsDrawn() {
+        objectsDrawn = 0;
+    }
+
+    public BufferedImage update() {
+        if (scene.isTiled()) {
+            throw new IllegalStateException("Tiled scenes have no full-size cache; paint them with render(Graphics2D)");
+        }
+        int width = scene.getWidth();
+        int height = scene.getHeight();
+        PointStore points = scene.getPoints();
+
+        if (cache == null || cache.getWidth() != width || cache.getHeight() != height) {
+            if (cacheGraphics != null) {
+                cacheGraphics.dispose();
+            }
+            cache = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            cacheGraphics = cache.createGraphics();
+            pyramid = new MipPyramid(cache);
+            isCacheValid = false;
+        }
+
+        if (!isCacheValid) {
+            DebugLog.log("Rebuilding committed scene cache.");
+            cacheGraphics.drawImage(scene.getBackground(), 0, 0, null);
+            cachedPointCount = 0;
+            cachedObjectCount = 0;
+            isCacheValid = true;
+            dirtyRegion = null;
+            pyramid.invalidateAll();
+            zoomTiles.invalidateAll();
+            generation++;
+        }
+
+        if (cachedPointCount < points.size()) {
+            int from = cachedPointCount;
+            Rectangle bounds = getPointsBounds(points, cachedPointCount, points.size());
+            if (cachedObjectCount > 0 && !scene.query(bounds).isEmpty()) {
+                DebugLog.log(() -> "New points overlap cached objects; repairing " + bounds + " to keep points underneath.");
+                invalidateRegion(bounds);
+            } else {
+                DebugLog.log(() -> "Painting " + (points.size() - from) + " new points.");
+                drawPoints(cacheGraphics, points, cachedPointCount, points.size(), null);
+                changed(bounds);
+            }
+            cachedPointCount = points.size();
+            generation++;
+        }
+
+        if (cachedObjectCount < scene.getObjectCount()) {
+            ListIterator<AbstractDrawingObject> objects = scene.getObjects().listIterator(cachedObjectCount);
+            Rectangle drawn = null;
+            while (objects.hasNext()) {
+                AbstractDrawingObject obj = objects.next();
+                if (obj.isValid()) {
+                    obj.draw(cacheGraphics);
+                    drawn = (drawn == null) ? obj.getBounds() : drawn.union(obj.getBounds());
+                    objectsDrawn++;
+                } else if (DebugLog.isEnabled()) {
+                    DebugLog.log(() -> "Skipping invalid object: " + obj.drawMode + " | State: " + obj.getDetailedState());
+                }
+            }
+            if (drawn != null) {
+                changed(drawn);
+            }
+            cachedObjectCount = scene.getObjectCount();
+            generation++;
+        }
+
+        if (dirtyRegion != null) {
+            Rectangle region = dirtyRegion.intersection(new Rectangle(0, 0, width, height));
+            dirtyRegion = null;
+            if (!region.isEmpty()) {
+                repairRegion(region);
+                changed(region);
+                generation++;
+            }
+        }
+        return cache;
+    }
+
+    public void render(Graphics2D g) {
+        Rectangle clip = g.getClipBounds();
+        Rectangle region = (clip != null) ? clip : new Rectangle(0, 0, scene.getWidth(), scene.getHeight());
+        if (scene.isTiled()) {
+            scene.getRaster().paint(g, region, Math.hypot(g.getTransform().getScaleX(), g.getTransform().getShearY()));
+        } else {
+            Rectangle visible = region.intersection(new Rectangle(0, 0, scene.getWidth(), scene.getHeight()));
+            if (!visible.isEmpty()) {
+                g.drawImage(scene.getBackground(), visible.x, visible.y, visible.x + visible.width, visible.y + visible.height,
+                    visible.x, visible.y, visible.x + visible.width, visible.y + visible.height, null);
+            }
+        }
+        drawPoints(g, scene.getPoints(), 0, scene.getPoints().size(), region);
+        for (AbstractDrawingObject obj : scene.query(region)) {
+            if (obj.isValid()) {
+                obj.draw(g);
+                objectsDrawn++;
+            }
+        }
+    }
+
+    public BufferedImage renderToImage() {
+        BufferedImage image = new BufferedImage(scene.getWidth(), scene.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        render(g2);
+        g2.dispose();
+        return image;
+    }
+
+    private void changed(Rectangle region) {
+        pyramid.invalidate(region);
+        zoomTiles.invalidate(region);
+    }
+
+    private void repairRegion(Rectangle region) {
+        DebugLog.log(() -> "Repairing scene cache region: " + region);
+        cacheGraphics.setClip(region);
+        cacheGraphics.drawImage(scene.getBackground(), 0, 0, null);
+
+        drawPoints(cacheGraphics, scene.getPoints(), 0, scene.getPoints().size(), region);
+
+        List<AbstractDrawingObject> visibleObjects = scene.query(region);
+        for (AbstractDrawingObject obj : visibleObjects) {
+            if (obj.isValid()) {
+                obj.draw(cacheGraphics);
+                objectsDrawn++;
+            }
+        }
+        DebugLog.log(() -> "Repaired region with " + visibleObjects.size() + " of " + scene.getObjectCount() + " objects.");
+        cacheGraphics.setClip(null);
+    }
+
+    private static Rectangle getPointsBounds(PointStore points, int from, int to) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            minX = Math.min(minX, points.getX(i));
+            minY = Math.min(minY, points.getY(i));
+            maxX = Math.max(maxX, points.getX(i));
+            maxY = Math.max(maxY, points.getY(i));
+        }
+        return new Rectangle(minX, minY, maxX - minX + POINT_SIZE + 1, maxY - minY + POINT_SIZE + 1);
+    }
+
+    private static void drawPoints(Graphics2D g, PointStore points, int from, int to, Rectangle region) {
+        boolean isStampable = BrushEngine.canStamp(g);
+        int lastColor = 0;
+        boolean hasColor = false;
+        BufferedImage dab = null;
+        for (int blockStart = from; blockStart < to; blockStart = (blockStart / PointStore.BLOCK_SIZE + 1) * PointStore.BLOCK_SIZE) {
+            if (region != null && !points.blockIntersects(blockStart / PointStore.BLOCK_SIZE, region, POINT_SIZE)) {
+                continue;
+            }
+            int blockEnd = Math.min(to, (blockStart / PointStore.BLOCK_SIZE + 1) * PointStore.BLOCK_SIZE);
+            for (int i = blockStart; i < blockEnd; i++) {
+                int x = points.getX(i);
+                int y = points.getY(i);
+                if (region != null && (x > region.x + region.width || y > region.y + region.height || x + POINT_SIZE < region.x || y + POINT_SIZE < region.y)) {
+                    continue;
+                }
+                int color = points.getColor(i);
+                if (!hasColor || color != lastColor) {
+                    if (isStampable) {
+                        dab = ResourceCache.getDab(POINT_SIZE, BrushEngine.HARD, color);
+                    } else {
+                        g.setColor(new Color(color, true));
+                    }
+                    lastColor = color;
+                    hasColor = true;
+                }
+                if (isStampable) {
+                    g.drawImage(dab, x, y, null);
+                } else {
+                    g.fillOval(x, y, POINT_SIZE, POINT_SIZE);
+                }
+            }
+        }
+    }
+}
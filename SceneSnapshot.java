@@ -0,0 +1,25 @@
+import java.util.Collections;
+import java.util.List;
+
+public final class SceneSnapshot {
+
+    private final PointStore points;
+    private final List<AbstractDrawingObject> objects;
+
+    SceneSnapshot(PointStore points, List<AbstractDrawingObject> objects) {
+        this.points = points;
+        this.objects = Collections.unmodifiableList(objects);
+    }
+
+    public PointStore getPoints() {
+        return points;
+    }
+
+    public List<AbstractDrawingObject> getObjects() {
+        return objects;
+    }
+
+    public int getObjectCount() {
+        return objects.size();
+    }
+}
@@ -2,9 +2,9 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Stroke;
@@ -13,21 +13,34 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
-import java.awt.geom.AffineTransform;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
 import java.awt.image.BufferedImage;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import javax.imageio.ImageIO;
-import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.JTextField;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
-public class Screen extends JPanel implements MouseListener, MouseMotionListener {
+public class Screen extends JPanel implements MouseListener, MouseMotionListener, MouseWheelListener {
 
 	public static final int SELECTION = 0;
 	public static final int POINT = 1;
@@ -37,396 +50,29 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 	public static final int ERASER = 5;
 	public static final int TEXT = 6;
 	public static final int FILL_BUCKET = 7;
+	public static final int MAGIC_WAND = 8;
 	
-    private static abstract class AbstractDrawingObject { 
-        int drawMode;
-        Point startPoint;
-        Point endPoint;
-        Color color; 
-        int stroke; 
-        boolean isFilled;
-        Color fillColor;
-        
-        public AbstractDrawingObject(int drawMode, Point startPoint, Point endPoint, Color color, int stroke, boolean isFilled, Color fillColor) {
-            this.drawMode = drawMode;
-            this.startPoint = new Point(startPoint.x, startPoint.y); 
-            this.endPoint = new Point(endPoint.x, endPoint.y);     
-            this.color = color;
-            this.stroke = stroke;
-            this.isFilled = isFilled;
-            this.fillColor = fillColor;
-        }
-        
-        public abstract void draw(Graphics2D g);
-        public abstract String toString();
-        public abstract void saveToStream(DataOutputStream dos) throws IOException;
-        
-        public abstract boolean contains(Rectangle selectionRect);
-        
-        public abstract boolean isValid();
-        
-        public String getDetailedState() {
-            String state = "Object Mode: " + this.drawMode + "\n";
-            state += "  Start: (" + this.startPoint.x + ", " + this.startPoint.y + ")\n";
-            state += "  End: (" + this.endPoint.x + ", " + this.endPoint.y + ")\n";
-            state += "  Color (Line/Text): RGB " + this.color.getRGB() + "\n";
-            state += "  Color (Fill): RGB " + this.fillColor.getRGB() + "\n";
-            state += "  Stroke: " + this.stroke + " | Filled: " + this.isFilled;
-            return state;
-        }
-        
-        public void translate(int dx, int dy) {
-            this.startPoint.translate(dx, dy);
-            this.endPoint.translate(dx, dy);
-        }
-    }
-    
-    private static class DrawLine extends AbstractDrawingObject {
-        public DrawLine(Point startPoint, Point endPoint, Color color, int stroke) {
-            super(Screen.LINE, startPoint, endPoint, color, stroke, false, Color.WHITE);
-        }
-        
-        @Override
-        public void draw(Graphics2D g) {
-            g.setStroke(new BasicStroke(this.stroke));
-            g.setColor(this.color);
-            g.drawLine(this.startPoint.x, this.startPoint.y, this.endPoint.x, this.endPoint.y);
-        }
-        
-        @Override
-        public String toString() {
-            return String.format("LINE: Start(%d,%d), End(%d,%d), Color(%d), Stroke(%d)",
-                startPoint.x, startPoint.y, endPoint.x, endPoint.y, color.getRGB(), stroke);
-        }
-        
-        @Override
-        public void saveToStream(DataOutputStream dos) throws IOException {
-            int mode = this.drawMode;
-            int startX = this.startPoint.x;
-            int startY = this.startPoint.y;
-            int endX = this.endPoint.x;
-            int endY = this.endPoint.y;
-            int lineColorRGB = this.color.getRGB();
-            int lineStroke = this.stroke;
-            boolean isLineFilled = this.isFilled;
-            int fillColorValue = this.fillColor.getRGB();
-
-            dos.writeInt(mode);
-            dos.writeInt(startX);
-            dos.writeInt(startY);
-            dos.writeInt(endX);
-            dos.writeInt(endY);
-            dos.writeInt(lineColorRGB);
-            dos.writeInt(lineStroke);
-            dos.writeBoolean(isLineFilled); 
-            dos.writeInt(fillColorValue);
-        }
-        
-        public static AbstractDrawingObject loadFromStream(DataInputStream dis) throws IOException {
-             int readMode = dis.readInt();
-             int readStartX = dis.readInt();
-             int readStartY = dis.readInt();
-             int readEndX = dis.readInt();
-             int readEndY = dis.readInt();
-             Color readColor = new Color(dis.readInt());
-             int readStroke = dis.readInt();
-             boolean readIsFilled = dis.readBoolean();
-             Color readFillColor = new Color(dis.readInt());
-             
-             Point startP = new Point(readStartX, readStartY);
-             Point endP = new Point(readEndX, readEndY);
-             
-             if (readMode != Screen.LINE) {
-                 return null;
-             }
-             
-             return new DrawLine(startP, endP, readColor, readStroke);
-        }
-        
-        @Override
-        public boolean contains(Rectangle selectionRect) {
-            return selectionRect.contains(this.startPoint) || selectionRect.contains(this.endPoint) || selectionRect.intersects(
-                new Rectangle(
-                    Math.min(this.startPoint.x, this.endPoint.x), 
-                    Math.min(this.startPoint.y, this.endPoint.y), 
-                    Math.abs(this.startPoint.x - this.endPoint.x), 
-                    Math.abs(this.startPoint.y - this.endPoint.y)
-                )
-            );
-        }
-
-        @Override
-        public boolean isValid() {
-            if (this.startPoint == null || this.endPoint == null) {
-                return false;
-            }
-            if (this.stroke <= 0 || this.stroke > 100) {
-                return false;
-            }
-            return true;
-        }
-    }
-    
-    private static class DrawCircle extends AbstractDrawingObject {
-        public DrawCircle(Point startPoint, Point endPoint, Color color, int stroke, boolean isFilled, Color fillColor) {
-            super(Screen.CIRCLE, startPoint, endPoint, color, stroke, isFilled, fillColor);
-        }
-        
-        private int getDrawX() { return Math.min(this.startPoint.x, this.endPoint.x); }
-        private int getDrawY() { return Math.min(this.startPoint.y, this.endPoint.y); }
-        private int getDrawW() { return Math.abs(this.startPoint.x - this.endPoint.x); }
-        private int getDrawH() { return Math.abs(this.startPoint.y - this.endPoint.y); }
-
-        @Override
-        public void draw(Graphics2D g) {
-            int x = this.getDrawX();
-            int y = this.getDrawY();
-            int w = this.getDrawW();
-            int h = this.getDrawH();
-            
-            if (this.isFilled) {
-                g.setColor(this.fillColor);
-                g.fillOval(x, y, w, h);
-            }
-            g.setStroke(new BasicStroke(this.stroke));
-            g.setColor(this.color);
-            g.drawOval(x, y, w, h);
-        }
-
-        @Override
-        public String toString() {
-            return String.format("CIRCLE: Start(%d,%d), End(%d,%d), Filled(%s), FColor(%d)",
-                startPoint.x, startPoint.y, endPoint.x, endPoint.y, isFilled, fillColor.getRGB());
-        }
-
-        @Override
-        public void saveToStream(DataOutputStream dos) throws IOException {
-            int mode = this.drawMode;
-            int startX = this.startPoint.x;
-            int startY = this.startPoint.y;
-            int endX = this.endPoint.x;
-            int endY = this.endPoint.y;
-            int lineColorRGB = this.color.getRGB();
-            int lineStroke = this.stroke;
-            boolean isCircleFilled = this.isFilled;
-            int fillColorValue = this.fillColor.getRGB();
-
-            dos.writeInt(mode);
-            dos.writeInt(startX);
-            dos.writeInt(startY);
-            dos.writeInt(endX);
-            dos.writeInt(endY);
-            dos.writeInt(lineColorRGB);
-            dos.writeInt(lineStroke);
-            dos.writeBoolean(isCircleFilled);
-            dos.writeInt(fillColorValue);
-        }
-        
-        public static AbstractDrawingObject loadFromStream(DataInputStream dis) throws IOException {
-             int readMode = dis.readInt();
-             int sx = dis.readInt();
-             int sy = dis.readInt();
-             int ex = dis.readInt();
-             int ey = dis.readInt();
-             Color color = new Color(dis.readInt());
-             int stroke = dis.readInt();
-             boolean isFilled = dis.readBoolean();
-             Color fillColor = new Color(dis.readInt());
-             return new DrawCircle(new Point(sx, sy), new Point(ex, ey), color, stroke, isFilled, fillColor);
-        }
-
-        @Override
-        public boolean contains(Rectangle selectionRect) {
-            int x = this.getDrawX();
-            int y = this.getDrawY();
-            int w = this.getDrawW();
-            int h = this.getDrawH();
-            return selectionRect.intersects(new Rectangle(x, y, w, h));
-        }
-
-        @Override
-        public boolean isValid() {
-            if (this.stroke <= 0 || this.stroke > 100) {
-                return false;
-            }
-            if (this.startPoint.equals(this.endPoint)) {
-                return false;
-            }
-            return true;
-        }
-    }
-    
-    private static class DrawRectangle extends AbstractDrawingObject {
-        public DrawRectangle(Point startPoint, Point endPoint, Color color, int stroke, boolean isFilled, Color fillColor) {
-            super(Screen.RECTANGLE, startPoint, endPoint, color, stroke, isFilled, fillColor);
-        }
-        
-        private int getDrawX() { return Math.min(this.startPoint.x, this.endPoint.x); }
-        private int getDrawY() { return Math.min(this.startPoint.y, this.endPoint.y); }
-        private int getDrawW() { return Math.abs(this.startPoint.x - this.endPoint.x); }
-        private int getDrawH() { return Math.abs(this.startPoint.y - this.endPoint.y); }
-        
-        @Override
-        public void draw(Graphics2D g) {
-            int x = this.getDrawX();
-            int y = this.getDrawY();
-            int w = this.getDrawW();
-            int h = this.getDrawH();
-            
-            if (this.isFilled) {
-                g.setColor(this.fillColor);
-                g.fillRect(x, y, w, h);
-            }
-            g.setStroke(new BasicStroke(this.stroke));
-            g.setColor(this.color);
-            g.drawRect(x, y, w, h);
-        }
-
-        @Override
-        public void saveToStream(DataOutputStream dos) throws IOException {
-            int mode = this.drawMode;
-            int startX = this.startPoint.x;
-            int startY = this.startPoint.y;
-            int endX = this.endPoint.x;
-            int endY = this.endPoint.y;
-            int lineColorRGB = this.color.getRGB();
-            int lineStroke = this.stroke;
-            boolean isRectFilled = this.isFilled;
-            int fillColorValue = this.fillColor.getRGB();
-            
-            dos.writeInt(mode);
-            dos.writeInt(startX);
-            dos.writeInt(startY);
-            dos.writeInt(endX);
-            dos.writeInt(endY);
-            dos.writeInt(lineColorRGB);
-            dos.writeInt(lineStroke);
-            dos.writeBoolean(isRectFilled);
-            dos.writeInt(fillColorValue);
-        }
-        
-        public static AbstractDrawingObject loadFromStream(DataInputStream dis) throws IOException {
-             int readMode = dis.readInt();
-             int sx = dis.readInt();
-             int sy = dis.readInt();
-             int ex = dis.readInt();
-             int ey = dis.readInt();
-             Color color = new Color(dis.readInt());
-             int stroke = dis.readInt();
-             boolean isFilled = dis.readBoolean();
-             Color fillColor = new Color(dis.readInt());
-             return new DrawRectangle(new Point(sx, sy), new Point(ex, ey), color, stroke, isFilled, fillColor);
-        }
-
-        @Override
-        public String toString() {
-            return String.format("RECT: Start(%d,%d), End(%d,%d), Filled(%s), FColor(%d)",
-                startPoint.x, startPoint.y, endPoint.x, endPoint.y, isFilled, fillColor.getRGB());
-        }
-
-        @Override
-        public boolean contains(Rectangle selectionRect) {
-            int x = this.getDrawX();
-            int y = this.getDrawY();
-            int w = this.getDrawW();
-            int h = this.getDrawH();
-            return selectionRect.intersects(new Rectangle(x, y, w, h));
-        }
-
-        @Override
-        public boolean isValid() {
-            if (this.stroke < 0 || this.stroke > 100) {
-                return false;
-            }
-            return true;
-        }
-    }
-    
-    private static class DrawText extends AbstractDrawingObject {
-        String text;
-        int fontSize;
-        
-        public DrawText(Point location, Color color, String text, int fontSize) {
-            super(Screen.TEXT, location, location, color, 0, false, Color.WHITE);
-            this.text = text;
-            this.fontSize = fontSize;
-        }
-        
-        @Override
-        public void draw(Graphics2D g) {
-            g.setColor(this.color);
-            g.setFont(new Font("맑은 고딕", Font.PLAIN, this.fontSize));
-            g.drawString(this.text, this.startPoint.x, this.startPoint.y);
-        }
-        
-        @Override
-        public void saveToStream(DataOutputStream dos) throws IOException {
-            int mode = this.drawMode;
-            int startX = this.startPoint.x;
-            int startY = this.startPoint.y;
-            int lineColorRGB = this.color.getRGB();
-            String textContent = this.text;
-            int textFontSize = this.fontSize;
-            boolean isTextFilled = this.isFilled;
-            int fillColorValue = this.fillColor.getRGB();
-            
-            dos.writeInt(mode);
-            dos.writeInt(startX);
-            dos.writeInt(startY);
-            dos.writeInt(lineColorRGB);
-            dos.writeUTF(textContent);
-            dos.writeInt(textFontSize);
-            dos.writeBoolean(isTextFilled); 
-            dos.writeInt(fillColorValue);
-        }
-
-        public static AbstractDrawingObject loadFromStream(DataInputStream dis) throws IOException {
-             int readMode = dis.readInt();
-             int sx = dis.readInt();
-             int sy = dis.readInt();
-             Color color = new Color(dis.readInt());
-             String text = dis.readUTF();
-             int fontSize = dis.readInt();
-             dis.readBoolean();
-             Color fillColor = new Color(dis.readInt());
-             return new DrawText(new Point(sx, sy), color, text, fontSize);
-        }
-
-        @Override
-        public String toString() {
-            return String.format("TEXT: Loc(%d,%d), Text('%s'), Size(%d)",
-                startPoint.x, startPoint.y, text, fontSize);
-        }
-        
-        @Override
-        public boolean contains(Rectangle selectionRect) {
-            return selectionRect.contains(this.startPoint);
-        }
-        
-        @Override
-        public void translate(int dx, int dy) {
-            this.startPoint.translate(dx, dy);
-        }
-
-        @Override
-        public boolean isValid() {
-            if (this.fontSize < 8 || this.fontSize > 72) {
-                return false;
-            }
-            if (this.text == null || this.text.trim().isEmpty()) {
-                return false;
-            }
-            return true;
-        }
-    }
-
-	private Graphics bufferGraphics;
-	private Image offscreen;	
-	private Dimension dim;
+	public static final String PROPERTY_RASTER_PROGRESS = "rasterProgress";
+	public static final String PROPERTY_FILE_PROGRESS = "fileProgress";
+	public static final String PROPERTY_FILE_TASKS = "fileTasks";
+	public static final String PROPERTY_ZOOM = "zoomLevel";
+	
+	public static final float MIN_ZOOM = 0.0625f;
+	public static final float MAX_ZOOM = 4.0f;
+	private static final double WHEEL_ZOOM_FACTOR = 1.1;
 	
-	private LinkedList<Point> mouseList = new LinkedList<>(); 
-	private LinkedList<Color> mouseColorList = new LinkedList<>(); 
-	private LinkedList<AbstractDrawingObject> drawingList = new LinkedList<>(); 
+	private static final int BACKGROUND_RASTER_THRESHOLD = 8_000_000;
+	private static final long TILED_IMAGE_PIXELS = 100_000_000L;
+	private static final Dimension DEFAULT_CANVAS_SIZE = new Dimension(800, 600);
+	private static final long JOURNAL_COMPACTION_BYTES = 8L << 20;
+	private static final int HUD_MARGIN = 6;
+	private static final Color HUD_BACKGROUND = new Color(0, 0, 0, 170);
+	private static final Stroke SELECTION_STROKE = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10.0f, new float[] {5.0f}, 0.0f);
+	
+
+	private Scene scene = new Scene(1, 1);
+	private SceneRenderer renderer = new SceneRenderer(scene);
+	private boolean isCanvasSized = false;
 	
 	private int drawMode;
 	private Point startPoint = new Point();
@@ -447,39 +93,73 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
     private boolean isDraggingSelection = false;
     
     private BufferedImage currentImage = null;
+    private long compositeGeneration = -1;
     private float zoomLevel = 1.0f;
     private boolean isDebugMode = false;
+    private Rectangle hudBounds = null;
+    
+    private int fillTolerance = 0;
+    private int colorDistanceMetric = FloodFill.RGB_DISTANCE;
+    private SelectionMask currentSelectionMask = null;
+    private SwingWorker<Object, Void> rasterWorker = null;
+    private final List<FileTask<?>> fileTasks = new ArrayList<>();
+    private Timer fileProgressTimer = null;
+    private Rectangle repaintRegion = null;
+    private boolean isSaveCompressed = false;
+    private OperationJournal journal = null;
+    private File documentFile = null;
+    private Point dragOffset = new Point();
+    private final UndoHistory history = new UndoHistory();
+    private boolean isUndoCompressed = false;
+    private int strokeStart = 0;
+    private final BrushEngine brush = new BrushEngine(SceneRenderer.POINT_SIZE, BrushEngine.HARD, BrushEngine.DEFAULT_SPACING);
+    private long tileMemoryCap = TiledRaster.DEFAULT_MEMORY_CAP;
+    private Point panStart = null;
+    private Point panViewStart = null;
+    private AbstractDrawingObject previewObject = null;
+    private final FrameScheduler frameScheduler = new FrameScheduler(this::applyDrags);
 
 	public Screen() {
         setLayout(null);
-        setPreferredSize(new Dimension(800, 600));
+        setPreferredSize(new Dimension(DEFAULT_CANVAS_SIZE));
         setOpaque(true);
 
 		addMouseListener(this);
 		addMouseMotionListener(this);
+		addMouseWheelListener(this);
 		setDrawMode(Screen.LINE);
 	}
 	
 	public void initBufferd() {	
-		 dim = getSize();	
+		 Dimension size = getSize();	
 		 setBackground(Color.white);	
-		 offscreen = createImage(dim.width,dim.height);
-		 bufferGraphics = offscreen.getGraphics(); 
-         
-         bufferGraphics.setColor(Color.white);
-         bufferGraphics.fillRect(0, 0, dim.width, dim.height);
-         
-         if (dim.width > 0 && dim.height > 0) {
-             if (currentImage == null || currentImage.getWidth() != dim.width || currentImage.getHeight() != dim.height) {
-                currentImage = new BufferedImage(dim.width, dim.height, BufferedImage.TYPE_INT_RGB);
-             }
-         }
+		 scene.resetBackground(size.width, size.height);
+		 if (journal != null) {
+		     journal.reset(size.width, size.height);
+		 }
+		 renderer.invalidate();
+		 currentImage = null;
+		 isCanvasSized = true;
+		 setPreferredSize(getZoomedSize());
+	}
+	
+	public Scene getScene() {
+	    return scene;
+	}
+	
+	public SceneRenderer getRenderer() {
+	    return renderer;
 	}
     
     private void logDebugMessage(String message) {
         if (isDebugMode) {
-            String fullMessage = "[DEBUG] [Mode: " + this.drawMode + "] " + message;
-            System.out.println(fullMessage);
+            DebugLog.log("[Mode: " + this.drawMode + "] " + message);
+        }
+    }
+    
+    private void logDebugMessage(Supplier<String> message) {
+        if (isDebugMode) {
+            DebugLog.log("[Mode: " + this.drawMode + "] " + message.get());
         }
     }
     
@@ -497,83 +177,207 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
         return resultPoint;
     }
 
+    private void invalidateSceneRegion(Rectangle canvasRect) {
+        if (canvasRect == null) return;
+        renderer.invalidateRegion(canvasRect);
+        markDirty(canvasRect);
+    }
+
+    private void markDirty(Rectangle canvasRect) {
+        if (canvasRect == null) return;
+        repaintRegion = (repaintRegion == null) ? new Rectangle(canvasRect) : repaintRegion.union(canvasRect);
+    }
+
+    private void repaintDirtyRegion() {
+        if (repaintRegion == null) return;
+        Rectangle screenRect = toScreenRect(repaintRegion);
+        repaintRegion = null;
+        logDebugMessage(() -> "Repainting dirty region: " + screenRect);
+        repaint(screenRect);
+    }
+
+    private Rectangle toScreenRect(Rectangle canvasRect) {
+        int x1 = (int)Math.floor(canvasRect.x * zoomLevel) - 2;
+        int y1 = (int)Math.floor(canvasRect.y * zoomLevel) - 2;
+        int x2 = (int)Math.ceil((canvasRect.x + canvasRect.width) * zoomLevel) + 2;
+        int y2 = (int)Math.ceil((canvasRect.y + canvasRect.height) * zoomLevel) + 2;
+        return new Rectangle(x1, y1, x2 - x1, y2 - y1);
+    }
+
+    private Rectangle toCanvasRect(Rectangle screenRect) {
+        int x1 = (int)Math.floor(screenRect.x / zoomLevel);
+        int y1 = (int)Math.floor(screenRect.y / zoomLevel);
+        int x2 = (int)Math.ceil((screenRect.x + screenRect.width) / zoomLevel);
+        int y2 = (int)Math.ceil((screenRect.y + screenRect.height) / zoomLevel);
+        return new Rectangle(x1, y1, x2 - x1, y2 - y1);
+    }
+
+    private Rectangle getSelectionBounds(Rectangle selectionRect) {
+        if (selectionRect == null) return null;
+        return new Rectangle(selectionRect.x - 1, selectionRect.y - 1, selectionRect.width + 3, selectionRect.height + 3);
+    }
+
+    private AbstractDrawingObject pickObjectAt(Point point) {
+        return scene.findTopmost(new Rectangle(point.x - 2, point.y - 2, 5, 5));
+    }
+
+    private void setPreview(AbstractDrawingObject obj) {
+        if (previewObject != null) {
+            markDirty(previewObject.getBounds());
+        }
+        previewObject = obj;
+        if (obj != null) {
+            markDirty(obj.getBounds());
+        }
+    }
+
+    private AbstractDrawingObject createShapeObject() {
+        if (drawMode == Screen.LINE) {
+            return new DrawLine(startPoint, endPoint, currentColor, currentStroke);
+        } else if (drawMode == Screen.CIRCLE) {
+            return new DrawCircle(startPoint, endPoint, currentColor, currentStroke, currentFill, currentFillColor);
+        }
+        return new DrawRectangle(startPoint, endPoint, currentColor, currentStroke, currentFill, currentFillColor);
+    }
+
+    private Rectangle getObjectsBounds(LinkedList<AbstractDrawingObject> objects) {
+        Rectangle bounds = null;
+        for (AbstractDrawingObject obj : objects) {
+            bounds = (bounds == null) ? obj.getBounds() : bounds.union(obj.getBounds());
+        }
+        return bounds;
+    }
+
 	@Override
 	public void paintComponent(Graphics g) {
         super.paintComponent(g); 
+        long paintStartNanos = System.nanoTime();
+        renderer.resetObjectsDrawn();
         
         g.setColor(Color.white);
         g.fillRect(0, 0, getWidth(), getHeight()); 
         
-        if (bufferGraphics == null) {
+        if (!isCanvasSized) {
             initBufferd();
         }
-		
-		Graphics2D g2dBuffer = (Graphics2D)bufferGraphics; 
-		
-		g2dBuffer.setTransform(AffineTransform.getScaleInstance(zoomLevel, zoomLevel));
-		
-		logDebugMessage("--- Starting Paint Cycle (Objects: " + drawingList.size() + ") ---");
-        
-		for(int i=0; i < mouseList.size(); i++) {
-			Point currentPoint = mouseList.get(i);
-            int pointX = currentPoint.x;
-            int pointY = currentPoint.y;
 
-            Color drawingColor = Color.BLACK;
+		logDebugMessage(() -> "--- Starting Paint Cycle (Objects: " + scene.getObjectCount() + ") ---");
 
-			if(i < mouseColorList.size()) {
-				drawingColor = mouseColorList.get(i);
-			} 
-            
-            Color currentColorForG = drawingColor;
-            Color currentColorForBuffer = drawingColor;
-
-            g.setColor(currentColorForG);
-            bufferGraphics.setColor(currentColorForBuffer);
-			
-			bufferGraphics.fillOval(pointX, pointY, 10, 10);
-            logDebugMessage(String.format("Painting Point at (%d, %d)", pointX, pointY));
-		}
-        
-		for(AbstractDrawingObject obj : drawingList) {
-            if (obj.isValid()) {
-                obj.draw(g2dBuffer);
-                logDebugMessage("Drawing Object Type: " + obj.drawMode);
+        if (scene.isTiled()) {
+            Graphics2D g2Canvas = (Graphics2D)g.create();
+            g2Canvas.scale(zoomLevel, zoomLevel);
+            renderer.render(g2Canvas);
+            g2Canvas.dispose();
+        } else {
+            BufferedImage sceneCache = renderer.update();
+            int level = MipPyramid.levelFor(zoomLevel);
+            if (zoomLevel > 1.0f) {
+                renderer.getZoomTiles().paint((Graphics2D)g, zoomLevel, g.getClipBounds());
+            } else if (level == 0) {
+                g.drawImage(sceneCache, 0, 0, (int)(scene.getWidth() * zoomLevel), (int)(scene.getHeight() * zoomLevel), this);
             } else {
-                logDebugMessage("Skipping invalid object: " + obj.drawMode + " | State: " + obj.getDetailedState());
+                Rectangle clip = g.getClipBounds();
+                MipPyramid pyramid = renderer.getPyramid();
+                BufferedImage levelImage = pyramid.getLevel(level, (clip != null) ? toCanvasRect(clip) : null);
+                double levelScale = zoomLevel * (1 << level);
+                g.drawImage(levelImage, 0, 0, (int)Math.round(levelImage.getWidth() * levelScale), (int)Math.round(levelImage.getHeight() * levelScale), this);
             }
-		}
-
-		g.drawImage(offscreen,0,0,(int)(dim.width * zoomLevel), (int)(dim.height * zoomLevel), this);
-        
-        g2dBuffer.setTransform(new AffineTransform());
+        }
         
-        if (offscreen != null && currentImage != null) {
-            Graphics gImage = currentImage.getGraphics();
-            gImage.drawImage(offscreen, 0, 0, null);
-            gImage.dispose();
+        if (previewObject != null && previewObject.isValid()) {
+            Graphics2D g2Preview = (Graphics2D)g.create();
+            g2Preview.scale(zoomLevel, zoomLevel);
+            previewObject.draw(g2Preview);
+            g2Preview.dispose();
         }
         
         if (currentSelectionRect != null) {
             g.setColor(Color.BLACK);
             Graphics2D g2dMain = (Graphics2D)g;
             
-            float[] dash = {5.0f};
-            Stroke dashed = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10.0f, dash, 0.0f);
-            g2dMain.setStroke(dashed);
+            g2dMain.setStroke(SELECTION_STROKE);
             
             int rectX = (int)(currentSelectionRect.x * zoomLevel);
             int rectY = (int)(currentSelectionRect.y * zoomLevel);
             int rectW = (int)(currentSelectionRect.width * zoomLevel);
             int rectH = (int)(currentSelectionRect.height * zoomLevel);
 
-            logDebugMessage(String.format("Drawing Selection Box at (%d, %d) size %d x %d", rectX, rectY, rectW, rectH));
+            logDebugMessage(() -> String.format("Drawing Selection Box at (%d, %d) size %d x %d", rectX, rectY, rectW, rectH));
 
             g2dMain.drawRect(rectX, rectY, rectW, rectH);
             
-            g2dMain.setStroke(new BasicStroke(1)); 
+            g2dMain.setStroke(ResourceCache.getStroke(1)); 
         }
+        logDebugMessage(() -> ResourceCache.getStatistics());
         logDebugMessage("--- Paint Cycle Finished ---");
+        
+        Rectangle paintClip = g.getClipBounds();
+        if (!isDebugMode || hudBounds == null || paintClip == null || !hudBounds.contains(paintClip)) {
+            PerformanceStats.PAINT.record(System.nanoTime() - paintStartNanos);
+        }
+        frameScheduler.framePainted();
+        if (isDebugMode) {
+            drawDebugHud((Graphics2D)g);
+        }
+	}
+	
+	private void drawDebugHud(Graphics2D g2) {
+	    double allocationRate = PerformanceStats.sampleAllocationRate();
+	    LatencyHistogram paint = PerformanceStats.PAINT;
+	    
+	    List<String> lines = new ArrayList<>();
+	    lines.add(String.format("frame p50 %.2f ms  p99 %.2f ms  (%d frames)",
+	        paint.getPercentileNanos(50) / 1e6, paint.getPercentileNanos(99) / 1e6, paint.getCount()));
+	    lines.add("objects drawn " + renderer.getObjectsDrawn() + " / " + scene.getObjectCount() + ", points " + scene.getPoints().size());
+	    lines.add(allocationRate < 0 ? "alloc rate n/a" : String.format("alloc %.1f MB/s (EDT)", allocationRate / (1024 * 1024)));
+	    LatencyHistogram input = PerformanceStats.INPUT_TO_PAINT;
+	    lines.add(String.format("input->paint p50 %.2f ms  p99 %.2f ms, %d events / %d frames @ %d Hz, last batch %d, max %d",
+	        input.getPercentileNanos(50) / 1e6, input.getPercentileNanos(99) / 1e6, frameScheduler.getEventCount(), frameScheduler.getFrameCount(),
+	        frameScheduler.getRefreshRate(), frameScheduler.getLastBatchSize(), frameScheduler.getMaxBatchSize()));
+	    if (scene.isTiled()) {
+	        TiledRaster raster = scene.getRaster();
+	        lines.add(String.format("tiles %d cached %.1f / %d MB, %d decoded, %d pending, %d edited, %d spilled",
+	            raster.getCachedTileCount(), raster.getMemoryUsage() / (1024.0 * 1024), raster.getMemoryCap() >> 20,
+	            raster.getDecodeCount(), raster.getPendingTileCount(), raster.getDirtyTileCount(), raster.getSpillCount()));
+	    } else if (zoomLevel > 1.0f) {
+	        ZoomTileCache zoomTiles = renderer.getZoomTiles();
+	        lines.add(String.format("zoom tiles %d cached %.1f / %d MB, %d rendered",
+	            zoomTiles.getTileCount(), zoomTiles.getMemoryUsage() / (1024.0 * 1024), zoomTiles.getMemoryCap() >> 20, zoomTiles.getTilesRendered()));
+	    } else if (renderer.getPyramid() != null) {
+	        MipPyramid pyramid = renderer.getPyramid();
+	        lines.add(String.format("mip level %d, %.1f MB, %d tiles built",
+	            MipPyramid.levelFor(zoomLevel), pyramid.getMemoryUsage() / (1024.0 * 1024), pyramid.getTilesBuilt()));
+	    }
+	    for (LatencyHistogram operation : PerformanceStats.getOperations()) {
+	        if (operation.getCount() > 0) {
+	            lines.add(operation.getSummary());
+	        }
+	    }
+	    
+	    g2.setFont(ResourceCache.getFont(Font.MONOSPACED, Font.PLAIN, 11));
+	    FontMetrics metrics = g2.getFontMetrics();
+	    int lineHeight = metrics.getHeight();
+	    int hudWidth = 0;
+	    for (String line : lines) {
+	        hudWidth = Math.max(hudWidth, metrics.stringWidth(line));
+	    }
+	    Rectangle visible = getVisibleRect();
+	    hudBounds = new Rectangle(visible.x + HUD_MARGIN, visible.y + HUD_MARGIN, hudWidth + HUD_MARGIN * 2, lineHeight * lines.size() + HUD_MARGIN * 2);
+	    
+	    g2.setColor(HUD_BACKGROUND);
+	    g2.fillRect(hudBounds.x, hudBounds.y, hudBounds.width, hudBounds.height);
+	    g2.setColor(Color.white);
+	    int baseline = hudBounds.y + HUD_MARGIN + metrics.getAscent();
+	    for (String line : lines) {
+	        g2.drawString(line, hudBounds.x + HUD_MARGIN, baseline);
+	        baseline += lineHeight;
+	    }
+	    
+	    Rectangle clip = g2.getClipBounds();
+	    Rectangle visibleHud = hudBounds.intersection(visible);
+	    if (clip != null && !visibleHud.isEmpty() && !clip.contains(visibleHud)) {
+	        repaint(visibleHud);
+	    }
 	}
 
 	@Override
@@ -582,6 +386,12 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 
 	@Override
 	public void mousePressed(MouseEvent e) {
+		frameScheduler.flush();
+		if (SwingUtilities.isMiddleMouseButton(e) && getViewport() != null) {
+		    panStart = e.getLocationOnScreen();
+		    panViewStart = getViewport().getViewPosition();
+		    return;
+		}
 		if( e.getButton() == MouseEvent.BUTTON1) {
             
             Point actualPoint = getActualPoint(e.getX(), e.getY());
@@ -592,35 +402,60 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
             }
             
 			if(this.drawMode == Screen.SELECTION) {
+			    markDirty(getSelectionBounds(currentSelectionRect));
 			    selectionStartPoint = actualPoint;
-                currentSelectionRect = new Rectangle(selectionStartPoint.x, selectionStartPoint.y, 0, 0);
+			    AbstractDrawingObject pickedObject = pickObjectAt(actualPoint);
                 
-                if (!selectedObjects.isEmpty() && currentSelectionRect.contains(selectedObjects.get(0).startPoint)) {
+                dragOffset.setLocation(0, 0);
+                if (!selectedObjects.isEmpty() && ((currentSelectionRect != null && currentSelectionRect.contains(actualPoint)) || selectedObjects.contains(pickedObject))) {
                      isDraggingSelection = true;
                      logDebugMessage("Entering Selection Drag Mode.");
+                } else if (pickedObject != null) {
+                     selectedObjects.clear();
+                     selectedObjects.add(pickedObject);
+                     currentSelectionMask = null;
+                     currentSelectionRect = pickedObject.getBounds();
+                     isDraggingSelection = true;
+                     logDebugMessage(() -> "Picked object for dragging: " + pickedObject);
                 } else {
                      selectedObjects.clear();
+                     currentSelectionMask = null;
+                     currentSelectionRect = new Rectangle(selectionStartPoint.x, selectionStartPoint.y, 0, 0);
                      isDraggingSelection = false;
                      logDebugMessage("Starting New Selection.");
                 }
                 oldPoint = actualPoint;
-                repaint();
+                markDirty(getSelectionBounds(currentSelectionRect));
+                repaintDirtyRegion();
                 return;
 			}
-			else if(this.drawMode == Screen.FILL_BUCKET) {
-			    if (currentImage != null) {
+			else if(this.drawMode == Screen.FILL_BUCKET || this.drawMode == Screen.MAGIC_WAND) {
+			    if (rasterWorker != null) {
+			        logDebugMessage("Raster operation already running; ignoring click.");
+			        return;
+			    }
+			    if (isCanvasSized) {
 			        int x = actualPoint.x;
 			        int y = actualPoint.y;
 			        
 			        if (isValid(x, y)) {
-			            int targetColorRGB = currentImage.getRGB(x, y);
+			            if (scene.isTiled()) {
+			                if (this.drawMode == Screen.MAGIC_WAND) {
+			                    logDebugMessage("Magic wand is not available on tiled images.");
+			                } else {
+			                    runTiledFill(x, y, currentFillColor.getRGB());
+			                }
+			                return;
+			            }
+			            int targetColorRGB = getComposite().getRGB(x, y);
 			            int replacementRGB = currentFillColor.getRGB();
 			            
-			            if (targetColorRGB != replacementRGB) {
-			                logDebugMessage(String.format("Starting Flood Fill at (%d, %d). Target Color: %d", x, y, targetColorRGB));
-			                floodFill(x, y, targetColorRGB, replacementRGB);
-			                offscreen = currentImage; 
-			                repaint();
+			            if (this.drawMode == Screen.MAGIC_WAND) {
+			                logDebugMessage(() -> String.format("Starting Magic Wand at (%d, %d). Tolerance: %d", x, y, fillTolerance));
+			                runFloodFill(x, y, replacementRGB, true);
+			            } else if (targetColorRGB != replacementRGB || fillTolerance > 0) {
+			                logDebugMessage(() -> String.format("Starting Flood Fill at (%d, %d). Target Color: %d", x, y, targetColorRGB));
+			                runFloodFill(x, y, replacementRGB, false);
 			            } else {
                             logDebugMessage("Fill target color already matches replacement color.");
                         }
@@ -631,20 +466,23 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 			    return;
 			}
 			else if(this.drawMode == Screen.POINT) {
-			    logDebugMessage(String.format("Point Mode: Initializing point at (%d, %d)", actualPoint.x, actualPoint.y));
+			    strokeStart = scene.getPoints().size();
+			    logDebugMessage(() -> String.format("Point Mode: Initializing point at (%d, %d)", actualPoint.x, actualPoint.y));
+			    brush.beginStroke(actualPoint.x, actualPoint.y, this::addDab);
+			    repaintDirtyRegion();
 			}
 			else if(this.drawMode == Screen.LINE || this.drawMode == Screen.CIRCLE || this.drawMode == Screen.RECTANGLE) {
 				startPoint = actualPoint;
 				endPoint = actualPoint;
 				oldPoint = actualPoint;
-                logDebugMessage(String.format("Starting draw mode %d at (%d, %d)", drawMode, actualPoint.x, actualPoint.y));
+                logDebugMessage(() -> String.format("Starting draw mode %d at (%d, %d)", drawMode, actualPoint.x, actualPoint.y));
 			}
 			else if(this.drawMode == Screen.TEXT) {
                 currentTextLocation = actualPoint;
-                logDebugMessage(String.format("Starting Text Mode at (%d, %d)", actualPoint.x, actualPoint.y));
+                logDebugMessage(() -> String.format("Starting Text Mode at (%d, %d)", actualPoint.x, actualPoint.y));
                 
                 textField = new JTextField();
-                textField.setFont(new Font("맑은 고딕", Font.PLAIN, currentFontSize));
+                textField.setFont(ResourceCache.getFont(DrawText.FONT_FAMILY, Font.PLAIN, currentFontSize));
                 textField.setBounds((int)(currentTextLocation.x * zoomLevel), (int)(currentTextLocation.y * zoomLevel) - currentFontSize, 100, currentFontSize + 5); 
                 
                 textField.addActionListener(new ActionListener() {
@@ -663,11 +501,18 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 
 	@Override
 	public void mouseReleased(MouseEvent e) {
+		frameScheduler.flush();
+		if (panStart != null && SwingUtilities.isMiddleMouseButton(e)) {
+		    panStart = null;
+		    panViewStart = null;
+		    return;
+		}
 		if( e.getButton() == MouseEvent.BUTTON1) {
 			if(this.drawMode == Screen.SELECTION) {
                 
                 Point actualPoint = getActualPoint(e.getX(), e.getY());
                 
+                markDirty(getSelectionBounds(currentSelectionRect));
                 if (!isDraggingSelection) {
                     currentSelectionRect.setBounds(
                         Math.min(selectionStartPoint.x, actualPoint.x),
@@ -679,25 +524,38 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
                     selectedObjects.clear();
                     Rectangle checkRect = currentSelectionRect;
                     
-                    for(AbstractDrawingObject obj : drawingList) {
+                    for(AbstractDrawingObject obj : scene.query(getSelectionBounds(checkRect))) {
                         if (obj.contains(checkRect)) {
                             selectedObjects.add(obj);
                         }
                     }
                     
+                    markDirty(getSelectionBounds(currentSelectionRect));
                     if (selectedObjects.isEmpty()) {
                         currentSelectionRect = null;
                         logDebugMessage("Selection Ended: No objects selected.");
                     } else {
-                        logDebugMessage("Selection Ended: " + selectedObjects.size() + " objects selected.");
+                        logDebugMessage(() -> "Selection Ended: " + selectedObjects.size() + " objects selected.");
+                    }
+                } else if (dragOffset.x != 0 || dragOffset.y != 0) {
+                    history.push(UndoHistory.translate(selectedObjects, dragOffset.x, dragOffset.y));
+                    if (journal != null) {
+                        journal.translate(scene.indicesOf(selectedObjects), dragOffset.x, dragOffset.y);
                     }
                 }
                 
                 isDraggingSelection = false;
-                repaint();
+                repaintDirtyRegion();
                 return;
             }
-			else if(this.drawMode == Screen.POINT || this.drawMode == Screen.ERASER || this.drawMode == Screen.TEXT || this.drawMode == Screen.FILL_BUCKET) {
+			else if(this.drawMode == Screen.POINT) {
+			    brush.endStroke();
+			    PointStore points = scene.getPoints();
+			    if (points.size() > strokeStart) {
+			        history.push(UndoHistory.addPoints(strokeStart, points.copy(strokeStart, points.size())));
+			    }
+			}
+			else if(this.drawMode == Screen.ERASER || this.drawMode == Screen.TEXT || this.drawMode == Screen.FILL_BUCKET || this.drawMode == Screen.MAGIC_WAND) {
 			}
 			else if(this.drawMode == Screen.LINE) {
 				endPoint.setLocation(getActualPoint(e.getX(), e.getY()));
@@ -710,12 +568,14 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 				AbstractDrawingObject obj = new DrawLine(finalStartPoint, finalEndPoint, lineColor, lineStroke); 
                 
                 if (obj.isValid()) {
-                    drawingList.add(obj); 
+                    addObject(obj);
+                    markDirty(obj.getBounds());
                     logDebugMessage("LINE object created and validated.");
                 } else {
-                    logDebugMessage("LINE object creation failed validation: " + obj.getDetailedState());
+                    logDebugMessage(() -> "LINE object creation failed validation: " + obj.getDetailedState());
                 }
-				repaint();
+                setPreview(null);
+				repaintDirtyRegion();
 			}
 			else if(this.drawMode == Screen.CIRCLE) {
 				endPoint.setLocation(getActualPoint(e.getX(), e.getY()));
@@ -730,12 +590,14 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 				AbstractDrawingObject obj = new DrawCircle(finalStartPoint, finalEndPoint, circleColor, circleStroke, isCircleFilled, circleFillColor);
                 
                 if (obj.isValid()) {
-                    drawingList.add(obj); 
+                    addObject(obj);
+                    markDirty(obj.getBounds());
                     logDebugMessage("CIRCLE object created and validated.");
                 } else {
-                    logDebugMessage("CIRCLE object creation failed validation: " + obj.getDetailedState());
+                    logDebugMessage(() -> "CIRCLE object creation failed validation: " + obj.getDetailedState());
                 }
-				repaint();
+                setPreview(null);
+				repaintDirtyRegion();
 			}
 			else if(this.drawMode == Screen.RECTANGLE) {
 				endPoint.setLocation(getActualPoint(e.getX(), e.getY()));
@@ -750,12 +612,14 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 				AbstractDrawingObject obj = new DrawRectangle(finalStartPoint, finalEndPoint, rectColor, rectStroke, isRectFilled, rectFillColor);
                 
                 if (obj.isValid()) {
-                    drawingList.add(obj); 
+                    addObject(obj);
+                    markDirty(obj.getBounds());
                     logDebugMessage("RECTANGLE object created and validated.");
                 } else {
-                    logDebugMessage("RECTANGLE object creation failed validation: " + obj.getDetailedState());
+                    logDebugMessage(() -> "RECTANGLE object creation failed validation: " + obj.getDetailedState());
                 }
-				repaint();
+                setPreview(null);
+				repaintDirtyRegion();
 			}
 		}
 	}
@@ -770,6 +634,33 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 
 	@Override
 	public void mouseDragged(MouseEvent e) {
+	    frameScheduler.post(e);
+	}
+	
+	public void flushInput() {
+	    frameScheduler.flush();
+	}
+	
+	private void applyDrags(List<MouseEvent> events) {
+	    for (MouseEvent e : events) {
+	        applyDrag(e);
+	    }
+	}
+	
+	private void addDab(int x, int y) {
+	    scene.getPoints().add(x, y, currentColor.getRGB());
+	    if (journal != null) {
+	        journal.addPoint(x, y, currentColor.getRGB());
+	    }
+	    markDirty(brush.getDabBounds(x, y));
+	}
+
+	private void applyDrag(MouseEvent e) {
+        if (panStart != null) {
+            Point location = e.getLocationOnScreen();
+            scrollViewTo(panViewStart.x - (location.x - panStart.x), panViewStart.y - (location.y - panStart.y));
+            return;
+        }
         
         Point actualPoint = getActualPoint(e.getX(), e.getY());
         
@@ -778,31 +669,36 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
             int dy = actualPoint.y - oldPoint.y;
             
             if (isDraggingSelection) {
+                markDirty(getSelectionBounds(currentSelectionRect));
                 for (AbstractDrawingObject obj : selectedObjects) {
+                    invalidateSceneRegion(obj.getBounds());
                     obj.translate(dx, dy);
+                    scene.updateObjectBounds(obj);
+                    invalidateSceneRegion(obj.getBounds());
                 }
                 currentSelectionRect.translate(dx, dy);
+                dragOffset.translate(dx, dy);
+                markDirty(getSelectionBounds(currentSelectionRect));
                 oldPoint = actualPoint;
-                repaint();
-                logDebugMessage(String.format("Selection dragged by (%d, %d)", dx, dy));
+                repaintDirtyRegion();
+                logDebugMessage(() -> String.format("Selection dragged by (%d, %d)", dx, dy));
                 return;
             } else {
+                markDirty(getSelectionBounds(currentSelectionRect));
                 currentSelectionRect.setBounds(
                     Math.min(selectionStartPoint.x, actualPoint.x),
                     Math.min(selectionStartPoint.y, actualPoint.y),
                     Math.abs(selectionStartPoint.x - actualPoint.x),
                     Math.abs(selectionStartPoint.y - actualPoint.y)
                 );
-                repaint();
+                markDirty(getSelectionBounds(currentSelectionRect));
+                repaintDirtyRegion();
                 return;
             }
         }
 		else if(this.drawMode == Screen.POINT) {
-			int x = e.getX();
-			int y = e.getY();
-			mouseList.add(new Point(x, y));
-			mouseColorList.add(currentColor);
-			repaint();
+			brush.strokeTo(actualPoint.x, actualPoint.y, this::addDab);
+			repaintDirtyRegion();
 		}
 		else if(this.drawMode == Screen.ERASER) {
 			int x = e.getX();
@@ -817,78 +713,10 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 			
 			g.setColor(oldColor);
 		}
-		else if(this.drawMode == Screen.LINE) {
-            Graphics g = getGraphics();
-            Color oldColor = g.getColor();
-            endPoint = actualPoint;
-            
-            g.setXORMode(getBackground());
-            
-            Point oldScreenStart = getScreenPoint(startPoint.x, startPoint.y);
-            Point oldScreenEnd = getScreenPoint(oldPoint.x, oldPoint.y);
-            g.drawLine(oldScreenStart.x, oldScreenStart.y, oldScreenEnd.x, oldScreenEnd.y);
-            
-            Point newScreenEnd = getScreenPoint(endPoint.x, endPoint.y);
-            g.drawLine(oldScreenStart.x, oldScreenStart.y, newScreenEnd.x, newScreenEnd.y);
-            
-            oldPoint = actualPoint;
-            g.setColor(oldColor);
-		}
-		else if(this.drawMode == Screen.CIRCLE) {
-            Graphics g = getGraphics();
-            Color oldColor = g.getColor();
-            endPoint = actualPoint;
-            g.setXORMode(getBackground());
-            
-            Point oldScreenStart = getScreenPoint(startPoint.x, startPoint.y);
-            Point oldScreenEnd = getScreenPoint(oldPoint.x, oldPoint.y);
-            
-            int oldW = oldScreenEnd.x - oldScreenStart.x;
-            int oldH = oldScreenEnd.y - oldScreenStart.y;
-            int oldX = oldScreenStart.x;
-            int oldY = oldScreenStart.y;
-            
-            g.drawOval(oldX, oldY, oldW, oldH);
-            
-            Point newScreenEnd = getScreenPoint(endPoint.x, endPoint.y);
-            
-            int newW = newScreenEnd.x - oldScreenStart.x;
-            int newH = newScreenEnd.y - oldScreenStart.y;
-            int newX = oldScreenStart.x;
-            int newY = oldScreenStart.y;
-            
-            g.drawOval(newX, newY, newW, newH);
-            
-            oldPoint = actualPoint;
-            g.setColor(oldColor);
-		}
-		else if(this.drawMode == Screen.RECTANGLE) {
-            Graphics g = getGraphics();
-            Color oldColor = g.getColor();
+		else if(this.drawMode == Screen.LINE || this.drawMode == Screen.CIRCLE || this.drawMode == Screen.RECTANGLE) {
             endPoint = actualPoint;
-            g.setXORMode(getBackground());
-            
-            Point oldScreenStart = getScreenPoint(startPoint.x, startPoint.y);
-            Point oldScreenEnd = getScreenPoint(oldPoint.x, oldPoint.y);
-            
-            int oldW = oldScreenEnd.x - oldScreenStart.x;
-            int oldH = oldScreenEnd.y - oldScreenStart.y;
-            int oldX = oldScreenStart.x;
-            int oldY = oldScreenStart.y;
-            
-            g.drawRect(oldX, oldY, oldW, oldH);
-            
-            Point newScreenEnd = getScreenPoint(endPoint.x, endPoint.y);
-            
-            int newW = newScreenEnd.x - oldScreenStart.x;
-            int newH = newScreenEnd.y - oldScreenStart.y;
-            int newX = oldScreenStart.x;
-            int newY = oldScreenStart.y;
-            
-            g.drawRect(newX, newY, newW, newH);
-            
-            oldPoint = actualPoint;
-            g.setColor(oldColor);
+            setPreview(createShapeObject());
+            repaintDirtyRegion();
 		}
 	}
 
@@ -896,6 +724,14 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
 	public void mouseMoved(MouseEvent e) {
 	}
 	
+	private void addObject(AbstractDrawingObject obj) {
+	    scene.addObject(obj);
+	    history.push(UndoHistory.addObject(obj));
+	    if (journal != null) {
+	        journal.addObject(obj);
+	    }
+	}
+	
 	private void saveTextField() {
         if (textField != null && !textField.getText().trim().isEmpty()) {
             String text = textField.getText();
@@ -908,404 +744,1159 @@ public class Screen extends JPanel implements MouseListener, MouseMotionListener
             );
             
             if (obj.isValid()) {
-                drawingList.add(obj);
+                addObject(obj);
+                markDirty(obj.getBounds());
                 logDebugMessage("TEXT object finalized and added to list.");
             } else {
                 logDebugMessage("TEXT object failed validation on finalize.");
             }
         }
         
+        Rectangle fieldBounds = textField.getBounds();
         remove(textField);
         revalidate();
-        repaint();
+        repaint(fieldBounds);
+        repaintDirtyRegion();
         textField = null;
     }
     
+    private BufferedImage toIntRGBImage(BufferedImage image) {
+        if (image == null || image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = converted.createGraphics();
+        g2d.setColor(Color.white);
+        g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return converted;
+    }
+    
     private boolean isValid(int x, int y) {
-	    return x >= 0 && y >= 0 && currentImage != null && x < currentImage.getWidth() && y < currentImage.getHeight();
+	    return x >= 0 && y >= 0 && x < scene.getWidth() && y < scene.getHeight();
+	}
+	
+	private BufferedImage getComposite() {
+	    BufferedImage sceneCache = renderer.update();
+	    if (currentImage == null || currentImage.getWidth() != sceneCache.getWidth() || currentImage.getHeight() != sceneCache.getHeight()) {
+	        currentImage = new BufferedImage(sceneCache.getWidth(), sceneCache.getHeight(), BufferedImage.TYPE_INT_RGB);
+	        compositeGeneration = -1;
+	    }
+	    if (compositeGeneration != renderer.getGeneration()) {
+	        long startNanos = System.nanoTime();
+	        Graphics gImage = currentImage.getGraphics();
+	        gImage.drawImage(sceneCache, 0, 0, null);
+	        gImage.dispose();
+	        compositeGeneration = renderer.getGeneration();
+	        logDebugMessage(() -> "Refreshed raster composite in " + (System.nanoTime() - startNanos) / 1000 + " us.");
+	    }
+	    return currentImage;
 	}
 	
-	private void floodFill(int x, int y, int targetRGB, int replacementRGB) {
-	    if (currentImage == null || targetRGB == replacementRGB) return;
+	private void runFloodFill(final int x, final int y, final int replacementRGB, final boolean isMagicWand) {
+	    final int tolerance = fillTolerance;
+	    final int metric = colorDistanceMetric;
+	    final long totalPixels = (long)scene.getWidth() * scene.getHeight();
+	    if (journal != null) {
+	        if (isMagicWand) {
+	            journal.selectWand(x, y, tolerance, metric);
+	        } else {
+	            journal.floodFill(x, y, replacementRGB, tolerance, metric);
+	        }
+	    }
 	    
-	    logDebugMessage("FloodFill Started.");
-	    LinkedList<Point> stack = new LinkedList<>();
-	    stack.push(new Point(x, y));
+	    if (totalPixels < BACKGROUND_RASTER_THRESHOLD) {
+	        long startNanos = System.nanoTime();
+	        SelectionMask mask = FloodFill.select(getComposite(), x, y, tolerance, metric, true, null);
+	        PerformanceStats.FLOOD_FILL.record(System.nanoTime() - startNanos);
+	        if (isMagicWand) {
+	            applyMagicWand(mask);
+	        } else {
+	            applyFloodFill(mask, replacementRGB);
+	        }
+	        return;
+	    }
 	    
-	    while (!stack.isEmpty()) {
-	        Point p = stack.pop();
-	        int px = p.x;
-	        int py = p.y;
-	        
-            String checkMsg = String.format("Checking pixel (%d, %d)", px, py);
-	        if (!isValid(px, py)) { logDebugMessage(checkMsg + ": Invalid bounds."); continue; }
-	        
-	        int currentRGB = currentImage.getRGB(px, py);
-	        
-	        if (currentRGB != targetRGB) { logDebugMessage(checkMsg + ": Color mismatch."); continue; }
+	    logDebugMessage("Large region: running fill in the background.");
+	    final BufferedImage target = getComposite();
+	    final AtomicLong progress = new AtomicLong();
+	    final Timer progressTimer = new Timer(100, new ActionListener() {
+	        @Override
+	        public void actionPerformed(ActionEvent e) {
+	            firePropertyChange(PROPERTY_RASTER_PROGRESS, -1, (int)Math.min(99, progress.get() * 100 / totalPixels));
+	        }
+	    });
+	    
+	    rasterWorker = new SwingWorker<Object, Void>() {
+	        @Override
+	        protected Object doInBackground() {
+	            long startNanos = System.nanoTime();
+	            SelectionMask result = FloodFill.select(target, x, y, tolerance, metric, true, progress);
+	            PerformanceStats.FLOOD_FILL.record(System.nanoTime() - startNanos);
+	            return result;
+	        }
 	        
-	        currentImage.setRGB(px, py, replacementRGB);
-	        logDebugMessage(String.format("Pixel (%d, %d) recolored.", px, py));
+	        @Override
+	        protected void done() {
+	            progressTimer.stop();
+	            rasterWorker = null;
+	            try {
+	                SelectionMask result = (SelectionMask)get();
+	                if (isMagicWand) {
+	                    applyMagicWand(result);
+	                } else {
+	                    applyFloodFill(result, replacementRGB);
+	                }
+	            } catch (InterruptedException | ExecutionException e) {
+	                logDebugMessage(() -> "Background fill FAILED: " + e.getMessage());
+	                e.printStackTrace();
+	            }
+	            firePropertyChange(PROPERTY_RASTER_PROGRESS, -1, 100);
+	        }
+	    };
+	    progressTimer.start();
+	    rasterWorker.execute();
+	}
+	
+	private void applyFloodFill(SelectionMask mask, int replacementRGB) {
+	    Rectangle filledBounds = fillBackground("채우기", mask, null, replacementRGB & 0xFFFFFF);
+        logDebugMessage(() -> "FloodFill Finished. Filled bounds: " + filledBounds);
+	    repaintDirtyRegion();
+	}
+	
+	private void runTiledFill(final int x, final int y, final int replacementRGB) {
+	    final TiledRaster raster = scene.getRaster();
+	    final int tolerance = fillTolerance;
+	    final int metric = colorDistanceMetric;
+	    final long totalPixels = (long)raster.getWidth() * raster.getHeight();
+	    final AtomicLong progress = new AtomicLong();
+	    logDebugMessage(() -> String.format("Starting tiled Flood Fill at (%d, %d). Tolerance: %d", x, y, tolerance));
+	    final Timer progressTimer = new Timer(100, new ActionListener() {
+	        @Override
+	        public void actionPerformed(ActionEvent e) {
+	            firePropertyChange(PROPERTY_RASTER_PROGRESS, -1, (int)Math.min(99, progress.get() * 100 / totalPixels));
+	            repaint();
+	        }
+	    });
+	    
+	    rasterWorker = new SwingWorker<Object, Void>() {
+	        @Override
+	        protected Object doInBackground() throws IOException {
+	            long startNanos = System.nanoTime();
+	            TiledRaster.Patch patch = raster.floodFill(x, y, replacementRGB, tolerance, metric, progress);
+	            PerformanceStats.FLOOD_FILL.record(System.nanoTime() - startNanos);
+	            return patch;
+	        }
 	        
-	        stack.push(new Point(px + 1, py));
-	        stack.push(new Point(px - 1, py));
-	        stack.push(new Point(px, py + 1));
-	        stack.push(new Point(px, py - 1));
+	        @Override
+	        protected void done() {
+	            progressTimer.stop();
+	            rasterWorker = null;
+	            try {
+	                TiledRaster.Patch patch = (TiledRaster.Patch)get();
+	                if (!patch.isEmpty() && scene.getRaster() == raster) {
+	                    history.push(UndoHistory.tiles("채우기", raster, patch));
+	                }
+	                logDebugMessage(() -> "Tiled fill touched " + patch.getTileCount() + " tiles; " + raster.getDirtyTileCount() + " edited, " + raster.getSpillCount() + " spilled.");
+	            } catch (InterruptedException | ExecutionException e) {
+	                logDebugMessage(() -> "Tiled fill FAILED: " + e.getMessage());
+	                e.printStackTrace();
+	            }
+	            firePropertyChange(PROPERTY_RASTER_PROGRESS, -1, 100);
+	            repaint();
+	        }
+	    };
+	    progressTimer.start();
+	    rasterWorker.execute();
+	}
+	
+	private Rectangle fillBackground(String name, SelectionMask mask, Rectangle rect, int rgb) {
+	    BufferedImage background = scene.getBackground();
+	    if (mask != null && (mask.getWidth() != background.getWidth() || mask.getHeight() != background.getHeight())) {
+	        logDebugMessage("Selection mask does not match the background; ignoring fill.");
+	        return null;
+	    }
+	    TileDelta tiles = (mask != null) ? TileDelta.capture(background, mask, isUndoCompressed) : TileDelta.capture(background, rect, isUndoCompressed);
+	    if (tiles.isEmpty()) {
+	        return null;
+	    }
+	    fillPixels(background, mask, rect, rgb);
+	    history.push(UndoHistory.raster(name, tiles));
+	    logDebugMessage(() -> "Recorded " + tiles.getTileCount() + " tiles (" + tiles.getMemoryUsage() + " bytes) for undo.");
+	    invalidateSceneRegion(tiles.getBounds());
+	    return tiles.getBounds();
+	}
+	
+	private static void fillPixels(BufferedImage image, SelectionMask mask, Rectangle rect, int rgb) {
+	    int[] pixels = FloodFill.getPixels(image);
+	    if (mask != null) {
+	        mask.fill(pixels, rgb);
+	        return;
+	    }
+	    int width = image.getWidth();
+	    int startX = Math.max(0, rect.x);
+	    int startY = Math.max(0, rect.y);
+	    int endX = Math.min(width, rect.x + rect.width);
+	    int endY = Math.min(image.getHeight(), rect.y + rect.height);
+	    for (int y = startY; y < endY && startX < endX; y++) {
+	        Arrays.fill(pixels, y * width + startX, y * width + endX, rgb);
 	    }
-        logDebugMessage("FloodFill Finished.");
+	}
+	
+	private void applyMagicWand(SelectionMask mask) {
+	    markDirty(getSelectionBounds(currentSelectionRect));
+	    selectedObjects.clear();
+	    currentSelectionRect = mask.getBounds();
+	    currentSelectionMask = (currentSelectionRect != null) ? mask : null;
+	    markDirty(getSelectionBounds(currentSelectionRect));
+	    repaintDirtyRegion();
+	    logDebugMessage(() -> "Magic Wand selection bounds: " + currentSelectionRect);
 	}
     
     private BufferedImage getDrawingAsImage() {
-        if (dim.width <= 0 || dim.height <= 0) return null;
+        if (scene.isTiled()) {
+            logDebugMessage("Tiled images cannot be flattened into a single image.");
+            return null;
+        }
         logDebugMessage("Generating final BufferedImage for save.");
         
-        BufferedImage outputImage = new BufferedImage(dim.width, dim.height, BufferedImage.TYPE_INT_RGB);
+        BufferedImage outputImage = new BufferedImage(scene.getWidth(), scene.getHeight(), BufferedImage.TYPE_INT_RGB);
         Graphics2D g2d = outputImage.createGraphics();
         
-        g2d.drawImage(offscreen, 0, 0, dim.width, dim.height, null);
-        
-        Graphics2D g2dBuffer = (Graphics2D)bufferGraphics;
-        g2dBuffer.setTransform(AffineTransform.getScaleInstance(1.0, 1.0));
-        for(AbstractDrawingObject obj : drawingList) {
-            obj.draw(g2dBuffer);
-        }
-        g2dBuffer.setTransform(AffineTransform.getScaleInstance(zoomLevel, zoomLevel));
-        
-        g2d.drawImage(offscreen, 0, 0, dim.width, dim.height, null);
+        g2d.drawImage(renderer.update(), 0, 0, null);
         g2d.dispose();
         
         return outputImage;
     }
     
-    private void performImageTransform(BufferedImage newImage) {
+    private void performImageTransform(BufferedImage newImage, int transform) {
         if (newImage == null) return;
         
         logDebugMessage("Starting Image Transform Update.");
         
-        offscreen = newImage;
-        dim = new Dimension(newImage.getWidth(), newImage.getHeight());
-        currentImage = newImage;
-        
-        bufferGraphics = offscreen.getGraphics();
-        
-        if (getParent() instanceof JFrame) {
-            JFrame parent = (JFrame)getParent();
-            parent.setSize(dim.width + 50, dim.height + 150);
-        }
-        
-        setSize(dim.width, dim.height);
-        setPreferredSize(dim);
-        
-        if (getParent() != null) {
-            getParent().revalidate();
-        }
-        repaint();
-        logDebugMessage("Image transformation complete. New dimensions: " + dim.width + "x" + dim.height);
+        history.push(UndoHistory.replaceBackground(RasterTransform.getDisplayName(transform), scene.getBackground(), newImage));
+        scene.setBackground(newImage);
+        currentSelectionMask = null;
+        Dimension dim = fitCanvasToScene();
+        logDebugMessage(() -> "Image transformation complete. New dimensions: " + dim.width + "x" + dim.height);
     }
     
     public void applyFlipHorizontal() {
-        if (currentImage == null) return;
-        logDebugMessage("Applying Flip Horizontal transformation.");
-        
-        int width = currentImage.getWidth();
-        int height = currentImage.getHeight();
-        BufferedImage newImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int rgb = currentImage.getRGB(x, y);
-                newImage.setRGB(width - 1 - x, y, rgb);
-            }
-        }
-        performImageTransform(newImage);
+        applyTransform(RasterTransform.FLIP_HORIZONTAL);
     }
     
     public void applyFlipVertical() {
-        if (currentImage == null) return;
-        logDebugMessage("Applying Flip Vertical transformation.");
-        
-        int width = currentImage.getWidth();
-        int height = currentImage.getHeight();
-        BufferedImage newImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int rgb = currentImage.getRGB(x, y);
-                newImage.setRGB(x, height - 1 - y, rgb);
-            }
-        }
-        performImageTransform(newImage);
+        applyTransform(RasterTransform.FLIP_VERTICAL);
     }
     
     public void applyRotate90Degrees(boolean clockwise) {
-        if (currentImage == null) return;
-        logDebugMessage("Applying Rotate 90 Degrees (Clockwise: " + clockwise + ") transformation.");
-        
-        int width = currentImage.getWidth();
-        int height = currentImage.getHeight();
+        applyTransform(clockwise ? RasterTransform.ROTATE_CLOCKWISE : RasterTransform.ROTATE_COUNTER_CLOCKWISE);
+    }
+    
+    private static BufferedImage timeTransform(BufferedImage source, int transform) {
+        long startNanos = System.nanoTime();
+        BufferedImage result = RasterTransform.apply(source, transform, true);
+        PerformanceStats.TRANSFORM.record(System.nanoTime() - startNanos);
+        return result;
+    }
+    
+    private void applyTransform(final int transform) {
+        if (!isCanvasSized) return;
+        if (rasterWorker != null) {
+            logDebugMessage("Raster operation already running; ignoring transform.");
+            return;
+        }
+        logDebugMessage(() -> "Applying " + RasterTransform.getName(transform) + " transformation.");
+        if (scene.isTiled()) {
+            long startNanos = System.nanoTime();
+            scene.getRaster().transform(transform);
+            PerformanceStats.TRANSFORM.record(System.nanoTime() - startNanos);
+            history.push(UndoHistory.orient(RasterTransform.getDisplayName(transform), scene.getRaster(), transform));
+            currentSelectionRect = null;
+            currentSelectionMask = null;
+            selectedObjects.clear();
+            fitCanvasToScene();
+            return;
+        }
+        if (journal != null) {
+            journal.transform(transform);
+        }
         
-        BufferedImage newImage = new BufferedImage(height, width, BufferedImage.TYPE_INT_RGB);
+        if ((long)scene.getWidth() * scene.getHeight() < BACKGROUND_RASTER_THRESHOLD) {
+            performImageTransform(timeTransform(getComposite(), transform), transform);
+            return;
+        }
         
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int rgb = currentImage.getRGB(x, y);
-                
-                if (clockwise) {
-                    newImage.setRGB(height - 1 - y, x, rgb);
-                } else {
-                    newImage.setRGB(y, width - 1 - x, rgb);
+        logDebugMessage("Large image: running transformation in the background.");
+        final BufferedImage source = getComposite();
+        rasterWorker = new SwingWorker<Object, Void>() {
+            @Override
+            protected Object doInBackground() {
+                return timeTransform(source, transform);
+            }
+            
+            @Override
+            protected void done() {
+                rasterWorker = null;
+                try {
+                    performImageTransform((BufferedImage)get(), transform);
+                } catch (InterruptedException | ExecutionException e) {
+                    logDebugMessage(() -> "Background transformation FAILED: " + e.getMessage());
+                    e.printStackTrace();
                 }
+                firePropertyChange(PROPERTY_RASTER_PROGRESS, -1, 100);
             }
-        }
-        performImageTransform(newImage);
+        };
+        rasterWorker.execute();
     }
 	
 	public void setDrawMode(int drawMode) {
 		this.drawMode = drawMode;
-        logDebugMessage("Draw Mode set to: " + drawMode);
+        logDebugMessage(() -> "Draw Mode set to: " + drawMode);
 	}
 	
 	public void setCurrentColor(Color color) {
 		this.currentColor = color;
-        logDebugMessage("Line Color set to: " + color.getRGB());
+        logDebugMessage(() -> "Line Color set to: " + color.getRGB());
 	}
 	
 	public void setCurrentFillColor(Color color) {
 		this.currentFillColor = color;
-        logDebugMessage("Fill Color set to: " + color.getRGB());
+        logDebugMessage(() -> "Fill Color set to: " + color.getRGB());
 	}
 	
 	public void setCurrentStroke(int stroke) {
 		this.currentStroke = stroke;
-        logDebugMessage("Stroke set to: " + stroke);
+        logDebugMessage(() -> "Stroke set to: " + stroke);
+	}
+	
+	public void setFillTolerance(int tolerance) {
+	    this.fillTolerance = Math.max(0, Math.min(255, tolerance));
+	    logDebugMessage(() -> "Fill Tolerance set to: " + this.fillTolerance);
+	}
+	
+	public void setPerceptualColorDistance(boolean isPerceptual) {
+	    this.colorDistanceMetric = isPerceptual ? FloodFill.PERCEPTUAL_DISTANCE : FloodFill.RGB_DISTANCE;
+	    logDebugMessage(() -> "Perceptual color distance: " + isPerceptual);
+	}
+	
+	public void setSaveCompressed(boolean isCompressed) {
+	    this.isSaveCompressed = isCompressed;
+	    logDebugMessage(() -> "Save compression: " + isCompressed);
 	}
 	
 	public void setCurrentFill(boolean isFilled) {
         this.currentFill = isFilled;
-        logDebugMessage("Fill Toggled to: " + isFilled);
+        logDebugMessage(() -> "Fill Toggled to: " + isFilled);
     }
     
     public void setEraserSize(int size) {
         this.currentEraserSize = size;
-        logDebugMessage("Eraser Size set to: " + size);
+        logDebugMessage(() -> "Eraser Size set to: " + size);
     }
     
     public void setCurrentFontSize(int size) {
         this.currentFontSize = size;
-        logDebugMessage("Font Size set to: " + size);
+        logDebugMessage(() -> "Font Size set to: " + size);
     }
     
     public void setZoomLevel(float zoomLevel) {
-        this.zoomLevel = zoomLevel;
-        logDebugMessage("Zoom Level set to: " + zoomLevel);
+        float previous = this.zoomLevel;
+        this.zoomLevel = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoomLevel));
+        logDebugMessage(() -> "Zoom Level set to: " + this.zoomLevel);
+        if (isCanvasSized) {
+            Dimension size = getZoomedSize();
+            JViewport viewport = getViewport();
+            setPreferredSize(size);
+            if (viewport != null) {
+                setSize(Math.max(size.width, viewport.getExtentSize().width), Math.max(size.height, viewport.getExtentSize().height));
+            }
+            revalidate();
+        }
         repaint();
+        firePropertyChange(PROPERTY_ZOOM, previous, this.zoomLevel);
+    }
+    
+    public float getZoomLevel() {
+        return zoomLevel;
+    }
+    
+    public void zoomAt(float newZoomLevel, Point anchor) {
+        JViewport viewport = getViewport();
+        Rectangle visible = getVisibleRect();
+        Point screenAnchor = (anchor != null) ? anchor : new Point(visible.x + visible.width / 2, visible.y + visible.height / 2);
+        double canvasX = screenAnchor.x / zoomLevel;
+        double canvasY = screenAnchor.y / zoomLevel;
+        int offsetX = screenAnchor.x - visible.x;
+        int offsetY = screenAnchor.y - visible.y;
+        setZoomLevel(newZoomLevel);
+        if (viewport != null) {
+            scrollViewTo((int)Math.round(canvasX * zoomLevel) - offsetX, (int)Math.round(canvasY * zoomLevel) - offsetY);
+        }
+    }
+    
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        if (e.isControlDown() || e.isMetaDown()) {
+            zoomAt((float)(zoomLevel * Math.pow(WHEEL_ZOOM_FACTOR, -e.getPreciseWheelRotation())), e.getPoint());
+            e.consume();
+            return;
+        }
+        JScrollPane scrollPane = (JScrollPane)SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+        if (scrollPane != null) {
+            scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, scrollPane));
+        }
+    }
+    
+    private JViewport getViewport() {
+        return (getParent() instanceof JViewport) ? (JViewport)getParent() : null;
+    }
+    
+    private void scrollViewTo(int x, int y) {
+        JViewport viewport = getViewport();
+        if (viewport == null) return;
+        Dimension extent = viewport.getExtentSize();
+        int maxX = Math.max(0, getWidth() - extent.width);
+        int maxY = Math.max(0, getHeight() - extent.height);
+        viewport.setViewPosition(new Point(Math.max(0, Math.min(x, maxX)), Math.max(0, Math.min(y, maxY))));
+    }
+    
+    private Dimension getZoomedSize() {
+        return new Dimension((int)Math.ceil(scene.getWidth() * zoomLevel), (int)Math.ceil(scene.getHeight() * zoomLevel));
     }
     
     public void setDebugMode(boolean isDebug) {
         this.isDebugMode = isDebug;
-        logDebugMessage("Debug Mode toggled to: " + isDebug);
+        if (getViewport() != null) {
+            getViewport().setScrollMode(isDebug ? JViewport.SIMPLE_SCROLL_MODE : JViewport.BLIT_SCROLL_MODE);
+        }
+        DebugLog.setEnabled(isDebug);
+        repaint();
+        logDebugMessage(() -> "Debug Mode toggled to: " + isDebug);
     }
 	
 	public void clearAll() {
-		mouseList.clear(); 
-		mouseColorList.clear(); 
+		TiledRaster previousRaster = scene.getRaster();
+		BufferedImage previousBackground = scene.getBackground();
+		PointStore previousPoints = scene.getPoints().copy();
+		List<AbstractDrawingObject> previousObjects = new ArrayList<>(scene.getObjects());
+		scene.clearDrawings();
+		if (journal != null) {
+		    journal.clear();
+		}
+		if (previousRaster != null) {
+		    setSize(new Dimension(DEFAULT_CANVAS_SIZE));
+		}
 		initBufferd(); 
-		drawingList.clear();
+		if (previousRaster != null) {
+		    closeTiledImage(previousRaster, true);
+		    fitCanvasToScene();
+		} else {
+		    history.push(UndoHistory.replaceScene("새로 만들기", previousBackground, scene.getBackground(), previousPoints, previousObjects));
+		}
         selectedObjects.clear();
         currentSelectionRect = null;
+        currentSelectionMask = null;
 		repaint();
         logDebugMessage("All drawing lists cleared.");
 	}
 	
+	public String undo() {
+	    return applyHistory(true);
+	}
+	
+	public String redo() {
+	    return applyHistory(false);
+	}
+	
+	public boolean canUndo() {
+	    return history.canUndo();
+	}
+	
+	public boolean canRedo() {
+	    return history.canRedo();
+	}
+	
+	public UndoHistory getUndoHistory() {
+	    return history;
+	}
+	
+	public void setUndoMemoryBudget(long bytes) {
+	    history.setMemoryBudget(bytes);
+	    logDebugMessage(() -> "Undo memory budget set to: " + bytes + " bytes (" + history.getUndoCount() + " entries kept).");
+	}
+	
+	public void setUndoCompressed(boolean isCompressed) {
+	    this.isUndoCompressed = isCompressed;
+	    logDebugMessage(() -> "Undo tile compression: " + isCompressed);
+	}
+	
+	private String applyHistory(boolean isUndo) {
+	    if (rasterWorker != null || textField != null) {
+	        logDebugMessage("Raster operation or text entry in progress; ignoring undo/redo.");
+	        return null;
+	    }
+	    BufferedImage background = scene.getBackground();
+	    int width = scene.getWidth();
+	    int height = scene.getHeight();
+	    boolean isCacheCurrent = renderer.isObjectCacheCurrent() && renderer.isPointCacheCurrent();
+	    long startNanos = System.nanoTime();
+	    UndoHistory.Edit edit = isUndo ? history.undo(scene, journal) : history.redo(scene, journal);
+	    if (edit == null) {
+	        return null;
+	    }
+	    PerformanceStats.UNDO.record(System.nanoTime() - startNanos);
+	    logDebugMessage(() -> (isUndo ? "Undo: " : "Redo: ") + edit.getName() + " (history " + history.getMemoryUsage() + " / " + history.getMemoryBudget() + " bytes)");
+	    
+	    markDirty(getSelectionBounds(currentSelectionRect));
+	    selectedObjects.clear();
+	    currentSelectionRect = null;
+	    currentSelectionMask = null;
+	    if (scene.getBackground() != background || scene.getWidth() != width || scene.getHeight() != height) {
+	        currentImage = null;
+	        fitCanvasToScene();
+	    } else if (isCacheCurrent && edit.getRegion() != null) {
+	        renderer.markObjectsCommitted();
+	        renderer.markPointsCommitted();
+	        invalidateSceneRegion(edit.getRegion());
+	        repaintDirtyRegion();
+	    } else {
+	        renderer.invalidate();
+	        repaint();
+	    }
+	    return edit.getName();
+	}
+	
 	public void deleteSelection() {
-	    drawingList.removeAll(selectedObjects); 
+	    if (currentSelectionMask != null) {
+	        if (journal != null) {
+	            journal.fillSelection(Color.white.getRGB() & 0xFFFFFF);
+	        }
+	        fillBackground("선택 영역 지우기", currentSelectionMask, null, Color.white.getRGB() & 0xFFFFFF);
+	        markDirty(getSelectionBounds(currentSelectionRect));
+	        currentSelectionMask = null;
+	        currentSelectionRect = null;
+	        repaintDirtyRegion();
+	        logDebugMessage("Cleared pixels of the magic wand selection.");
+	        return;
+	    }
+	    invalidateSceneRegion(getObjectsBounds(selectedObjects));
+	    markDirty(getSelectionBounds(currentSelectionRect));
+	    boolean isCacheCurrent = renderer.isObjectCacheCurrent();
+	    if (!selectedObjects.isEmpty()) {
+	        int[] indices = scene.indicesOf(selectedObjects);
+	        history.push(UndoHistory.delete(indices, scene.getObjectsAt(indices)));
+	        if (journal != null) {
+	            journal.delete(indices);
+	        }
+	    }
+	    scene.removeObjects(selectedObjects);
 	    selectedObjects.clear();
 	    currentSelectionRect = null;
-	    repaint();
+	    if (isCacheCurrent) {
+	        renderer.markObjectsCommitted();
+	        repaintDirtyRegion();
+	    } else {
+	        renderer.invalidate();
+	        repaint();
+	    }
         logDebugMessage("Deleted selected objects. Repaint requested.");
 	}
 	
 	public void fillSelectedArea(Color color) {
-	    if (currentSelectionRect == null || currentImage == null) {
-	        logDebugMessage("Fill Selection Failed: No area selected or image is null.");
+	    if (currentSelectionRect == null || rasterWorker != null) {
+	        logDebugMessage("Fill Selection Failed: No area selected or raster operation in progress.");
 	        return;
 	    }
 	    
-	    int fillRGB = color.getRGB();
-        
-        int startX = currentSelectionRect.x;
-        int startY = currentSelectionRect.y;
-        int endX = currentSelectionRect.x + currentSelectionRect.width;
-        int endY = currentSelectionRect.y + currentSelectionRect.height;
-        
-        logDebugMessage(String.format("Starting Fill Selection (%d, %d) to (%d, %d)", startX, startY, endX, endY));
-
-	    for (int y = startY; y < endY; y++) {
-	        for (int x = startX; x < endX; x++) {
-	            if (isValid(x, y)) {
-	                currentImage.setRGB(x, y, fillRGB);
-	            }
+	    int fillRGB = color.getRGB() & 0xFFFFFF;
+	    if (scene.isTiled()) {
+	        fillTiledRect(currentSelectionRect, fillRGB);
+	        markDirty(getSelectionBounds(currentSelectionRect));
+	        repaintDirtyRegion();
+	        return;
+	    }
+	    if (journal != null) {
+	        if (currentSelectionMask != null) {
+	            journal.fillSelection(fillRGB);
+	        } else {
+	            journal.fillRect(currentSelectionRect, fillRGB);
 	        }
 	    }
 	    
-	    offscreen = currentImage;
-	    repaint();
+	    logDebugMessage(() -> (currentSelectionMask != null) ? "Starting Fill Selection with magic wand mask." : "Starting Fill Selection of " + currentSelectionRect);
+	    fillBackground("선택 영역 채우기", currentSelectionMask, currentSelectionRect, fillRGB);
+	    markDirty(getSelectionBounds(currentSelectionRect));
+	    repaintDirtyRegion();
 	    logDebugMessage("Fill Selection Completed.");
 	}
 	
+	private void fillTiledRect(Rectangle rect, int rgb) {
+	    TiledRaster raster = scene.getRaster();
+	    long startNanos = System.nanoTime();
+	    try {
+	        TiledRaster.Patch patch = raster.fillRect(rect, rgb);
+	        if (!patch.isEmpty()) {
+	            history.push(UndoHistory.tiles("선택 영역 채우기", raster, patch));
+	        }
+	        logDebugMessage(() -> "Filled " + patch.getTileCount() + " tiles of " + rect + " in " + (System.nanoTime() - startNanos) / 1000 + " us.");
+	    } catch (IOException e) {
+	        logDebugMessage(() -> "Tiled fill FAILED: " + e.getMessage());
+	        e.printStackTrace();
+	    }
+	}
+	
 	public void save(String filename) {
 		File file = new File(filename);
-        logDebugMessage("Starting SAVE operation to: " + filename);
-        
-		try (
-			FileOutputStream fos = new FileOutputStream(file); 
-			DataOutputStream dos = new DataOutputStream(fos);
-		) {
-			
-            int mouseCount = mouseList.size();
-			dos.writeInt(mouseCount);
-            logDebugMessage("Writing " + mouseCount + " Point objects.");
-			for(Point point : mouseList) {
-                int px = point.x;
-                int py = point.y;
-				dos.writeInt(px);
-				dos.writeInt(py);
-                logDebugMessage(String.format("Writing point (%d, %d)", px, py));
-			}
-			
-            int drawCount = drawingList.size();
-			dos.writeInt(drawCount);
-            logDebugMessage("Writing " + drawCount + " DrawingObjects.");
-			for(AbstractDrawingObject obj : drawingList) {
-				obj.saveToStream(dos);
-                logDebugMessage("Saved object mode: " + obj.drawMode);
+		if (scene.isTiled()) {
+		    logDebugMessage("Tiled images cannot be saved as a scene file.");
+		    return;
+		}
+        long startNanos = System.nanoTime();
+        logDebugMessage(() -> "Starting SAVE operation to: " + filename);
+		try {
+			if (isJournalDocument(file)) {
+			    journal.commit();
+			    journal.sync();
+			} else {
+			    SceneFile.write(scene, file, isSaveCompressed);
 			}
-            
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-        logDebugMessage("SAVE operation completed.");
+        PerformanceStats.SAVE.record(System.nanoTime() - startNanos);
+        logDebugMessage(() -> "SAVE operation completed: " + scene.getPoints().size() + " points, " + scene.getObjectCount() + " objects, " + file.length() + " bytes.");
 	}
     
 	public void open(String filename) {
 		File file = new File(filename);
-        logDebugMessage("Starting OPEN operation from: " + filename);
-
-		try (
-			FileInputStream fis = new FileInputStream(file);
-			DataInputStream dis = new DataInputStream(fis);
-		) {
-			
-			mouseList.clear();
-			mouseColorList.clear(); 
-			int pointSize = dis.readInt();
-            logDebugMessage("Reading " + pointSize + " Point objects.");
-
-			for(int i=0; i < pointSize; i++) {
-				int x = dis.readInt();
-				int y = dis.readInt();
-				mouseList.add(new Point(x, y));
-                
-                mouseColorList.add(Color.BLACK); 
-			}
-			
-			drawingList.clear();
-			int drawingSize = dis.readInt();
-            logDebugMessage("Reading " + drawingSize + " DrawingObjects.");
-
-			for(int i=0; i < drawingSize; i++) {
-				int drawMode = dis.readInt();
-                AbstractDrawingObject obj = null;
-                
-                switch(drawMode) {
-                    case Screen.LINE:
-                        obj = DrawLine.loadFromStream(dis);
-                        break;
-                    case Screen.CIRCLE:
-                        obj = DrawCircle.loadFromStream(dis);
-                        break;
-                    case Screen.RECTANGLE:
-                        obj = DrawRectangle.loadFromStream(dis);
-                        break;
-                    case Screen.TEXT:
-                        obj = DrawText.loadFromStream(dis);
-                        break;
-                }
-                
-                if(obj != null) {
-                    if (obj.isValid()) {
-				        drawingList.add(obj);
-                        logDebugMessage("Loaded object mode: " + drawMode + " and validated.");
-                    } else {
-                        logDebugMessage("Warning: Loaded object mode " + drawMode + " failed validation.");
-                    }
-                } else {
-                    logDebugMessage("Warning: Unknown drawMode encountered: " + drawMode);
-                }
-			}
-			
+        long startNanos = System.nanoTime();
+        logDebugMessage(() -> "Starting OPEN operation from: " + filename);
+		try {
+			Scene loaded = SceneFile.load(file, scene.getBackground());
+			OperationJournal.replayDocument(file, loaded, null, null);
+			publishScene(loaded);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-        logDebugMessage("OPEN operation completed.");
+        PerformanceStats.OPEN.record(System.nanoTime() - startNanos);
+        logDebugMessage(() -> "OPEN operation completed: " + scene.getPoints().size() + " points, " + scene.getObjectCount() + " objects.");
+	}
+    
+	public void saveInBackground(String filename, Consumer<FileTask.Outcome> onDone) {
+	    final File file = new File(filename).getAbsoluteFile();
+	    if (scene.isTiled()) {
+	        logDebugMessage("Tiled images cannot be saved as a scene file.");
+	        if (onDone != null) {
+	            onDone.accept(FileTask.Outcome.FAILED);
+	        }
+	        return;
+	    }
+	    if (isJournalDocument(file)) {
+	        commitInBackground(file, onDone);
+	    } else {
+	        writeSnapshotInBackground("save", file, onDone);
+	    }
+	}
+	
+	private boolean isJournalDocument(File file) {
+	    return journal != null && file.getAbsoluteFile().equals(documentFile) && journal.getBaseLength() == file.length();
+	}
+	
+	private void commitInBackground(final File file, Consumer<FileTask.Outcome> onDone) {
+	    final OperationJournal committed = journal;
+	    committed.commit();
+	    logDebugMessage(() -> "Committing journal of " + file.getName() + " (" + committed.getCompactableBytes() + " bytes since last snapshot).");
+	    startFileTask(new FileTask<Void>("save", file, 1) {
+	        @Override
+	        protected Void perform() throws IOException {
+	            long startNanos = System.nanoTime();
+	            committed.sync();
+	            PerformanceStats.SAVE.record(System.nanoTime() - startNanos);
+	            return null;
+	        }
+	    }, ignored -> {
+	        if (journal == committed && committed.getCompactableBytes() > JOURNAL_COMPACTION_BYTES) {
+	            logDebugMessage("Journal exceeds compaction threshold; writing a new snapshot.");
+	            writeSnapshotInBackground("compact", file, null);
+	        }
+	    }, onDone);
+	}
+	
+	private void writeSnapshotInBackground(String name, final File file, Consumer<FileTask.Outcome> onDone) {
+	    final SceneSnapshot snapshot = scene.snapshot();
+	    final boolean compress = isSaveCompressed;
+	    final OperationJournal source = journal;
+	    final long mark = (source != null) ? source.position() : 0;
+	    final BufferedImage background = (source != null) ? copyImage(scene.getBackground()) : null;
+	    logDebugMessage(() -> "Starting background " + name + " to: " + file.getPath());
+	    startFileTask(new FileTask<byte[]>(name, file, snapshot.getPoints().size() + snapshot.getObjectCount()) {
+	        @Override
+	        protected byte[] perform() throws IOException {
+	            long startNanos = System.nanoTime();
+	            File temp = FileTask.createTempFile(file);
+	            try {
+	                SceneFile.write(snapshot, temp, compress, progress, this::isCancelled);
+	                FileTask.replace(temp, file);
+	            } finally {
+	                Files.deleteIfExists(temp.toPath());
+	            }
+	            PerformanceStats.SAVE.record(System.nanoTime() - startNanos);
+	            return (background != null) ? OperationJournal.encodeImage(background) : null;
+	        }
+	    }, encodedBackground -> {
+	        if (source != null && source == journal) {
+	            try {
+	                attachJournal(file, source.rebase(OperationJournal.getJournalFile(file), file.length(), encodedBackground, mark));
+	            } catch (IOException e) {
+	                logDebugMessage(() -> "Journal rebase FAILED: " + e.getMessage());
+	                e.printStackTrace();
+	            }
+	        }
+	    }, onDone);
+	}
+	
+	public void openInBackground(String filename, Consumer<FileTask.Outcome> onDone) {
+	    final File file = new File(filename).getAbsoluteFile();
+	    final BufferedImage background = copyImage(scene.getBackground());
+	    final boolean isJournaled = journal != null || scene.isTiled();
+	    final AtomicReference<OperationJournal> opened = new AtomicReference<>();
+	    logDebugMessage(() -> "Starting background OPEN operation from: " + filename);
+	    startFileTask(new FileTask<Scene>("open", file, file.length() + OperationJournal.getJournalFile(file).length()) {
+	        @Override
+	        protected Scene perform() throws IOException {
+	            long startNanos = System.nanoTime();
+	            Scene loaded = SceneFile.load(file, background, progress, this::isCancelled);
+	            OperationJournal.Replay replay = OperationJournal.replayDocument(file, loaded, progress, this::isCancelled);
+	            if (replay != null && replay.getUncommitted() > 0) {
+	                DebugLog.log(() -> "Recovered " + replay.getUncommitted() + " unsaved operations for " + file.getName());
+	            }
+	            if (isJournaled) {
+	                File journalFile = OperationJournal.getJournalFile(file);
+	                opened.set((replay != null)
+	                    ? OperationJournal.open(journalFile)
+	                    : OperationJournal.create(journalFile, file.length(), OperationJournal.encodeImage(loaded.getBackground())));
+	            }
+	            PerformanceStats.OPEN.record(System.nanoTime() - startNanos);
+	            return loaded;
+	        }
+	    }, loaded -> {
+	        publishScene(loaded);
+	        if (opened.get() != null) {
+	            attachJournal(file, opened.getAndSet(null));
+	        }
+	        logDebugMessage(() -> "OPEN operation completed: " + scene.getPoints().size() + " points, " + scene.getObjectCount() + " objects.");
+	    }, outcome -> {
+	        closeJournal(opened.getAndSet(null), false);
+	        if (onDone != null) {
+	            onDone.accept(outcome);
+	        }
+	    });
+	}
+	
+	public boolean startSession(Consumer<FileTask.Outcome> onRecovered) {
+	    String crashedDocument = OperationJournal.readSessionMarker();
+	    if (crashedDocument != null && !crashedDocument.isEmpty() && new File(crashedDocument).isFile()) {
+	        logDebugMessage(() -> "Previous session did not exit cleanly; reopening " + crashedDocument);
+	        attachJournal(null, createSessionJournal());
+	        openInBackground(crashedDocument, onRecovered);
+	        return true;
+	    }
+	    final File sessionJournal = OperationJournal.getSessionJournal();
+	    if (crashedDocument != null && sessionJournal.isFile()) {
+	        logDebugMessage("Previous session did not exit cleanly; replaying the session journal.");
+	        recoverInBackground(sessionJournal, onRecovered);
+	        return true;
+	    }
+	    attachJournal(null, createSessionJournal());
+	    return false;
+	}
+	
+	public void endSession() {
+	    if (journal != null) {
+	        closeJournal(journal, documentFile != null);
+	        if (documentFile == null) {
+	            try {
+	                Files.deleteIfExists(journal.getFile().toPath());
+	            } catch (IOException e) {
+	                e.printStackTrace();
+	            }
+	        }
+	        journal = null;
+	    }
+	    OperationJournal.clearSessionMarker();
+	}
+	
+	private void recoverInBackground(final File sessionJournal, final Consumer<FileTask.Outcome> onDone) {
+	    startFileTask(new FileTask<Scene>("recover", sessionJournal, sessionJournal.length()) {
+	        @Override
+	        protected Scene perform() throws IOException {
+	            Scene recovered = new Scene(1, 1);
+	            OperationJournal.Replay replay = OperationJournal.replay(sessionJournal, recovered, OperationJournal.NO_BASE, progress, this::isCancelled);
+	            if (replay == null) {
+	                throw new IOException("Session journal is not usable: " + sessionJournal.getName());
+	            }
+	            return recovered;
+	        }
+	    }, recovered -> {
+	        publishScene(recovered);
+	        try {
+	            attachJournal(null, OperationJournal.open(sessionJournal));
+	        } catch (IOException e) {
+	            e.printStackTrace();
+	        }
+	    }, outcome -> {
+	        if (journal == null) {
+	            attachJournal(null, createSessionJournal());
+	        }
+	        if (onDone != null) {
+	            onDone.accept(outcome);
+	        }
+	    });
+	}
+	
+	private OperationJournal createSessionJournal() {
+	    try {
+	        return OperationJournal.create(OperationJournal.getSessionJournal(), OperationJournal.NO_BASE, OperationJournal.encodeImage(scene.getBackground()));
+	    } catch (IOException e) {
+	        logDebugMessage(() -> "Session journal unavailable: " + e.getMessage());
+	        e.printStackTrace();
+	        return null;
+	    }
+	}
+	
+	private void attachJournal(File document, OperationJournal next) {
+	    OperationJournal previous = journal;
+	    journal = next;
+	    documentFile = document;
+	    if (previous != null && previous != next) {
+	        boolean isReplaced = next != null && previous.getFile().equals(next.getFile());
+	        boolean isSession = previous.getFile().equals(OperationJournal.getSessionJournal());
+	        closeJournal(previous, !isReplaced && !isSession);
+	        if (isSession && !isReplaced) {
+	            try {
+	                Files.deleteIfExists(previous.getFile().toPath());
+	            } catch (IOException e) {
+	                e.printStackTrace();
+	            }
+	        }
+	    }
+	    if (next != null) {
+	        OperationJournal.writeSessionMarker(document);
+	        logDebugMessage(() -> "Journaling to " + next.getFile().getPath());
+	    }
+	}
+	
+	private void closeJournal(OperationJournal closing, boolean discardUncommitted) {
+	    if (closing == null) return;
+	    try {
+	        closing.close(discardUncommitted);
+	    } catch (IOException e) {
+	        e.printStackTrace();
+	    }
+	}
+	
+	private static BufferedImage copyImage(BufferedImage image) {
+	    BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+	    Graphics2D g2d = copy.createGraphics();
+	    g2d.drawImage(image, 0, 0, null);
+	    g2d.dispose();
+	    return copy;
+	}
+	
+	public void saveImageInBackground(File file, String format, Consumer<FileTask.Outcome> onDone) {
+	    final BufferedImage image = getDrawingAsImage();
+	    if (image == null) {
+	        if (onDone != null) {
+	            onDone.accept(FileTask.Outcome.FAILED);
+	        }
+	        return;
+	    }
+	    logDebugMessage(() -> "Starting background image export to: " + file.getAbsolutePath());
+	    startFileTask(new FileTask<Void>("saveImage", file, 100) {
+	        @Override
+	        protected Void perform() throws IOException {
+	            long startNanos = System.nanoTime();
+	            File temp = FileTask.createTempFile(file);
+	            try {
+	                ImageFiles.write(image, format, temp, progress, this::isCancelled);
+	                FileTask.replace(temp, file);
+	            } finally {
+	                Files.deleteIfExists(temp.toPath());
+	            }
+	            PerformanceStats.SAVE_IMAGE.record(System.nanoTime() - startNanos);
+	            return null;
+	        }
+	    }, null, onDone);
+	}
+	
+	public void loadImageInBackground(File file, Consumer<FileTask.Outcome> onDone) {
+	    final boolean isJournaled = journal != null;
+	    final long memoryCap = tileMemoryCap;
+	    final AtomicReference<byte[]> encoded = new AtomicReference<>();
+	    final AtomicReference<TiledRaster> tiled = new AtomicReference<>();
+	    logDebugMessage(() -> "Starting background image load from: " + file.getAbsolutePath());
+	    startFileTask(new FileTask<BufferedImage>("loadImage", file, 100) {
+	        @Override
+	        protected BufferedImage perform() throws IOException {
+	            long startNanos = System.nanoTime();
+	            if (isTiledImage(file)) {
+	                tiled.set(TiledRaster.open(file, memoryCap));
+	                PerformanceStats.LOAD_IMAGE.record(System.nanoTime() - startNanos);
+	                return null;
+	            }
+	            BufferedImage loadedImage = toIntRGBImage(ImageFiles.read(file, progress, this::isCancelled));
+	            if (loadedImage == null) {
+	                throw new IOException("No image reader for " + file.getName());
+	            }
+	            if (isJournaled) {
+	                encoded.set(OperationJournal.encodeImage(loadedImage));
+	            }
+	            PerformanceStats.LOAD_IMAGE.record(System.nanoTime() - startNanos);
+	            return loadedImage;
+	        }
+	    }, loadedImage -> {
+	        if (tiled.get() != null) {
+	            applyTiledImage(tiled.getAndSet(null));
+	        } else {
+	            applyLoadedImage(loadedImage, encoded.get());
+	        }
+	    }, outcome -> {
+	        TiledRaster unused = tiled.getAndSet(null);
+	        if (unused != null) {
+	            unused.close();
+	        }
+	        if (onDone != null) {
+	            onDone.accept(outcome);
+	        }
+	    });
+	}
+	
+	private static boolean isTiledImage(File file) throws IOException {
+	    Dimension size = TiledRaster.readSize(file);
+	    if (size == null) {
+	        return false;
+	    }
+	    long pixels = (long)size.width * size.height;
+	    return pixels >= TILED_IMAGE_PIXELS || 4 * pixels > Runtime.getRuntime().maxMemory() / 4;
+	}
+	
+	private void applyTiledImage(TiledRaster raster) {
+	    TiledRaster previous = scene.getRaster();
+	    scene.clearDrawings();
+	    scene.setRaster(raster);
+	    if (previous != null) {
+	        previous.close();
+	    }
+	    raster.setTileListener(region -> SwingUtilities.invokeLater(() -> repaint(toScreenRect(region))));
+	    history.clear();
+	    if (journal != null) {
+	        logDebugMessage("Suspending the session journal while a tiled image is open.");
+	        attachJournal(null, null);
+	    }
+	    currentImage = null;
+	    selectedObjects.clear();
+	    currentSelectionRect = null;
+	    currentSelectionMask = null;
+	    Dimension dim = fitCanvasToScene();
+	    logDebugMessage(() -> "Tiled image opened: " + dim.width + "x" + dim.height + ", tile cache cap " + raster.getMemoryCap() + " bytes.");
+	}
+	
+	private void closeTiledImage(TiledRaster previous, boolean isJournalResumed) {
+	    previous.close();
+	    history.clear();
+	    if (isJournalResumed && journal == null) {
+	        logDebugMessage("Resuming the session journal.");
+	        attachJournal(null, createSessionJournal());
+	    }
+	}
+	
+	public void setTileMemoryCap(long bytes) {
+	    this.tileMemoryCap = bytes;
+	    if (scene.isTiled()) {
+	        scene.getRaster().setMemoryCap(bytes);
+	    }
+	    logDebugMessage(() -> "Tile cache memory cap set to: " + bytes + " bytes.");
+	}
+	
+	public long getTileMemoryCap() {
+	    return tileMemoryCap;
+	}
+	
+	public boolean hasFileTasks() {
+	    return !fileTasks.isEmpty();
+	}
+	
+	public int getFileTaskPercent() {
+	    if (fileTasks.isEmpty()) return 100;
+	    int total = 0;
+	    for (FileTask<?> task : fileTasks) {
+	        total += task.getPercent();
+	    }
+	    return total / fileTasks.size();
+	}
+	
+	public void cancelFileTasks() {
+	    for (FileTask<?> task : new ArrayList<>(fileTasks)) {
+	        logDebugMessage(() -> "Cancelling background " + task.getName() + " of " + task.getFile().getName());
+	        task.cancel(true);
+	    }
+	}
+	
+	private <T> void startFileTask(final FileTask<T> task, final Consumer<T> onSuccess, final Consumer<FileTask.Outcome> onDone) {
+	    task.addPropertyChangeListener(new PropertyChangeListener() {
+	        @Override
+	        public void propertyChange(PropertyChangeEvent evt) {
+	            if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+	                finishFileTask(task, onSuccess, onDone);
+	            }
+	        }
+	    });
+	    fileTasks.add(task);
+	    if (fileProgressTimer == null) {
+	        fileProgressTimer = new Timer(100, new ActionListener() {
+	            @Override
+	            public void actionPerformed(ActionEvent e) {
+	                firePropertyChange(PROPERTY_FILE_PROGRESS, -1, getFileTaskPercent());
+	            }
+	        });
+	    }
+	    if (fileTasks.size() == 1) {
+	        fileProgressTimer.start();
+	        firePropertyChange(PROPERTY_FILE_TASKS, false, true);
+	    }
+	    task.start();
+	}
+	
+	private <T> void finishFileTask(FileTask<T> task, Consumer<T> onSuccess, Consumer<FileTask.Outcome> onDone) {
+	    fileTasks.remove(task);
+	    FileTask.Outcome outcome = task.getOutcome();
+	    if (outcome == FileTask.Outcome.COMPLETED) {
+	        if (onSuccess != null) {
+	            onSuccess.accept(task.getResult());
+	        }
+	        logDebugMessage(() -> "Background " + task.getName() + " of " + task.getFile().getName() + " completed.");
+	    } else if (outcome == FileTask.Outcome.CANCELLED) {
+	        logDebugMessage(() -> "Background " + task.getName() + " of " + task.getFile().getName() + " cancelled.");
+	    } else {
+	        logDebugMessage(() -> "Background " + task.getName() + " FAILED: " + task.getFailure());
+	        task.getFailure().printStackTrace();
+	    }
+	    if (fileTasks.isEmpty()) {
+	        fileProgressTimer.stop();
+	        firePropertyChange(PROPERTY_FILE_TASKS, true, false);
+	    }
+	    if (onDone != null) {
+	        onDone.accept(outcome);
+	    }
+	}
+	
+	private void publishScene(Scene loaded) {
+	    boolean isBackgroundReplaced = loaded.getBackground() != scene.getBackground();
+	    TiledRaster previousRaster = scene.getRaster();
+	    scene = loaded;
+	    renderer = new SceneRenderer(loaded);
+	    compositeGeneration = -1;
+	    history.clear();
+	    if (previousRaster != null) {
+	        closeTiledImage(previousRaster, false);
+	    }
+	    selectedObjects.clear();
+	    currentSelectionRect = null;
+	    currentSelectionMask = null;
+	    if (isBackgroundReplaced) {
+	        currentImage = null;
+	        fitCanvasToScene();
+	    } else {
+	        repaint();
+	    }
 	}
     
     public boolean saveImage(File file, String format) {
+        long startNanos = System.nanoTime();
         BufferedImage imageToSave = getDrawingAsImage();
         if (imageToSave == null) return false;
         
-        logDebugMessage("Saving image file to: " + file.getAbsolutePath());
+        logDebugMessage(() -> "Saving image file to: " + file.getAbsolutePath());
         
         try {
             ImageIO.write(imageToSave, format, file);
             logDebugMessage("Image save SUCCESS.");
             return true;
         } catch (IOException e) {
-            logDebugMessage("Image save FAILED: " + e.getMessage());
+            logDebugMessage(() -> "Image save FAILED: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            PerformanceStats.SAVE_IMAGE.record(System.nanoTime() - startNanos);
         }
     }
     
     public boolean loadImage(File file) {
-        logDebugMessage("Loading image file from: " + file.getAbsolutePath());
+        long startNanos = System.nanoTime();
+        logDebugMessage(() -> "Loading image file from: " + file.getAbsolutePath());
         try (FileInputStream fis = new FileInputStream(file)) {
-            BufferedImage loadedImage = ImageIO.read(fis);
+            if (isTiledImage(file)) {
+                applyTiledImage(TiledRaster.open(file, tileMemoryCap));
+                return true;
+            }
+            BufferedImage loadedImage = toIntRGBImage(ImageIO.read(fis));
             
             if (loadedImage == null) {
                 logDebugMessage("Image read FAILED: Loaded image is null.");
                 return false;
             }
-            	
-            drawingList.clear();
-            mouseList.clear();
-            mouseColorList.clear();
-            
-            offscreen = loadedImage;
-            dim = new Dimension(loadedImage.getWidth(), loadedImage.getHeight());
-            currentImage = loadedImage;
-            
-            bufferGraphics = offscreen.getGraphics();
-            
-            if (getParent() instanceof JFrame) {
-                JFrame parent = (JFrame)getParent();
-                parent.setSize(dim.width + 50, dim.height + 150);
-            }
-            
-            setSize(dim.width, dim.height);
-            setPreferredSize(dim);
-            
-            if (getParent() != null) {
-                getParent().revalidate();
-            }
-            
-            logDebugMessage("Image load SUCCESS. New dimensions: " + dim.width + "x" + dim.height);
+            applyLoadedImage(loadedImage, null);
             return true;
         } catch (IOException e) {
-            logDebugMessage("Image load FAILED: " + e.getMessage());
+            logDebugMessage(() -> "Image load FAILED: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            PerformanceStats.LOAD_IMAGE.record(System.nanoTime() - startNanos);
         }
     }
+    
+    private void applyLoadedImage(BufferedImage loadedImage, byte[] encodedImage) {
+        if (journal != null) {
+            try {
+                journal.loadImage((encodedImage != null) ? encodedImage : OperationJournal.encodeImage(loadedImage));
+            } catch (IOException e) {
+                logDebugMessage(() -> "Journal image encoding FAILED: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        TiledRaster previousRaster = scene.getRaster();
+        if (previousRaster == null) {
+            history.push(UndoHistory.replaceScene("이미지 열기", scene.getBackground(), loadedImage, scene.getPoints().copy(), scene.getObjects()));
+        }
+        scene.clearDrawings();
+        scene.setBackground(loadedImage);
+        if (previousRaster != null) {
+            closeTiledImage(previousRaster, true);
+        }
+        currentSelectionMask = null;
+        Dimension dim = fitCanvasToScene();
+        
+        logDebugMessage(() -> "Image load SUCCESS. New dimensions: " + dim.width + "x" + dim.height);
+    }
+    
+    private Dimension fitCanvasToScene() {
+        Dimension dim = new Dimension(scene.getWidth(), scene.getHeight());
+        isCanvasSized = true;
+        
+        renderer.invalidate();
+        
+        Dimension size = getZoomedSize();
+        setSize(size);
+        setPreferredSize(size);
+        
+        if (getParent() != null) {
+            getParent().revalidate();
+        }
+        repaint();
+        return dim;
+    }
 
 }
\ No newline at end of file
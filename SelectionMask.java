@@ -0,0 +1,151 @@
+import java.awt.Rectangle;
+
+public class SelectionMask {
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    public SelectionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = new long[wordsPerRow * height];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean get(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        return (words[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    public void set(int x, int y) {
+        words[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+    }
+
+    public void setSpan(int y, int fromX, int toX) {
+        int rowStart = y * wordsPerRow;
+        int firstWord = fromX >>> 6;
+        int lastWord = toX >>> 6;
+        long firstMask = -1L << fromX;
+        long lastMask = -1L >>> (63 - (toX & 63));
+
+        if (firstWord == lastWord) {
+            words[rowStart + firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[rowStart + firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            words[rowStart + i] = -1L;
+        }
+        words[rowStart + lastWord] |= lastMask;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean intersects(Rectangle area) {
+        int fromX = Math.max(0, area.x);
+        int toX = Math.min(width, area.x + area.width) - 1;
+        int fromY = Math.max(0, area.y);
+        int toY = Math.min(height, area.y + area.height);
+        if (toX < fromX) {
+            return false;
+        }
+        int firstWord = fromX >>> 6;
+        int lastWord = toX >>> 6;
+        long firstMask = -1L << fromX;
+        long lastMask = -1L >>> (63 - (toX & 63));
+        for (int y = fromY; y < toY; y++) {
+            int rowStart = y * wordsPerRow;
+            for (int i = firstWord; i <= lastWord; i++) {
+                long word = words[rowStart + i];
+                if (i == firstWord) {
+                    word &= firstMask;
+                }
+                if (i == lastWord) {
+                    word &= lastMask;
+                }
+                if (word != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public long count() {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public Rectangle getBounds() {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * wordsPerRow;
+            for (int i = 0; i < wordsPerRow; i++) {
+                long word = words[rowStart + i];
+                if (word == 0) {
+                    continue;
+                }
+                minX = Math.min(minX, (i << 6) + Long.numberOfTrailingZeros(word));
+                maxX = Math.max(maxX, (i << 6) + 63 - Long.numberOfLeadingZeros(word));
+                minY = Math.min(minY, y);
+                maxY = y;
+            }
+        }
+        if (maxX < minX) {
+            return null;
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    public void fill(int[] pixels, int value) {
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * wordsPerRow;
+            int pixelRow = y * width;
+            for (int i = 0; i < wordsPerRow; i++) {
+                long word = words[rowStart + i];
+                if (word == 0) {
+                    continue;
+                }
+                int base = pixelRow + (i << 6);
+                if (word == -1L) {
+                    int end = Math.min(base + 64, pixelRow + width);
+                    for (int p = base; p < end; p++) {
+                        pixels[p] = value;
+                    }
+                    continue;
+                }
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    pixels[base + bit] = value;
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+}
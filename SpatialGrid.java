@@ -0,0 +1,241 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+public class SpatialGrid<T> {
+
+    private static final int MAX_CELLS_PER_ENTRY = 64;
+
+    private static class Entry<T> {
+        T item;
+        Rectangle bounds;
+        long order;
+        boolean isLarge;
+        int queryMark;
+
+        Entry(T item, Rectangle bounds, long order) {
+            this.item = item;
+            this.bounds = bounds;
+            this.order = order;
+        }
+    }
+
+    private static final Comparator<Entry<?>> INSERTION_ORDER = new Comparator<Entry<?>>() {
+        @Override
+        public int compare(Entry<?> a, Entry<?> b) {
+            return Long.compare(a.order, b.order);
+        }
+    };
+
+    private final int cellSize;
+    private final HashMap<Long, ArrayList<Entry<T>>> cells = new HashMap<>();
+    private final ArrayList<Entry<T>> largeEntries = new ArrayList<>();
+    private final IdentityHashMap<T, Entry<T>> entries = new IdentityHashMap<>();
+    private long nextOrder = 0;
+    private int queryMark = 0;
+
+    public SpatialGrid(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        cells.clear();
+        largeEntries.clear();
+        entries.clear();
+        nextOrder = 0;
+    }
+
+    public void insert(T item, Rectangle bounds) {
+        if (entries.containsKey(item)) {
+            update(item, bounds);
+            return;
+        }
+        Entry<T> entry = new Entry<>(item, new Rectangle(bounds), nextOrder++);
+        entries.put(item, entry);
+        link(entry);
+    }
+
+    public void update(T item, Rectangle bounds) {
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            insert(item, bounds);
+            return;
+        }
+        if (entry.bounds.equals(bounds)) {
+            return;
+        }
+        unlink(entry);
+        entry.bounds.setBounds(bounds);
+        link(entry);
+    }
+
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    public void reorder(Iterable<T> items) {
+        nextOrder = 0;
+        for (T item : items) {
+            Entry<T> entry = entries.get(item);
+            if (entry != null) {
+                entry.order = nextOrder++;
+            }
+        }
+    }
+
+    public List<T> query(Rectangle area) {
+        ArrayList<Entry<T>> found = new ArrayList<>();
+        collect(area.x, area.y, area.x + area.width, area.y + area.height, found);
+        return toItems(found);
+    }
+
+    public List<T> queryPoint(int x, int y) {
+        ArrayList<Entry<T>> found = new ArrayList<>();
+        collect(x, y, x + 1, y + 1, found);
+        return toItems(found);
+    }
+
+    private void collect(int x1, int y1, int x2, int y2, ArrayList<Entry<T>> found) {
+        if (x2 <= x1 || y2 <= y1) {
+            return;
+        }
+        int mark = ++queryMark;
+
+        for (Entry<T> entry : largeEntries) {
+            if (intersects(entry.bounds, x1, y1, x2, y2)) {
+                entry.queryMark = mark;
+                found.add(entry);
+            }
+        }
+
+        int minCellX = cellIndex(x1);
+        int minCellY = cellIndex(y1);
+        int maxCellX = cellIndex(x2 - 1);
+        int maxCellY = cellIndex(y2 - 1);
+        long cellCount = (long)(maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+
+        if (cellCount > cells.size()) {
+            for (ArrayList<Entry<T>> cell : cells.values()) {
+                collectCell(cell, x1, y1, x2, y2, mark, found);
+            }
+        } else {
+            for (int cy = minCellY; cy <= maxCellY; cy++) {
+                for (int cx = minCellX; cx <= maxCellX; cx++) {
+                    ArrayList<Entry<T>> cell = cells.get(cellKey(cx, cy));
+                    if (cell != null) {
+                        collectCell(cell, x1, y1, x2, y2, mark, found);
+                    }
+                }
+            }
+        }
+    }
+
+    private void collectCell(ArrayList<Entry<T>> cell, int x1, int y1, int x2, int y2, int mark, ArrayList<Entry<T>> found) {
+        for (int i = 0; i < cell.size(); i++) {
+            Entry<T> entry = cell.get(i);
+            if (entry.queryMark != mark && intersects(entry.bounds, x1, y1, x2, y2)) {
+                entry.queryMark = mark;
+                found.add(entry);
+            }
+        }
+    }
+
+    private List<T> toItems(ArrayList<Entry<T>> found) {
+        Collections.sort(found, INSERTION_ORDER);
+        ArrayList<T> items = new ArrayList<>(found.size());
+        for (Entry<T> entry : found) {
+            items.add(entry.item);
+        }
+        return items;
+    }
+
+    private void link(Entry<T> entry) {
+        Rectangle b = entry.bounds;
+        int minCellX = cellIndex(b.x);
+        int minCellY = cellIndex(b.y);
+        int maxCellX = cellIndex(b.x + Math.max(b.width, 1) - 1);
+        int maxCellY = cellIndex(b.y + Math.max(b.height, 1) - 1);
+        long cellCount = (long)(maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+
+        if (cellCount > MAX_CELLS_PER_ENTRY) {
+            entry.isLarge = true;
+            largeEntries.add(entry);
+            return;
+        }
+        entry.isLarge = false;
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                Long key = cellKey(cx, cy);
+                ArrayList<Entry<T>> cell = cells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<>(4);
+                    cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    private void unlink(Entry<T> entry) {
+        if (entry.isLarge) {
+            removeFrom(largeEntries, entry);
+            return;
+        }
+        Rectangle b = entry.bounds;
+        int minCellX = cellIndex(b.x);
+        int minCellY = cellIndex(b.y);
+        int maxCellX = cellIndex(b.x + Math.max(b.width, 1) - 1);
+        int maxCellY = cellIndex(b.y + Math.max(b.height, 1) - 1);
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                Long key = cellKey(cx, cy);
+                ArrayList<Entry<T>> cell = cells.get(key);
+                if (cell != null) {
+                    removeFrom(cell, entry);
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static <E> void removeFrom(ArrayList<E> list, E element) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == element) {
+                int last = list.size() - 1;
+                list.set(i, list.get(last));
+                list.remove(last);
+                return;
+            }
+        }
+    }
+
+    private static boolean intersects(Rectangle b, int x1, int y1, int x2, int y2) {
+        return b.x < x2 && b.y < y2 && b.x + Math.max(b.width, 1) > x1 && b.y + Math.max(b.height, 1) > y1;
+    }
+
+    private int cellIndex(int coordinate) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long)cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,239 @@
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public final class TileDelta {
+
+    public static final int TILE_SIZE = 64;
+
+    private static final int TILE_OVERHEAD = 32;
+    private static final int ARRAY_OVERHEAD = 16;
+
+    private final int imageWidth;
+    private final int imageHeight;
+    private final int tilesPerRow;
+    private final int[] tiles;
+    private final int[] colors;
+    private final int[][] pixels;
+    private final byte[][] packed;
+    private final boolean isCompressed;
+    private final Rectangle bounds;
+    private long memoryUsage;
+
+    private TileDelta(int imageWidth, int imageHeight, int[] tiles, boolean isCompressed) {
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.tilesPerRow = (imageWidth + TILE_SIZE - 1) / TILE_SIZE;
+        this.tiles = tiles;
+        this.colors = new int[tiles.length];
+        this.pixels = new int[tiles.length][];
+        this.packed = new byte[tiles.length][];
+        this.isCompressed = isCompressed;
+        Rectangle union = null;
+        for (int i = 0; i < tiles.length; i++) {
+            Rectangle tile = getTileBounds(i);
+            union = (union == null) ? tile : union.union(tile);
+        }
+        this.bounds = union;
+    }
+
+    public static TileDelta capture(BufferedImage image, Rectangle region, boolean isCompressed) {
+        return capture(image, region, null, isCompressed);
+    }
+
+    public static TileDelta capture(BufferedImage image, SelectionMask mask, boolean isCompressed) {
+        return capture(image, mask.getBounds(), mask, isCompressed);
+    }
+
+    private static TileDelta capture(BufferedImage image, Rectangle region, SelectionMask mask, boolean isCompressed) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Rectangle clipped = (region == null) ? new Rectangle() : region.intersection(new Rectangle(0, 0, width, height));
+        if (clipped.isEmpty()) {
+            return new TileDelta(width, height, new int[0], isCompressed).store(image);
+        }
+        int tilesPerRow = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int minTileX = clipped.x / TILE_SIZE;
+        int minTileY = clipped.y / TILE_SIZE;
+        int maxTileX = (clipped.x + clipped.width - 1) / TILE_SIZE;
+        int maxTileY = (clipped.y + clipped.height - 1) / TILE_SIZE;
+        int[] tiles = new int[(maxTileX - minTileX + 1) * (maxTileY - minTileY + 1)];
+        int count = 0;
+        Rectangle tile = new Rectangle();
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx <= maxTileX; tx++) {
+                tile.setBounds(tx * TILE_SIZE, ty * TILE_SIZE, Math.min(TILE_SIZE, width - tx * TILE_SIZE), Math.min(TILE_SIZE, height - ty * TILE_SIZE));
+                if (mask == null || mask.intersects(tile)) {
+                    tiles[count++] = ty * tilesPerRow + tx;
+                }
+            }
+        }
+        return new TileDelta(width, height, Arrays.copyOf(tiles, count), isCompressed).store(image);
+    }
+
+    public boolean isEmpty() {
+        return tiles.length == 0;
+    }
+
+    public int getTileCount() {
+        return tiles.length;
+    }
+
+    public Rectangle getBounds() {
+        return (bounds == null) ? null : new Rectangle(bounds);
+    }
+
+    public Rectangle getTileBounds(int i) {
+        int tx = tiles[i] % tilesPerRow;
+        int ty = tiles[i] / tilesPerRow;
+        return new Rectangle(tx * TILE_SIZE, ty * TILE_SIZE, Math.min(TILE_SIZE, imageWidth - tx * TILE_SIZE), Math.min(TILE_SIZE, imageHeight - ty * TILE_SIZE));
+    }
+
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    public boolean fits(BufferedImage image) {
+        return image.getWidth() == imageWidth && image.getHeight() == imageHeight;
+    }
+
+    public void swap(BufferedImage image) {
+        if (!fits(image)) {
+            throw new IllegalArgumentException("Tile delta for " + imageWidth + "x" + imageHeight + " applied to " + image.getWidth() + "x" + image.getHeight());
+        }
+        int[] imagePixels = FloodFill.getPixels(image);
+        int[] buffer = new int[TILE_SIZE * TILE_SIZE];
+        int[] current = new int[TILE_SIZE * TILE_SIZE];
+        Codec codec = new Codec();
+        try {
+            memoryUsage = 0;
+            for (int i = 0; i < tiles.length; i++) {
+                Rectangle tile = getTileBounds(i);
+                int length = tile.width * tile.height;
+                read(imagePixels, tile, current);
+                if (pixels[i] == null && packed[i] == null) {
+                    Arrays.fill(buffer, 0, length, colors[i]);
+                } else if (pixels[i] != null) {
+                    System.arraycopy(pixels[i], 0, buffer, 0, length);
+                } else {
+                    codec.inflate(packed[i], buffer, length);
+                }
+                write(imagePixels, tile, buffer);
+                keep(i, current, length, codec);
+            }
+        } finally {
+            codec.end();
+        }
+    }
+
+    private TileDelta store(BufferedImage image) {
+        int[] imagePixels = FloodFill.getPixels(image);
+        int[] buffer = new int[TILE_SIZE * TILE_SIZE];
+        Codec codec = new Codec();
+        try {
+            for (int i = 0; i < tiles.length; i++) {
+                Rectangle tile = getTileBounds(i);
+                read(imagePixels, tile, buffer);
+                keep(i, buffer, tile.width * tile.height, codec);
+            }
+        } finally {
+            codec.end();
+        }
+        return this;
+    }
+
+    private void keep(int i, int[] tilePixels, int length, Codec codec) {
+        int first = tilePixels[0];
+        boolean isUniform = true;
+        for (int p = 1; p < length && isUniform; p++) {
+            isUniform = tilePixels[p] == first;
+        }
+        colors[i] = first;
+        pixels[i] = null;
+        packed[i] = null;
+        if (isUniform) {
+            memoryUsage += TILE_OVERHEAD;
+        } else if (isCompressed) {
+            packed[i] = codec.deflate(tilePixels, length);
+            memoryUsage += TILE_OVERHEAD + ARRAY_OVERHEAD + packed[i].length;
+        } else {
+            pixels[i] = Arrays.copyOf(tilePixels, length);
+            memoryUsage += TILE_OVERHEAD + ARRAY_OVERHEAD + 4L * length;
+        }
+    }
+
+    private void read(int[] imagePixels, Rectangle tile, int[] target) {
+        for (int y = 0; y < tile.height; y++) {
+            System.arraycopy(imagePixels, (tile.y + y) * imageWidth + tile.x, target, y * tile.width, tile.width);
+        }
+    }
+
+    private void write(int[] imagePixels, Rectangle tile, int[] source) {
+        for (int y = 0; y < tile.height; y++) {
+            System.arraycopy(source, y * tile.width, imagePixels, (tile.y + y) * imageWidth + tile.x, tile.width);
+        }
+    }
+
+    private static final class Codec {
+        private final byte[] bytes = new byte[TILE_SIZE * TILE_SIZE * 4];
+        private final byte[] output = new byte[TILE_SIZE * TILE_SIZE * 4 + 64];
+        private Deflater deflater = null;
+        private Inflater inflater = null;
+
+        byte[] deflate(int[] tilePixels, int length) {
+            if (deflater == null) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+            }
+            for (int p = 0, i = 0; p < length; p++) {
+                int pixel = tilePixels[p];
+                bytes[i++] = (byte)(pixel >>> 24);
+                bytes[i++] = (byte)(pixel >>> 16);
+                bytes[i++] = (byte)(pixel >>> 8);
+                bytes[i++] = (byte)pixel;
+            }
+            deflater.reset();
+            deflater.setInput(bytes, 0, length * 4);
+            deflater.finish();
+            int size = 0;
+            while (!deflater.finished()) {
+                size += deflater.deflate(output, size, output.length - size);
+            }
+            return Arrays.copyOf(output, size);
+        }
+
+        void inflate(byte[] data, int[] tilePixels, int length) {
+            if (inflater == null) {
+                inflater = new Inflater();
+            }
+            inflater.reset();
+            inflater.setInput(data);
+            try {
+                int size = 0;
+                while (size < length * 4) {
+                    int n = inflater.inflate(bytes, size, length * 4 - size);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IllegalStateException("Compressed tile ended early");
+                    }
+                    size += n;
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt compressed tile", e);
+            }
+            for (int p = 0, i = 0; p < length; p++) {
+                tilePixels[p] = ((bytes[i++] & 0xFF) << 24) | ((bytes[i++] & 0xFF) << 16) | ((bytes[i++] & 0xFF) << 8) | (bytes[i++] & 0xFF);
+            }
+        }
+
+        void end() {
+            if (deflater != null) {
+                deflater.end();
+            }
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,782 @@
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+public final class TiledRaster {
+
+    public static final int TILE_SIZE = 512;
+    public static final long DEFAULT_MEMORY_CAP = 256L << 20;
+
+    private static final int TILE_PIXELS = TILE_SIZE * TILE_SIZE;
+    private static final long MIN_MEMORY_CAP = 16L * TILE_PIXELS * 4;
+    private static final Color PLACEHOLDER = new Color(0xE0E0E0);
+
+    private final File file;
+    private final ImageInputStream input;
+    private final ImageReader reader;
+    private final Object readerLock = new Object();
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int tilesX;
+    private final int tilesY;
+    private final int maxLevel;
+
+    private final LinkedHashMap<Long, BufferedImage> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final BitSet dirty = new BitSet();
+    private final BitSet spilled = new BitSet();
+    private final Set<Long> pinned = new HashSet<>();
+    private final Set<Long> pending = new HashSet<>();
+    private final ExecutorService loader;
+    private File spillFile = null;
+    private RandomAccessFile spill = null;
+    private long memoryCap;
+    private long memoryUsage = 0;
+    private long decodeCount = 0;
+    private long spillCount = 0;
+    private Consumer<Rectangle> tileListener = null;
+    private boolean isClosed = false;
+
+    private int m00 = 1;
+    private int m01 = 0;
+    private int m10 = 0;
+    private int m11 = 1;
+    private int t0 = 0;
+    private int t1 = 0;
+    private int width;
+    private int height;
+
+    private TiledRaster(File file, ImageInputStream input, ImageReader reader, long memoryCap) throws IOException {
+        this.file = file;
+        this.input = input;
+        this.reader = reader;
+        this.sourceWidth = reader.getWidth(0);
+        this.sourceHeight = reader.getHeight(0);
+        this.tilesX = (sourceWidth + TILE_SIZE - 1) / TILE_SIZE;
+        this.tilesY = (sourceHeight + TILE_SIZE - 1) / TILE_SIZE;
+        int level = 0;
+        while ((long)TILE_SIZE << level < Math.max(sourceWidth, sourceHeight)) {
+            level++;
+        }
+        this.maxLevel = level;
+        this.memoryCap = Math.max(MIN_MEMORY_CAP, memoryCap);
+        this.width = sourceWidth;
+        this.height = sourceHeight;
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tile-loader-" + file.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Dimension readSize(File file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            if (in == null) {
+                throw new IOException("Cannot open " + file + " for reading");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static TiledRaster open(File file, long memoryCap) throws IOException {
+        ImageInputStream in = ImageIO.createImageInputStream(file);
+        if (in == null) {
+            throw new IOException("Cannot open " + file + " for reading");
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            in.close();
+            throw new IOException("No image reader for " + file.getName());
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(in, false, true);
+            TiledRaster raster = new TiledRaster(file, in, reader, memoryCap);
+            String format = reader.getFormatName();
+            DebugLog.log(() -> "Opened tiled raster " + file.getName() + " (" + raster.sourceWidth + "x" + raster.sourceHeight + ", "
+                + raster.tilesX * raster.tilesY + " tiles, " + (raster.maxLevel + 1) + " levels, " + format + ")");
+            return raster;
+        } catch (IOException | RuntimeException e) {
+            reader.dispose();
+            in.close();
+            throw e;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized int getWidth() {
+        return width;
+    }
+
+    public synchronized int getHeight() {
+        return height;
+    }
+
+    public synchronized long getMemoryCap() {
+        return memoryCap;
+    }
+
+    public synchronized void setMemoryCap(long bytes) {
+        this.memoryCap = Math.max(MIN_MEMORY_CAP, bytes);
+        evict();
+    }
+
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    public synchronized long getDecodeCount() {
+        return decodeCount;
+    }
+
+    public synchronized long getSpillCount() {
+        return spillCount;
+    }
+
+    public synchronized int getDirtyTileCount() {
+        return dirty.cardinality();
+    }
+
+    public synchronized int getPendingTileCount() {
+        return pending.size();
+    }
+
+    public synchronized int getCachedTileCount() {
+        return cache.size();
+    }
+
+    public synchronized void setTileListener(Consumer<Rectangle> listener) {
+        this.tileListener = listener;
+    }
+
+    public synchronized void transform(int transform) {
+        int p00, p01, p10, p11, q0, q1;
+        switch (transform) {
+            case RasterTransform.FLIP_HORIZONTAL:
+                p00 = -1; p01 = 0; p10 = 0; p11 = 1; q0 = width - 1; q1 = 0;
+                break;
+            case RasterTransform.FLIP_VERTICAL:
+                p00 = 1; p01 = 0; p10 = 0; p11 = -1; q0 = 0; q1 = height - 1;
+                break;
+            case RasterTransform.ROTATE_CLOCKWISE:
+                p00 = 0; p01 = 1; p10 = -1; p11 = 0; q0 = 0; q1 = height - 1;
+                break;
+            case RasterTransform.ROTATE_COUNTER_CLOCKWISE:
+                p00 = 0; p01 = -1; p10 = 1; p11 = 0; q0 = width - 1; q1 = 0;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown transform " + transform);
+        }
+        int n00 = m00 * p00 + m01 * p10;
+        int n01 = m00 * p01 + m01 * p11;
+        int n10 = m10 * p00 + m11 * p10;
+        int n11 = m10 * p01 + m11 * p11;
+        t0 += m00 * q0 + m01 * q1;
+        t1 += m10 * q0 + m11 * q1;
+        m00 = n00;
+        m01 = n01;
+        m10 = n10;
+        m11 = n11;
+        if (p00 == 0) {
+            int swap = width;
+            width = height;
+            height = swap;
+        }
+    }
+
+    public static int getInverseTransform(int transform) {
+        switch (transform) {
+            case RasterTransform.ROTATE_CLOCKWISE: return RasterTransform.ROTATE_COUNTER_CLOCKWISE;
+            case RasterTransform.ROTATE_COUNTER_CLOCKWISE: return RasterTransform.ROTATE_CLOCKWISE;
+            default: return transform;
+        }
+    }
+
+    public synchronized Rectangle toSource(Rectangle view) {
+        int x0 = m00 * view.x + m01 * view.y + t0;
+        int y0 = m10 * view.x + m11 * view.y + t1;
+        int lastX = view.x + view.width - 1;
+        int lastY = view.y + view.height - 1;
+        int x1 = m00 * lastX + m01 * lastY + t0;
+        int y1 = m10 * lastX + m11 * lastY + t1;
+        return new Rectangle(Math.min(x0, x1), Math.min(y0, y1), Math.abs(x1 - x0) + 1, Math.abs(y1 - y0) + 1);
+    }
+
+    public synchronized Rectangle toView(Rectangle source) {
+        int sx = source.x - t0;
+        int sy = source.y - t1;
+        int lastX = source.x + source.width - 1 - t0;
+        int lastY = source.y + source.height - 1 - t1;
+        int u0 = m00 * sx + m10 * sy;
+        int v0 = m01 * sx + m11 * sy;
+        int u1 = m00 * lastX + m10 * lastY;
+        int v1 = m01 * lastX + m11 * lastY;
+        return new Rectangle(Math.min(u0, u1), Math.min(v0, v1), Math.abs(u1 - u0) + 1, Math.abs(v1 - v0) + 1);
+    }
+
+    public int getRGB(int x, int y) throws IOException {
+        Rectangle source = toSource(new Rectangle(x, y, 1, 1));
+        BufferedImage tile = getTile(0, source.x / TILE_SIZE, source.y / TILE_SIZE);
+        return tile.getRGB(source.x % TILE_SIZE, source.y % TILE_SIZE);
+    }
+
+    public void paint(Graphics2D g, Rectangle viewRegion, double scale) {
+        Rectangle visible = viewRegion.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+        if (visible.isEmpty()) {
+            return;
+        }
+        int level = 0;
+        while (level < maxLevel && (1 << (level + 1)) * scale <= 1.0) {
+            level++;
+        }
+        int span = TILE_SIZE << level;
+        Rectangle source = toSource(visible);
+        int minX = source.x / span;
+        int minY = source.y / span;
+        int maxX = (source.x + source.width - 1) / span;
+        int maxY = (source.y + source.height - 1) / span;
+        Shape clip = g.getClip();
+        for (int ty = minY; ty <= maxY; ty++) {
+            for (int tx = minX; tx <= maxX; tx++) {
+                BufferedImage tile = getCachedTile(level, tx, ty);
+                if (tile != null) {
+                    drawTile(g, level, tx, ty, tile);
+                    continue;
+                }
+                requestTile(level, tx, ty);
+                g.clip(toView(getSourceBounds(level, tx, ty)));
+                int coarser = level + 1;
+                BufferedImage fallback = null;
+                for (; coarser <= maxLevel && fallback == null; coarser++) {
+                    int shift = coarser - level;
+                    fallback = getCachedTile(coarser, tx >> shift, ty >> shift);
+                    if (fallback != null) {
+                        drawTile(g, coarser, tx >> shift, ty >> shift, fallback);
+                    }
+                }
+                if (fallback == null) {
+                    g.setColor(PLACEHOLDER);
+                    g.fill(toView(getSourceBounds(level, tx, ty)));
+                }
+                g.setClip(clip);
+            }
+        }
+    }
+
+    private void drawTile(Graphics2D g, int level, int tx, int ty, BufferedImage tile) {
+        Rectangle bounds = getSourceBounds(level, tx, ty);
+        AffineTransform at = getSourceToView();
+        at.translate(bounds.x, bounds.y);
+        at.scale(1 << level, 1 << level);
+        g.drawImage(tile, at, null);
+    }
+
+    private synchronized AffineTransform getSourceToView() {
+        double c0 = (m00 + m10 < 0) ? (m00 != 0 ? t0 : t1) + 1 : -(m00 != 0 ? t0 : t1);
+        double c1 = (m01 + m11 < 0) ? (m01 != 0 ? t0 : t1) + 1 : -(m01 != 0 ? t0 : t1);
+        return new AffineTransform(m00, m01, m10, m11, c0, c1);
+    }
+
+    private Rectangle getSourceBounds(int level, int tx, int ty) {
+        int span = TILE_SIZE << level;
+        int x = tx * span;
+        int y = ty * span;
+        return new Rectangle(x, y, Math.min(span, sourceWidth - x), Math.min(span, sourceHeight - y));
+    }
+
+    private static long key(int level, int tx, int ty) {
+        return ((long)level << 48) | ((long)ty << 24) | tx;
+    }
+
+    private synchronized BufferedImage getCachedTile(int level, int tx, int ty) {
+        return cache.get(key(level, tx, ty));
+    }
+
+    private synchronized void requestTile(final int level, final int tx, final int ty) {
+        final long key = key(level, tx, ty);
+        if (isClosed || !pending.add(key)) {
+            return;
+        }
+        loader.execute(() -> {
+            Consumer<Rectangle> listener;
+            try {
+                getTile(level, tx, ty);
+            } catch (IOException | RuntimeException e) {
+                DebugLog.log(() -> "Tile decode FAILED at level " + level + " (" + tx + ", " + ty + "): " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    pending.remove(key);
+                    listener = tileListener;
+                }
+            }
+            if (listener != null) {
+                listener.accept(toView(getSourceBounds(level, tx, ty)));
+            }
+        });
+    }
+
+    private BufferedImage getTile(int level, int tx, int ty) throws IOException {
+        long key = key(level, tx, ty);
+        synchronized (this) {
+            BufferedImage tile = cache.get(key);
+            if (tile != null) {
+                return tile;
+            }
+        }
+        BufferedImage tile = load(level, tx, ty);
+        synchronized (this) {
+            BufferedImage existing = cache.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            cache.put(key, tile);
+            memoryUsage += getMemoryUsage(tile);
+            evict();
+            return tile;
+        }
+    }
+
+    private BufferedImage load(int level, int tx, int ty) throws IOException {
+        int index = ty * tilesX + tx;
+        if (level == 0) {
+            synchronized (this) {
+                if (spilled.get(index)) {
+                    return readSpill(index, getSourceBounds(0, tx, ty));
+                }
+            }
+        }
+        BufferedImage tile = decode(level, tx, ty);
+        if (level > 0) {
+            overlayDirty(level, tx, ty, tile);
+        }
+        return tile;
+    }
+
+    private BufferedImage decode(int level, int tx, int ty) throws IOException {
+        Rectangle bounds = getSourceBounds(level, tx, ty);
+        int step = 1 << level;
+        long startNanos = System.nanoTime();
+        BufferedImage decoded;
+        synchronized (readerLock) {
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceRegion(bounds);
+            if (step > 1) {
+                param.setSourceSubsampling(step, step, 0, 0);
+            }
+            decoded = reader.read(0, param);
+        }
+        BufferedImage tile = new BufferedImage((bounds.width + step - 1) / step, (bounds.height + step - 1) / step, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = tile.createGraphics();
+        g2.setColor(Color.white);
+        g2.fillRect(0, 0, tile.getWidth(), tile.getHeight());
+        g2.drawImage(decoded, 0, 0, null);
+        g2.dispose();
+        long elapsed = System.nanoTime() - startNanos;
+        PerformanceStats.TILE_DECODE.record(elapsed);
+        synchronized (this) {
+            decodeCount++;
+        }
+        DebugLog.log(() -> "Decoded tile level " + level + " (" + tx + ", " + ty + ") " + bounds + " in " + elapsed / 1000 + " us.");
+        return tile;
+    }
+
+    private void overlayDirty(int level, int tx, int ty, BufferedImage tile) throws IOException {
+        int shift = level;
+        int step = 1 << level;
+        int[] target = FloodFill.getPixels(tile);
+        int targetWidth = tile.getWidth();
+        for (int y = ty << shift; y < Math.min(tilesY, (ty + 1) << shift); y++) {
+            for (int x = tx << shift; x < Math.min(tilesX, (tx + 1) << shift); x++) {
+                synchronized (this) {
+                    if (!dirty.get(y * tilesX + x)) {
+                        continue;
+                    }
+                }
+                BufferedImage base = getTile(0, x, y);
+                int[] pixels = FloodFill.getPixels(base);
+                int baseWidth = base.getWidth();
+                int offsetX = (x * TILE_SIZE - (tx * (TILE_SIZE << level))) / step;
+                int offsetY = (y * TILE_SIZE - (ty * (TILE_SIZE << level))) / step;
+                for (int by = 0, oy = offsetY; by < base.getHeight(); by += step, oy++) {
+                    for (int bx = 0, ox = offsetX; bx < baseWidth; bx += step, ox++) {
+                        target[oy * targetWidth + ox] = pixels[by * baseWidth + bx];
+                    }
+                }
+            }
+        }
+    }
+
+    private void invalidateLevels(int tx, int ty) {
+        for (int level = 1; level <= maxLevel; level++) {
+            BufferedImage removed = cache.remove(key(level, tx >> level, ty >> level));
+            if (removed != null) {
+                memoryUsage -= getMemoryUsage(removed);
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Long, BufferedImage>> entries = cache.entrySet().iterator();
+        while (memoryUsage > memoryCap && entries.hasNext()) {
+            Map.Entry<Long, BufferedImage> entry = entries.next();
+            long key = entry.getKey();
+            if (pinned.contains(key)) {
+                continue;
+            }
+            if ((key >>> 48) == 0) {
+                int index = (int)(key >>> 24 & 0xFFFFFF) * tilesX + (int)(key & 0xFFFFFF);
+                if (dirty.get(index)) {
+                    try {
+                        writeSpill(index, entry.getValue());
+                    } catch (IOException e) {
+                        DebugLog.log(() -> "Tile spill FAILED; keeping tile in memory: " + e.getMessage());
+                        continue;
+                    }
+                }
+            }
+            memoryUsage -= getMemoryUsage(entry.getValue());
+            entries.remove();
+        }
+    }
+
+    private void writeSpill(int index, BufferedImage tile) throws IOException {
+        if (spill == null) {
+            spillFile = File.createTempFile("tiles-", ".spill");
+            spillFile.deleteOnExit();
+            spill = new RandomAccessFile(spillFile, "rw");
+        }
+        int[] pixels = FloodFill.getPixels(tile);
+        ByteBuffer buffer = ByteBuffer.allocate(pixels.length * 4);
+        buffer.asIntBuffer().put(pixels);
+        spill.seek((long)index * TILE_PIXELS * 4);
+        spill.write(buffer.array());
+        spilled.set(index);
+        spillCount++;
+    }
+
+    private synchronized BufferedImage readSpill(int index, Rectangle bounds) throws IOException {
+        BufferedImage tile = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = FloodFill.getPixels(tile);
+        byte[] bytes = new byte[pixels.length * 4];
+        spill.seek((long)index * TILE_PIXELS * 4);
+        spill.readFully(bytes);
+        ByteBuffer.wrap(bytes).asIntBuffer().get(pixels);
+        return tile;
+    }
+
+    private static long getMemoryUsage(BufferedImage tile) {
+        return 4L * tile.getWidth() * tile.getHeight();
+    }
+
+    private int[] acquire(int tx, int ty) throws IOException {
+        long key = key(0, tx, ty);
+        synchronized (this) {
+            pinned.add(key);
+        }
+        try {
+            return FloodFill.getPixels(getTile(0, tx, ty));
+        } catch (IOException | RuntimeException e) {
+            release(tx, ty);
+            throw e;
+        }
+    }
+
+    private synchronized void release(int tx, int ty) {
+        pinned.remove(key(0, tx, ty));
+    }
+
+    private synchronized void markDirty(int tx, int ty, int[] pixels, Patch patch) {
+        int index = ty * tilesX + tx;
+        long key = key(0, tx, ty);
+        if (patch != null && !patch.tiles.containsKey(key)) {
+            int[] previous = dirty.get(index) ? pixels.clone() : null;
+            patch.tiles.put(key, previous);
+            patch.memoryUsage += 32 + ((previous != null) ? 16 + 4L * previous.length : 0);
+            Rectangle bounds = getSourceBounds(0, tx, ty);
+            patch.sourceBounds = (patch.sourceBounds == null) ? bounds : patch.sourceBounds.union(bounds);
+        }
+        dirty.set(index);
+        invalidateLevels(tx, ty);
+    }
+
+    public Patch fillRect(Rectangle viewRect, int rgb) throws IOException {
+        Rectangle source = toSource(viewRect).intersection(new Rectangle(0, 0, sourceWidth, sourceHeight));
+        Patch patch = new Patch();
+        if (source.isEmpty()) {
+            return patch;
+        }
+        for (int ty = source.y / TILE_SIZE; ty <= (source.y + source.height - 1) / TILE_SIZE; ty++) {
+            for (int tx = source.x / TILE_SIZE; tx <= (source.x + source.width - 1) / TILE_SIZE; tx++) {
+                Rectangle tile = getSourceBounds(0, tx, ty).intersection(source);
+                int[] pixels = acquire(tx, ty);
+                try {
+                    markDirty(tx, ty, pixels, patch);
+                    int tileWidth = getSourceBounds(0, tx, ty).width;
+                    for (int y = tile.y; y < tile.y + tile.height; y++) {
+                        int row = (y - ty * TILE_SIZE) * tileWidth - tx * TILE_SIZE;
+                        Arrays.fill(pixels, row + tile.x, row + tile.x + tile.width, rgb);
+                    }
+                } finally {
+                    release(tx, ty);
+                }
+            }
+        }
+        return patch;
+    }
+
+    public Patch floodFill(int x, int y, int replacementRGB, int tolerance, int metric, AtomicLong progress) throws IOException {
+        Rectangle seed = toSource(new Rectangle(x, y, 1, 1));
+        Patch patch = new Patch();
+        Cursor cursor = new Cursor(patch);
+        try {
+            int target = cursor.get(seed.x, seed.y) & 0xFFFFFF;
+            int replacement = replacementRGB & 0xFFFFFF;
+            if (tolerance <= 0 && target == replacement) {
+                return patch;
+            }
+            FloodFill.Matcher matcher = new FloodFill.Matcher(target, 0xFFFFFF, Math.max(0, tolerance), metric, null);
+            long[] stack = new long[1024];
+            int size = 0;
+            stack[size++] = ((long)seed.y << 32) | seed.x;
+            while (size > 0) {
+                long packed = stack[--size];
+                int py = (int)(packed >>> 32);
+                int px = (int)packed;
+                if (!cursor.matches(matcher, px, py)) {
+                    continue;
+                }
+                int left = px;
+                while (left > 0 && cursor.matches(matcher, left - 1, py)) {
+                    left--;
+                }
+                int right = px;
+                while (right < sourceWidth - 1 && cursor.matches(matcher, right + 1, py)) {
+                    right++;
+                }
+                for (int i = left; i <= right; i++) {
+                    cursor.set(i, py, replacement);
+                }
+                if (progress != null) {
+                    progress.addAndGet(right - left + 1);
+                }
+                for (int ny = py - 1; ny <= py + 1; ny += 2) {
+                    if (ny < 0 || ny >= sourceHeight) {
+                        continue;
+                    }
+                    boolean isInRun = false;
+                    for (int i = left; i <= right; i++) {
+                        if (cursor.matches(matcher, i, ny)) {
+                            if (!isInRun) {
+                                if (size == stack.length) {
+                                    stack = Arrays.copyOf(stack, size * 2);
+                                }
+                                stack[size++] = ((long)ny << 32) | i;
+                            }
+                            isInRun = true;
+                        } else {
+                            isInRun = false;
+                        }
+                    }
+                }
+            }
+            return patch;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public synchronized void swap(Patch patch) throws IOException {
+        for (Map.Entry<Long, int[]> entry : patch.tiles.entrySet()) {
+            long key = entry.getKey();
+            int tx = (int)(key & 0xFFFFFF);
+            int ty = (int)(key >>> 24 & 0xFFFFFF);
+            int index = ty * tilesX + tx;
+            int[] current = null;
+            if (dirty.get(index)) {
+                current = FloodFill.getPixels(getTile(0, tx, ty)).clone();
+            }
+            int[] restored = entry.getValue();
+            if (restored == null) {
+                BufferedImage removed = cache.remove(key);
+                if (removed != null) {
+                    memoryUsage -= getMemoryUsage(removed);
+                }
+                dirty.clear(index);
+                spilled.clear(index);
+            } else {
+                pinned.add(key);
+                try {
+                    int[] pixels = FloodFill.getPixels(getTile(0, tx, ty));
+                    System.arraycopy(restored, 0, pixels, 0, pixels.length);
+                } finally {
+                    pinned.remove(key);
+                }
+                dirty.set(index);
+            }
+            invalidateLevels(tx, ty);
+            patch.memoryUsage += ((current != null) ? 16 + 4L * current.length : 0) - ((restored != null) ? 16 + 4L * restored.length : 0);
+            entry.setValue(current);
+        }
+    }
+
+    public void close() {
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            tileListener = null;
+        }
+        loader.shutdownNow();
+        try {
+            loader.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (readerLock) {
+            reader.dispose();
+            try {
+                input.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        synchronized (this) {
+            cache.clear();
+            memoryUsage = 0;
+            if (spill != null) {
+                try {
+                    spill.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                spillFile.delete();
+                spill = null;
+            }
+        }
+        DebugLog.log(() -> "Closed tiled raster " + file.getName() + " (" + decodeCount + " tiles decoded, " + spillCount + " spilled).");
+    }
+
+    public static final class Patch {
+        private final LinkedHashMap<Long, int[]> tiles = new LinkedHashMap<>();
+        private long memoryUsage = 0;
+        private Rectangle sourceBounds = null;
+
+        public boolean isEmpty() {
+            return tiles.isEmpty();
+        }
+
+        public int getTileCount() {
+            return tiles.size();
+        }
+
+        public long getMemoryUsage() {
+            return memoryUsage;
+        }
+
+        public Rectangle getSourceBounds() {
+            return (sourceBounds == null) ? null : new Rectangle(sourceBounds);
+        }
+    }
+
+    private final class Cursor {
+        private final Patch patch;
+        private final HashMap<Integer, long[]> visited = new HashMap<>();
+        private int tileX = -1;
+        private int tileY = -1;
+        private int tileWidth = 0;
+        private int[] pixels = null;
+        private long[] tileVisited = null;
+        private boolean isWritable = false;
+
+        Cursor(Patch patch) {
+            this.patch = patch;
+        }
+
+        int get(int x, int y) throws IOException {
+            moveTo(x, y);
+            return pixels[(y - tileY * TILE_SIZE) * tileWidth + x - tileX * TILE_SIZE];
+        }
+
+        boolean matches(FloodFill.Matcher matcher, int x, int y) throws IOException {
+            moveTo(x, y);
+            int offset = (y - tileY * TILE_SIZE) * tileWidth + x - tileX * TILE_SIZE;
+            if ((tileVisited[offset >> 6] & (1L << offset)) != 0) {
+                return false;
+            }
+            return matcher.matches(pixels[offset], x, y);
+        }
+
+        void set(int x, int y, int rgb) throws IOException {
+            moveTo(x, y);
+            if (!isWritable) {
+                markDirty(tileX, tileY, pixels, patch);
+                isWritable = true;
+            }
+            int offset = (y - tileY * TILE_SIZE) * tileWidth + x - tileX * TILE_SIZE;
+            pixels[offset] = rgb;
+            tileVisited[offset >> 6] |= 1L << offset;
+        }
+
+        private void moveTo(int x, int y) throws IOException {
+            int tx = x / TILE_SIZE;
+            int ty = y / TILE_SIZE;
+            if (tx == tileX && ty == tileY) {
+                return;
+            }
+            close();
+            pixels = acquire(tx, ty);
+            tileX = tx;
+            tileY = ty;
+            tileWidth = getSourceBounds(0, tx, ty).width;
+            tileVisited = visited.computeIfAbsent(ty * tilesX + tx, index -> new long[TILE_PIXELS / 64]);
+            isWritable = patch.tiles.containsKey(key(0, tx, ty));
+        }
+
+        void close() {
+            if (pixels != null) {
+                release(tileX, tileY);
+                pixels = null;
+                tileX = -1;
+                tileY = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,497 @@
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class UndoHistory {
+
+    public static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+
+    private static final int OBJECT_BYTES = 160;
+    private static final int POINT_BYTES = 12;
+
+    private final ArrayDeque<Edit> undoStack = new ArrayDeque<>();
+    private final ArrayDeque<Edit> redoStack = new ArrayDeque<>();
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private long memoryUsage = 0;
+    private long evictedCount = 0;
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(long bytes) {
+        this.memoryBudget = Math.max(0, bytes);
+        evict();
+    }
+
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public int getUndoCount() {
+        return undoStack.size();
+    }
+
+    public int getRedoCount() {
+        return redoStack.size();
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    public String getUndoName() {
+        return undoStack.isEmpty() ? null : undoStack.peekLast().getName();
+    }
+
+    public String getRedoName() {
+        return redoStack.isEmpty() ? null : redoStack.peekLast().getName();
+    }
+
+    public void push(Edit edit) {
+        for (Edit dropped : redoStack) {
+            memoryUsage -= dropped.getMemoryUsage();
+        }
+        redoStack.clear();
+        undoStack.addLast(edit);
+        memoryUsage += edit.getMemoryUsage();
+        evict();
+    }
+
+    public Edit undo(Scene scene, OperationJournal journal) {
+        Edit edit = undoStack.pollLast();
+        if (edit == null) {
+            return null;
+        }
+        memoryUsage -= edit.getMemoryUsage();
+        edit.undo(scene, journal);
+        memoryUsage += edit.getMemoryUsage();
+        redoStack.addLast(edit);
+        return edit;
+    }
+
+    public Edit redo(Scene scene, OperationJournal journal) {
+        Edit edit = redoStack.pollLast();
+        if (edit == null) {
+            return null;
+        }
+        memoryUsage -= edit.getMemoryUsage();
+        edit.redo(scene, journal);
+        memoryUsage += edit.getMemoryUsage();
+        undoStack.addLast(edit);
+        evict();
+        return edit;
+    }
+
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        memoryUsage = 0;
+    }
+
+    private void evict() {
+        while (memoryUsage > memoryBudget && !undoStack.isEmpty()) {
+            Edit evicted = undoStack.pollFirst();
+            memoryUsage -= evicted.getMemoryUsage();
+            evictedCount++;
+            DebugLog.log(() -> "Evicted undo entry '" + evicted.getName() + "' (" + evicted.getMemoryUsage() + " bytes) to stay within " + memoryBudget + " bytes.");
+        }
+        while (memoryUsage > memoryBudget && !redoStack.isEmpty()) {
+            Edit evicted = redoStack.pollFirst();
+            memoryUsage -= evicted.getMemoryUsage();
+            evictedCount++;
+        }
+    }
+
+    public static Edit addObject(AbstractDrawingObject obj) {
+        return new AddObject(obj);
+    }
+
+    public static Edit addPoints(int from, PointStore points) {
+        return new AddPoints(from, points);
+    }
+
+    public static Edit translate(List<AbstractDrawingObject> moved, int dx, int dy) {
+        return new Translate(moved, dx, dy);
+    }
+
+    public static Edit delete(int[] indices, List<AbstractDrawingObject> deleted) {
+        return new Delete(indices, deleted);
+    }
+
+    public static Edit raster(String name, TileDelta tiles) {
+        return new Raster(name, tiles);
+    }
+
+    public static Edit tiles(String name, TiledRaster raster, TiledRaster.Patch patch) {
+        return new Tiles(name, raster, patch);
+    }
+
+    public static Edit orient(String name, TiledRaster raster, int transform) {
+        return new Orient(name, raster, transform);
+    }
+
+    public static Edit replaceBackground(String name, BufferedImage before, BufferedImage after) {
+        return new ReplaceScene(name, before, after, null, null);
+    }
+
+    public static Edit replaceScene(String name, BufferedImage before, BufferedImage after, PointStore points, List<AbstractDrawingObject> objects) {
+        return new ReplaceScene(name, before, after, points, objects);
+    }
+
+    public abstract static class Edit {
+        private final String name;
+        protected Rectangle region = null;
+
+        protected Edit(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Rectangle getRegion() {
+            return region;
+        }
+
+        public abstract long getMemoryUsage();
+
+        protected abstract void undo(Scene scene, OperationJournal journal);
+
+        protected abstract void redo(Scene scene, OperationJournal journal);
+    }
+
+    private static Rectangle getBounds(List<AbstractDrawingObject> objects) {
+        Rectangle bounds = null;
+        for (AbstractDrawingObject obj : objects) {
+            bounds = (bounds == null) ? obj.getBounds() : bounds.union(obj.getBounds());
+        }
+        return bounds;
+    }
+
+    private static long getObjectMemoryUsage(AbstractDrawingObject obj) {
+        return OBJECT_BYTES + ((obj instanceof DrawText) ? 2L * ((DrawText)obj).text.length() : 0);
+    }
+
+    private static final class AddObject extends Edit {
+        private final AbstractDrawingObject obj;
+
+        AddObject(AbstractDrawingObject obj) {
+            super("개체 추가");
+            this.obj = obj;
+            this.region = obj.getBounds();
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            return getObjectMemoryUsage(obj);
+        }
+
+        @Override
+        protected void undo(Scene scene, OperationJournal journal) {
+            scene.removeLastObject();
+            if (journal != null) {
+                journal.delete(new int[] {scene.getObjectCount()});
+            }
+        }
+
+        @Override
+        protected void redo(Scene scene, OperationJournal journal) {
+            scene.addObject(obj);
+            if (journal != null) {
+                journal.addObject(obj);
+            }
+        }
+    }
+
+    private static final class AddPoints extends Edit {
+        private final int from;
+        private final PointStore points;
+
+        AddPoints(int from, PointStore points) {
+            super("점 그리기");
+            this.from = from;
+            this.points = points;
+            for (int i = 0; i < points.size(); i++) {
+                Rectangle bounds = SceneRenderer.getPointBounds(points.getX(i), points.getY(i));
+                region = (region == null) ? bounds : region.union(bounds);
+            }
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            return (long)POINT_BYTES * points.size();
+        }
+
+        @Override
+        protected void undo(Scene scene, OperationJournal journal) {
+            scene.getPoints().truncate(from);
+            if (journal != null) {
+                journal.truncatePoints(from);
+            }
+        }
+
+        @Override
+        protected void redo(Scene scene, OperationJournal journal) {
+            scene.getPoints().addAll(points);
+            if (journal != null) {
+                for (int i = 0; i < points.size(); i++) {
+                    journal.addPoint(points.getX(i), points.getY(i), points.getColor(i));
+                }
+            }
+        }
+    }
+
+    private static final class Translate extends Edit {
+        private final List<AbstractDrawingObject> moved;
+        private final int dx;
+        private final int dy;
+
+        Translate(List<AbstractDrawingObject> moved, int dx, int dy) {
+            super("개체 이동");
+            this.moved = new ArrayList<>(moved);
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            return 8L * moved.size();
+        }
+
+        @Override
+        protected void undo(Scene scene, OperationJournal journal) {
+            move(scene, journal, -dx, -dy);
+        }
+
+        @Override
+        protected void redo(Scene scene, OperationJournal journal) {
+            move(scene, journal, dx, dy);
+        }
+
+        private void move(Scene scene, OperationJournal journal, int x, int y) {
+            region = getBounds(moved);
+            for (AbstractDrawingObject obj : moved) {
+                obj.translate(x, y);
+                scene.updateObjectBounds(obj);
+            }
+            if (region != null) {
+                region = region.union(getBounds(moved));
+            }
+            if (journal != null) {
+                journal.translate(scene.indicesOf(moved), x, y);
+            }
+        }
+    }
+
+    private static final class Delete extends Edit {
+        private final int[] indices;
+        private final List<AbstractDrawingObject> deleted;
+
+        Delete(int[] indices, List<AbstractDrawingObject> deleted) {
+            super("개체 삭제");
+            this.indices = indices;
+            this.deleted = deleted;
+            this.region = getBounds(deleted);
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            long usage = 4L * indices.length;
+            for (AbstractDrawingObject obj : deleted) {
+                usage += getObjectMemoryUsage(obj);
+            }
+            return usage;
+        }
+
+        @Override
+        protected void undo(Scene scene, OperationJournal journal) {
+            scene.insertObjects(indices, deleted);
+            if (journal != null) {
+                journal.insertObjects(indices, deleted);
+            }
+        }
+
+        @Override
+        protected void redo(Scene scene, OperationJournal journal) {
+            scene.removeObjects(deleted);
+            if (journal != null) {
+                journal.delete(indices);
+            }
+        }
+    }
+
+    private static final class Raster extends Edit {
+        private final TileDelta tiles;
+
+        Raster(String name, TileDelta tiles) {
+            super(name);
+            this.tiles = tiles;
+            this.region = tiles.getBounds();
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            return tiles.getMemoryUsage();
+        }
+
+        @Override
+        protected void undo(Scene scene, OperationJournal journal) {
+            swap(scene, journal);
+        }
+
+        @Override
+        protected void redo(Scene scene, OperationJournal journal) {
+            swap(scene, journal);
+        }
+
+        private void swap(Scene scene, OperationJournal journal) {
+            tiles.swap(scene.getBackground());
+            if (journal != null) {
+                journal.patch(scene.getBackground(), tiles);
+            }
+        }
+    }
+
+    private static final class Tiles extends Edit {
+        private final TiledRaster raster;
+        private final TiledRaster.Patch patch;
+
+        Tiles(String name, TiledRaster raster, TiledRaster.Patch patch) {
+            super(name);
+            this.raster = raster;
+            this.patch = patch;
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            return patch.getMemoryUsage();
+        }
+
+        @Override
+        protected void undo(Scene scene, OperationJournal journal) {
+            swap();
+        }
+
+        @Override
+        protected void redo(Scene scene, OperationJournal journal) {
+            swap();
+        }
+
+        private void swap() {
+            try {
+                raster.swap(patch);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot restore tiles of " + raster.getFile().getName(), e);
+            }
+            region = (patch.getSourceBounds() == null) ? null : raster.toView(patch.getSourceBounds());
+        }
+    }
+
+    private static final class Orient extends Edit {
+        private final TiledRaster raster;
+        private final int transform;
+
+        Orient(String name, TiledRaster raster, int transform) {
+            super(name);
+            this.raster = raster;
+            this.transform = transform;
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            return 16;
+        }
+
+        @Override
+        protected void undo(Scene scene, OperationJournal journal) {
+            raster.transform(TiledRaster.getInverseTransform(transform));
+        }
+
+        @Override
+        protected void redo(Scene scene, OperationJournal journal) {
+            raster.transform(transform);
+        }
+    }
+
+    private static final class ReplaceScene extends Edit {
+        private BufferedImage inactive;
+        private final PointStore points;
+        private final List<AbstractDrawingObject> objects;
+
+        ReplaceScene(String name, BufferedImage before, BufferedImage after, PointStore points, List<AbstractDrawingObject> objects) {
+            super(name);
+            this.inactive = before;
+            this.points = points;
+            this.objects = (objects == null) ? null : Collections.unmodifiableList(new ArrayList<>(objects));
+        }
+
+        @Override
+        public long getMemoryUsage() {
+            long usage = 4L * inactive.getWidth() * inactive.getHeight();
+            if (points != null) {
+                usage += (long)POINT_BYTES * points.size();
+                for (AbstractDrawingObject obj : objects) {
+                    usage += getObjectMemoryUsage(obj);
+                }
+            }
+            return usage;
+        }
+
+        @Override
+        protected void undo(Scene scene, OperationJournal journal) {
+            swapBackground(scene, journal);
+            if (points != null) {
+                scene.getPoints().addAll(points);
+                for (AbstractDrawingObject obj : objects) {
+                    scene.addObject(obj);
+                }
+                if (journal != null) {
+                    for (int i = 0; i < points.size(); i++) {
+                        journal.addPoint(points.getX(i), points.getY(i), points.getColor(i));
+                    }
+                    for (AbstractDrawingObject obj : objects) {
+                        journal.addObject(obj);
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected void redo(Scene scene, OperationJournal journal) {
+            swapBackground(scene, journal);
+        }
+
+        private void swapBackground(Scene scene, OperationJournal journal) {
+            BufferedImage active = scene.getBackground();
+            if (points != null) {
+                scene.clearDrawings();
+                if (journal != null) {
+                    journal.clear();
+                }
+            }
+            scene.setBackground(inactive);
+            inactive = active;
+            if (journal != null) {
+                try {
+                    journal.background(OperationJournal.encodeImage(scene.getBackground()));
+                } catch (IOException e) {
+                    DebugLog.log(() -> "Journal image encoding FAILED: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public final class ZoomTileCache {
+
+    public static final int TILE_SIZE = 256;
+    public static final long DEFAULT_MEMORY_CAP = 64L << 20;
+
+    private static final long TILE_BYTES = 4L * TILE_SIZE * TILE_SIZE;
+
+    private final SceneRenderer renderer;
+    private final LinkedHashMap<Long, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryCap = DEFAULT_MEMORY_CAP;
+    private long tilesRendered = 0;
+
+    public ZoomTileCache(SceneRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    public long getMemoryCap() {
+        return memoryCap;
+    }
+
+    public void setMemoryCap(long memoryCap) {
+        this.memoryCap = memoryCap;
+        evict(null);
+    }
+
+    public long getMemoryUsage() {
+        return tiles.size() * TILE_BYTES;
+    }
+
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    public long getTilesRendered() {
+        return tilesRendered;
+    }
+
+    public void paint(Graphics2D g, float zoom, Rectangle deviceClip) {
+        Scene scene = renderer.getScene();
+        Rectangle device = new Rectangle(0, 0, (int)Math.ceil(scene.getWidth() * zoom), (int)Math.ceil(scene.getHeight() * zoom));
+        Rectangle visible = (deviceClip != null) ? deviceClip.intersection(device) : device;
+        if (visible.isEmpty()) {
+            return;
+        }
+        int minTileX = visible.x / TILE_SIZE;
+        int minTileY = visible.y / TILE_SIZE;
+        int maxTileX = (visible.x + visible.width - 1) / TILE_SIZE;
+        int maxTileY = (visible.y + visible.height - 1) / TILE_SIZE;
+        Set<Long> used = new HashSet<>();
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx <= maxTileX; tx++) {
+                long key = key(zoom, tx, ty);
+                BufferedImage tile = tiles.get(key);
+                if (tile == null) {
+                    tile = render(zoom, tx, ty);
+                    tiles.put(key, tile);
+                }
+                used.add(key);
+                g.drawImage(tile, tx * TILE_SIZE, ty * TILE_SIZE, null);
+            }
+        }
+        evict(used);
+    }
+
+    public void invalidate(Rectangle region) {
+        Iterator<Long> keys = tiles.keySet().iterator();
+        while (keys.hasNext()) {
+            long key = keys.next();
+            float zoom = Float.intBitsToFloat((int)(key >>> 32));
+            int tx = (int)(key & 0xFFFF);
+            int ty = (int)((key >>> 16) & 0xFFFF);
+            int x1 = (int)Math.floor(tx * TILE_SIZE / zoom) - 1;
+            int y1 = (int)Math.floor(ty * TILE_SIZE / zoom) - 1;
+            int x2 = (int)Math.ceil((tx + 1) * TILE_SIZE / zoom) + 1;
+            int y2 = (int)Math.ceil((ty + 1) * TILE_SIZE / zoom) + 1;
+            if (region.intersects(x1, y1, x2 - x1, y2 - y1)) {
+                keys.remove();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        tiles.clear();
+    }
+
+    private BufferedImage render(float zoom, int tx, int ty) {
+        Scene scene = renderer.getScene();
+        BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = tile.createGraphics();
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+        g2.setClip(0, 0, TILE_SIZE, TILE_SIZE);
+        g2.translate(-tx * TILE_SIZE, -ty * TILE_SIZE);
+        g2.scale(zoom, zoom);
+        g2.clip(new Rectangle(0, 0, scene.getWidth(), scene.getHeight()));
+        renderer.render(g2);
+        g2.dispose();
+        tilesRendered++;
+        return tile;
+    }
+
+    private void evict(Set<Long> used) {
+        Iterator<Map.Entry<Long, BufferedImage>> entries = tiles.entrySet().iterator();
+        while (getMemoryUsage() > memoryCap && entries.hasNext()) {
+            long key = entries.next().getKey();
+            if (used == null || !used.contains(key)) {
+                entries.remove();
+            }
+        }
+    }
+
+    private static long key(float zoom, int tx, int ty) {
+        return ((long)Float.floatToIntBits(zoom) << 32) | ((long)(ty & 0xFFFF) << 16) | (tx & 0xFFFF);
+    }
+}
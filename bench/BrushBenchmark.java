@@ -0,0 +1,82 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+public class BrushBenchmark {
+
+    private static final int CANVAS_WIDTH = 3840;
+    private static final int CANVAS_HEIGHT = 2160;
+    private static final int DABS = 100_000;
+    private static final int REPAIRS = 200;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.printf("Java %s, %d cpus, canvas %dx%d, %d dab stroke, size %d%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), CANVAS_WIDTH, CANVAS_HEIGHT, DABS, SceneRenderer.POINT_SIZE);
+
+        BrushEngine brush = new BrushEngine(SceneRenderer.POINT_SIZE, BrushEngine.HARD, BrushEngine.DEFAULT_SPACING);
+        int[] samples = { 0 };
+        PointStore stroke = new PointStore();
+        brush.beginStroke(100, 100, (x, y) -> stroke.add(x, y, 0xFF000000));
+        for (int i = 1; i <= 2000; i++) {
+            samples[0]++;
+            int x = 100 + (int)(1700 * (1 - Math.cos(i / 40.0)));
+            int y = 100 + (int)(950 * (1 - Math.cos(i / 97.0)));
+            brush.strokeTo(x, y, (dx, dy) -> stroke.add(dx, dy, 0xFF000000));
+        }
+        System.out.printf("fast drag: %d samples -> %d dabs at %.1f px spacing (old engine: %d points, one per sample)%n",
+            samples[0], stroke.size(), brush.getSpacingPixels(), samples[0] + 1);
+
+        BufferedImage canvas = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int round = 0; round < 3; round++) {
+            Graphics2D g2 = canvas.createGraphics();
+            g2.setColor(Color.BLACK);
+            long start = System.nanoTime();
+            for (int i = 0; i < DABS; i++) {
+                g2.fillOval(i % (CANVAS_WIDTH - 20), (i / (CANVAS_WIDTH - 20)) * 60, SceneRenderer.POINT_SIZE, SceneRenderer.POINT_SIZE);
+            }
+            long ovalNanos = System.nanoTime() - start;
+            BufferedImage dab = ResourceCache.getDab(SceneRenderer.POINT_SIZE, BrushEngine.HARD, 0xFF000000);
+            start = System.nanoTime();
+            for (int i = 0; i < DABS; i++) {
+                g2.drawImage(dab, i % (CANVAS_WIDTH - 20), (i / (CANVAS_WIDTH - 20)) * 60, null);
+            }
+            long dabNanos = System.nanoTime() - start;
+            g2.dispose();
+            System.out.printf("%d dabs: fillOval %7.1f ms   cached dab %7.1f ms%n", DABS, ovalNanos / 1e6, dabNanos / 1e6);
+        }
+
+        Screen screen = new Screen();
+        screen.setSize(CANVAS_WIDTH, CANVAS_HEIGHT);
+        SceneRenderer renderer = screen.getRenderer();
+        renderer.update();
+        PointStore points = screen.getScene().getPoints();
+        for (int i = 0; i < DABS; i++) {
+            double t = i / (double)DABS;
+            points.add(100 + (int)(1700 * (1 - Math.cos(t * 40))), 100 + (int)(950 * (1 - Math.cos(t * 17))), 0xFF000000);
+        }
+        long start = System.nanoTime();
+        renderer.update();
+        long commitNanos = System.nanoTime() - start;
+        BufferedImage frame = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        start = System.nanoTime();
+        for (int i = 0; i < REPAIRS; i++) {
+            Graphics2D g2 = frame.createGraphics();
+            g2.setClip(i * 10, 1900, 64, 64);
+            screen.paint(g2);
+            g2.dispose();
+        }
+        long repaintNanos = System.nanoTime() - start;
+        Rectangle region = new Rectangle(3600, 1950, 64, 64);
+        start = System.nanoTime();
+        for (int i = 0; i < REPAIRS; i++) {
+            renderer.invalidateRegion(region);
+            renderer.update();
+        }
+        long repairNanos = System.nanoTime() - start;
+        System.out.printf("after %d dab stroke: commit %.1f ms, 64px repaint %.3f ms, 64px cache repair away from stroke %.3f ms%n",
+            DABS, commitNanos / 1e6, repaintNanos / 1e6 / REPAIRS, repairNanos / 1e6 / REPAIRS);
+        System.out.println(ResourceCache.getStatistics());
+    }
+}
@@ -0,0 +1,103 @@
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Random;
+
+public class FloodFillBenchmark {
+
+    private static final int WIDTH = 3840;
+    private static final int HEIGHT = 2160;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURE_ITERATIONS = 10;
+
+    public static void main(String[] args) {
+        BufferedImage blank = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        BufferedImage maze = createMaze(WIDTH, HEIGHT, new Random(7));
+
+        verifySameResult(maze);
+
+        measure("4K full-canvas fill, serial", blank, false);
+        measure("4K full-canvas fill, parallel", blank, true);
+        measure("4K maze fill, serial", maze, false);
+        measure("4K maze fill, parallel", maze, true);
+
+        BufferedImage small = new BufferedImage(512, 512, BufferedImage.TYPE_INT_RGB);
+        long start = System.nanoTime();
+        legacyFloodFill(small, 0, 0, small.getRGB(0, 0), 0xFFFF0000);
+        System.out.printf("%-36s %10.2f ms (512x512 only)%n", "legacy getRGB/setRGB fill", (System.nanoTime() - start) / 1e6);
+    }
+
+    private static void measure(String name, BufferedImage source, boolean parallel) {
+        BufferedImage image = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        int[] original = FloodFill.getPixels(source);
+        int[] pixels = FloodFill.getPixels(image);
+        long best = Long.MAX_VALUE;
+        long total = 0;
+
+        for (int i = 0; i < WARMUP_ITERATIONS + MEASURE_ITERATIONS; i++) {
+            System.arraycopy(original, 0, pixels, 0, pixels.length);
+            long start = System.nanoTime();
+            FloodFill.fill(image, 1, 1, 0xFF00FF00, parallel);
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP_ITERATIONS) {
+                best = Math.min(best, elapsed);
+                total += elapsed;
+            }
+        }
+        System.out.printf("%-36s %10.2f ms avg %10.2f ms best%n", name, total / 1e6 / MEASURE_ITERATIONS, best / 1e6);
+    }
+
+    private static void verifySameResult(BufferedImage maze) {
+        BufferedImage serial = copy(maze);
+        BufferedImage parallel = copy(maze);
+        Rectangle serialBounds = FloodFill.fill(serial, 1, 1, 0xFF00FF00, false);
+        Rectangle parallelBounds = FloodFill.fill(parallel, 1, 1, 0xFF00FF00, true);
+        boolean isSame = Arrays.equals(FloodFill.getPixels(serial), FloodFill.getPixels(parallel)) && serialBounds.equals(parallelBounds);
+        System.out.println("serial/parallel results identical: " + isSame + " " + serialBounds);
+        if (!isSame) {
+            throw new IllegalStateException("Parallel flood fill diverged from serial fill");
+        }
+    }
+
+    private static BufferedImage createMaze(int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = FloodFill.getPixels(image);
+        Arrays.fill(pixels, 0xFFFFFF);
+        for (int i = 0; i < 4000; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            int length = 20 + random.nextInt(400);
+            boolean isHorizontal = random.nextBoolean();
+            for (int j = 0; j < length; j++) {
+                int px = isHorizontal ? Math.min(width - 1, x + j) : x;
+                int py = isHorizontal ? y : Math.min(height - 1, y + j);
+                pixels[py * width + px] = 0;
+            }
+        }
+        pixels[width + 1] = 0xFFFFFF;
+        return image;
+    }
+
+    private static BufferedImage copy(BufferedImage source) {
+        BufferedImage image = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        System.arraycopy(FloodFill.getPixels(source), 0, FloodFill.getPixels(image), 0, source.getWidth() * source.getHeight());
+        return image;
+    }
+
+    private static void legacyFloodFill(BufferedImage image, int x, int y, int targetRGB, int replacementRGB) {
+        LinkedList<Point> stack = new LinkedList<>();
+        stack.push(new Point(x, y));
+        while (!stack.isEmpty()) {
+            Point p = stack.pop();
+            if (p.x < 0 || p.y < 0 || p.x >= image.getWidth() || p.y >= image.getHeight()) continue;
+            if (image.getRGB(p.x, p.y) != targetRGB) continue;
+            image.setRGB(p.x, p.y, replacementRGB);
+            stack.push(new Point(p.x + 1, p.y));
+            stack.push(new Point(p.x - 1, p.y));
+            stack.push(new Point(p.x, p.y + 1));
+            stack.push(new Point(p.x, p.y - 1));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
+public class ImageTransformBenchmark {
+
+    private static final int WIDTH = 6000;
+    private static final int HEIGHT = 4000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+
+    private static final int[] TRANSFORMS = {
+        RasterTransform.FLIP_HORIZONTAL,
+        RasterTransform.FLIP_VERTICAL,
+        RasterTransform.ROTATE_CLOCKWISE,
+        RasterTransform.ROTATE_COUNTER_CLOCKWISE
+    };
+
+    public static void main(String[] args) {
+        BufferedImage image = createNoise(WIDTH, HEIGHT, new Random(11));
+        System.out.printf("%dx%d (%.1f MP), parallelism %d%n", WIDTH, HEIGHT, WIDTH * HEIGHT / 1e6,
+            java.util.concurrent.ForkJoinPool.getCommonPoolParallelism());
+
+        for (int transform : TRANSFORMS) {
+            verifySameResult(image, transform);
+        }
+        for (int transform : TRANSFORMS) {
+            String name = RasterTransform.getName(transform);
+            measureLegacy(name + ", legacy getRGB/setRGB", image, transform);
+            measure(name + ", raster serial", image, transform, false);
+            measure(name + ", raster parallel", image, transform, true);
+        }
+    }
+
+    private static void measure(String name, BufferedImage image, int transform, boolean parallel) {
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS + MEASURE_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            RasterTransform.apply(image, transform, parallel);
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP_ITERATIONS) {
+                best = Math.min(best, elapsed);
+                total += elapsed;
+            }
+        }
+        System.out.printf("%-52s %10.2f ms avg %10.2f ms best%n", name, total / 1e6 / MEASURE_ITERATIONS, best / 1e6);
+    }
+
+    private static void measureLegacy(String name, BufferedImage image, int transform) {
+        legacyTransform(image, transform);
+        long start = System.nanoTime();
+        legacyTransform(image, transform);
+        System.out.printf("%-52s %10.2f ms (single run)%n", name, (System.nanoTime() - start) / 1e6);
+    }
+
+    private static void verifySameResult(BufferedImage image, int transform) {
+        int[] legacy = FloodFill.getPixels(legacyTransform(image, transform));
+        int[] serial = FloodFill.getPixels(RasterTransform.apply(image, transform, false));
+        int[] parallel = FloodFill.getPixels(RasterTransform.apply(image, transform, true));
+        boolean isSame = Arrays.equals(legacy, serial) && Arrays.equals(legacy, parallel);
+        System.out.println(RasterTransform.getName(transform) + " matches legacy: " + isSame);
+        if (!isSame) {
+            throw new IllegalStateException("Raster transform diverged from legacy implementation");
+        }
+    }
+
+    private static BufferedImage createNoise(int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = FloodFill.getPixels(image);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt() & 0xFFFFFF;
+        }
+        return image;
+    }
+
+    private static BufferedImage legacyTransform(BufferedImage image, int transform) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean isRotation = transform == RasterTransform.ROTATE_CLOCKWISE || transform == RasterTransform.ROTATE_COUNTER_CLOCKWISE;
+        BufferedImage result = isRotation
+            ? new BufferedImage(height, width, BufferedImage.TYPE_INT_RGB)
+            : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                if (transform == RasterTransform.FLIP_HORIZONTAL) {
+                    result.setRGB(width - 1 - x, y, rgb);
+                } else if (transform == RasterTransform.FLIP_VERTICAL) {
+                    result.setRGB(x, height - 1 - y, rgb);
+                } else if (transform == RasterTransform.ROTATE_CLOCKWISE) {
+                    result.setRGB(height - 1 - y, x, rgb);
+                } else {
+                    result.setRGB(y, width - 1 - x, rgb);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class InputBenchmark {
+
+    private static final int CANVAS_WIDTH = 3840;
+    private static final int CANVAS_HEIGHT = 2160;
+    private static final int OBJECT_COUNT = 10_000;
+    private static final int EVENTS = 1000;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.printf("Java %s, %d cpus, canvas %dx%d, %d drag events (1 s of a 1000 Hz mouse) at %d Hz frames%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), CANVAS_WIDTH, CANVAS_HEIGHT, EVENTS, FrameScheduler.DEFAULT_REFRESH_RATE);
+        for (int round = 0; round < 2; round++) {
+            measure("paint per event", 1);
+            measure("paint per frame", EVENTS / FrameScheduler.DEFAULT_REFRESH_RATE);
+        }
+    }
+
+    private static void measure(String name, int eventsPerFrame) {
+        Screen screen = new Screen();
+        screen.setSize(CANVAS_WIDTH, CANVAS_HEIGHT);
+        BufferedImage frame = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        paint(screen, frame, new Rectangle(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT));
+        Random random = new Random(SEED);
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            Point p = new Point(random.nextInt(CANVAS_WIDTH - 100), random.nextInt(CANVAS_HEIGHT - 100));
+            screen.getScene().addObject(new DrawRectangle(p, new Point(p.x + 10 + random.nextInt(80), p.y + 10 + random.nextInt(80)), Color.BLACK, 1, false, Color.WHITE));
+        }
+        paint(screen, frame, new Rectangle(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT));
+        screen.setDrawMode(Screen.POINT);
+        screen.mousePressed(new MouseEvent(screen, MouseEvent.MOUSE_PRESSED, System.currentTimeMillis(), InputEvent.BUTTON1_DOWN_MASK, 100, 100, 1, false, MouseEvent.BUTTON1));
+
+        BrushEngine brush = new BrushEngine(SceneRenderer.POINT_SIZE, BrushEngine.HARD, BrushEngine.DEFAULT_SPACING);
+        int[] expected = { 0 };
+        brush.beginStroke(100, 100, (x, y) -> expected[0]++);
+        for (int i = 0; i < EVENTS; i++) {
+            brush.strokeTo(100 + (int)(1500 * Math.sin(i / 150.0) + 1500), 100 + i, (x, y) -> expected[0]++);
+        }
+
+        long start = System.nanoTime();
+        int frames = 0;
+        Rectangle dirty = null;
+        int lastX = 100;
+        int lastY = 100;
+        for (int i = 0; i < EVENTS; i++) {
+            int x = 100 + (int)(1500 * Math.sin(i / 150.0) + 1500);
+            int y = 100 + i;
+            screen.mouseDragged(new MouseEvent(screen, MouseEvent.MOUSE_DRAGGED, System.currentTimeMillis(), InputEvent.BUTTON1_DOWN_MASK, x, y, 0, false, MouseEvent.NOBUTTON));
+            Rectangle point = SceneRenderer.getPointBounds(x, y);
+            dirty = (dirty == null) ? point.union(SceneRenderer.getPointBounds(lastX, lastY)) : dirty.union(point);
+            lastX = x;
+            lastY = y;
+            if ((i + 1) % eventsPerFrame == 0 || i == EVENTS - 1) {
+                screen.flushInput();
+                dirty.grow(2, 2);
+                paint(screen, frame, dirty);
+                dirty = null;
+                frames++;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        screen.mouseReleased(new MouseEvent(screen, MouseEvent.MOUSE_RELEASED, System.currentTimeMillis(), 0, 100, 100, 1, false, MouseEvent.BUTTON1));
+        System.out.printf("%-20s %5d paints %10.1f ms total %8.3f ms/event, %d of %d dabs kept%n",
+            name, frames, nanos / 1e6, nanos / 1e6 / EVENTS, screen.getScene().getPoints().size(), expected[0]);
+    }
+
+    private static void paint(Screen screen, BufferedImage frame, Rectangle clip) {
+        Graphics2D g2 = frame.createGraphics();
+        g2.setClip(clip);
+        screen.paint(g2);
+        g2.dispose();
+    }
+}
@@ -0,0 +1,156 @@
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+public class JournalBenchmark {
+
+    private static final int CANVAS_WIDTH = 1920;
+    private static final int CANVAS_HEIGHT = 1080;
+    private static final int GROUP_COMMIT_POINTS = 100_000;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int objectCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int edits = (args.length > 1) ? Integer.parseInt(args[1]) : 50;
+        System.out.printf("Java %s, %d cpus, %d objects, %d edits%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), objectCount, edits);
+
+        File workDir = new File(System.getProperty("java.io.tmpdir"), "journal-benchmark");
+        workDir.mkdirs();
+        Random random = new Random(SEED);
+        Scene scene = createScene(objectCount, random);
+        BufferedImage background = scene.getBackground();
+        File document = new File(workDir, "drawing.sav");
+        File journalFile = OperationJournal.getJournalFile(document);
+
+        long[] fullSaves = new long[3];
+        for (int i = 0; i < fullSaves.length; i++) {
+            long start = System.nanoTime();
+            SceneFile.write(scene, document, false);
+            fullSaves[i] = System.nanoTime() - start;
+        }
+        report("full snapshot save", fullSaves);
+
+        long start = System.nanoTime();
+        OperationJournal journal = OperationJournal.create(journalFile, document.length(), OperationJournal.encodeImage(background));
+        System.out.printf("%-28s %10.2f ms%n", "journal create (background)", (System.nanoTime() - start) / 1e6);
+
+        long[] commits = new long[edits];
+        for (int i = 0; i < edits; i++) {
+            AbstractDrawingObject obj = randomObject(random, i);
+            scene.addObject(obj);
+            journal.addObject(obj);
+            if (i % 5 == 4) {
+                journal.translate(scene.indicesOf(Collections.singletonList(obj)), 7, -3);
+                obj.translate(7, -3);
+                scene.updateObjectBounds(obj);
+            }
+            start = System.nanoTime();
+            journal.commit();
+            journal.sync();
+            commits[i] = System.nanoTime() - start;
+        }
+        report("edit + journal commit", commits);
+        System.out.printf("%-28s %10.0fx%n", "commit vs full save", (double)best(fullSaves) / best(commits));
+
+        start = System.nanoTime();
+        for (int i = 0; i < GROUP_COMMIT_POINTS; i++) {
+            int x = random.nextInt(CANVAS_WIDTH);
+            int y = random.nextInt(CANVAS_HEIGHT);
+            scene.getPoints().add(x, y, Color.BLACK.getRGB());
+            journal.addPoint(x, y, Color.BLACK.getRGB());
+        }
+        long appendNanos = System.nanoTime() - start;
+        journal.sync();
+        long totalNanos = System.nanoTime() - start;
+        System.out.printf("%-28s %10.2f ms append %10.2f ms durable (%.0f ops/s)%n", GROUP_COMMIT_POINTS + " grouped points",
+            appendNanos / 1e6, totalNanos / 1e6, GROUP_COMMIT_POINTS / (totalNanos / 1e9));
+        journal.commit();
+        journal.close(false);
+        System.out.printf("%-28s %10.1f KB%n", "journal size", journalFile.length() / 1e3);
+
+        try (FileOutputStream torn = new FileOutputStream(journalFile, true)) {
+            torn.write(new byte[] {0x7F, 3, 1, 4});
+        }
+        Scene recovered = SceneFile.load(document, background);
+        start = System.nanoTime();
+        OperationJournal.Replay replay = OperationJournal.replayDocument(document, recovered, null, null);
+        System.out.printf("%-28s %10.2f ms (%s)%n", "replay after torn write", (System.nanoTime() - start) / 1e6, replay);
+        System.out.println("snapshot + journal replay keeps scene: " + sameScene(scene, recovered));
+
+        journal = OperationJournal.open(journalFile);
+        AbstractDrawingObject unsaved = randomObject(random, edits);
+        journal.addObject(unsaved);
+        journal.sync();
+        journal.close(false);
+        replay = OperationJournal.replayDocument(document, SceneFile.load(document, background), null, null);
+        System.out.println("crash keeps unsaved edit for recovery: " + (replay.getUncommitted() == 1));
+
+        journal = OperationJournal.open(journalFile);
+        journal.close(true);
+        replay = OperationJournal.replayDocument(document, SceneFile.load(document, background), null, null);
+        System.out.println("clean exit discards unsaved edit: " + (replay.getUncommitted() == 0));
+    }
+
+    private static Scene createScene(int objectCount, Random random) {
+        Scene scene = new Scene(CANVAS_WIDTH, CANVAS_HEIGHT);
+        for (int i = 0; i < objectCount / 10; i++) {
+            scene.getPoints().add(random.nextInt(CANVAS_WIDTH), random.nextInt(CANVAS_HEIGHT), Color.BLACK.getRGB());
+        }
+        for (int i = 0; i < objectCount; i++) {
+            scene.addObject(randomObject(random, i));
+        }
+        return scene;
+    }
+
+    private static AbstractDrawingObject randomObject(Random random, int i) {
+        Point start = new Point(random.nextInt(CANVAS_WIDTH), random.nextInt(CANVAS_HEIGHT));
+        Point end = new Point(start.x + 5 + random.nextInt(60), start.y + 5 + random.nextInt(60));
+        Color color = new Color(random.nextInt(0x1000000));
+        int kind = random.nextInt(10);
+        if (kind == 0) {
+            return new DrawText(start, color, "text " + i, 12 + random.nextInt(12));
+        } else if (kind < 5) {
+            return new DrawLine(start, end, color, 1 + random.nextInt(4));
+        } else if (kind < 8) {
+            return new DrawRectangle(start, end, color, 1 + random.nextInt(4), random.nextBoolean(), Color.WHITE);
+        }
+        return new DrawCircle(start, end, color, 1 + random.nextInt(4), random.nextBoolean(), Color.WHITE);
+    }
+
+    private static boolean sameScene(Scene expected, Scene actual) {
+        if (expected.getPoints().size() != actual.getPoints().size() || expected.getObjectCount() != actual.getObjectCount()) {
+            return false;
+        }
+        Iterator<AbstractDrawingObject> actualObjects = actual.getObjects().iterator();
+        for (AbstractDrawingObject obj : expected.getObjects()) {
+            if (!obj.toString().equals(actualObjects.next().toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long best(long[] times) {
+        long best = Long.MAX_VALUE;
+        for (long time : times) {
+            best = Math.min(best, time);
+        }
+        return best;
+    }
+
+    private static void report(String name, long[] times) {
+        long total = 0;
+        for (long time : times) {
+            total += time;
+        }
+        System.out.printf("%-28s %10.2f ms avg %10.2f ms best%n", name, total / 1e6 / times.length, best(times) / 1e6);
+    }
+}
@@ -0,0 +1,133 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class MipPyramidBenchmark {
+
+    private static final int VIEW_WIDTH = 1920;
+    private static final int VIEW_HEIGHT = 1080;
+    private static final int OBJECT_COUNT = 10_000;
+    private static final int FRAMES = 20;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int width = (args.length > 0) ? Integer.parseInt(args[0]) : 12000;
+        int height = (args.length > 1) ? Integer.parseInt(args[1]) : 8000;
+        System.out.printf("Java %s, %d cpus, max heap %d MB, canvas %dx%d (%.0f MP), view %dx%d%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() >> 20, width, height, width * (double)height / 1e6, VIEW_WIDTH, VIEW_HEIGHT);
+
+        Scene scene = new Scene(width, height);
+        Random random = new Random(SEED);
+        Graphics2D g2 = scene.getBackground().createGraphics();
+        for (int i = 0; i < 2000; i++) {
+            g2.setColor(new Color(random.nextInt(0x1000000)));
+            g2.fillRect(random.nextInt(width), random.nextInt(height), 50 + random.nextInt(800), 50 + random.nextInt(800));
+        }
+        g2.dispose();
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            Point p = new Point(random.nextInt(width - 100), random.nextInt(height - 100));
+            scene.addObject(new DrawRectangle(p, new Point(p.x + 10 + random.nextInt(80), p.y + 10 + random.nextInt(80)), Color.BLACK, 1, false, Color.WHITE));
+        }
+        SceneRenderer renderer = new SceneRenderer(scene);
+        BufferedImage cache = renderer.update();
+        BufferedImage frame = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        for (double zoom : new double[] { 0.5, 0.25, 0.125, Math.min(VIEW_WIDTH / (double)width, VIEW_HEIGHT / (double)height) }) {
+            long[] direct = new long[FRAMES];
+            for (int i = 0; i < FRAMES; i++) {
+                long start = System.nanoTime();
+                Graphics2D g = frame.createGraphics();
+                g.drawImage(cache, 0, 0, (int)(width * zoom), (int)(height * zoom), null);
+                g.dispose();
+                direct[i] = System.nanoTime() - start;
+            }
+            int level = MipPyramid.levelFor(zoom);
+            long start = System.nanoTime();
+            paintLevel(renderer, frame, zoom);
+            long firstNanos = System.nanoTime() - start;
+            long[] cached = new long[FRAMES];
+            for (int i = 0; i < FRAMES; i++) {
+                start = System.nanoTime();
+                paintLevel(renderer, frame, zoom);
+                cached[i] = System.nanoTime() - start;
+            }
+            System.out.printf("zoom %.3f (level %d): direct %8.2f ms   pyramid first %8.2f ms, cached %6.2f ms   error %5.2f vs %5.2f%n",
+                zoom, level, average(direct) / 1e6, firstNanos / 1e6, average(cached) / 1e6,
+                meanError(cache, zoom, false, renderer), meanError(cache, zoom, true, renderer));
+        }
+
+        double zoom = 0.125;
+        long[] edits = new long[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            Rectangle region = new Rectangle(random.nextInt(width - 512), random.nextInt(height - 512), 512, 512);
+            Graphics2D g = scene.getBackground().createGraphics();
+            g.setColor(new Color(random.nextInt(0x1000000)));
+            g.fill(region);
+            g.dispose();
+            long start = System.nanoTime();
+            renderer.invalidateRegion(region);
+            renderer.update();
+            paintLevel(renderer, frame, zoom);
+            edits[i] = System.nanoTime() - start;
+        }
+        MipPyramid pyramid = renderer.getPyramid();
+        System.out.printf("512x512 edit + repaint at 0.125: %8.2f ms avg, %d tiles built total, pyramid %.1f MB (cache %.1f MB)%n",
+            average(edits) / 1e6, pyramid.getTilesBuilt(), pyramid.getMemoryUsage() / (1024.0 * 1024), 4.0 * width * height / (1024 * 1024));
+    }
+
+    private static void paintLevel(SceneRenderer renderer, BufferedImage frame, double zoom) {
+        int level = MipPyramid.levelFor(zoom);
+        BufferedImage image = renderer.getPyramid().getLevel(level, new Rectangle(0, 0, (int)Math.ceil(VIEW_WIDTH / zoom), (int)Math.ceil(VIEW_HEIGHT / zoom)));
+        double levelScale = zoom * (1 << level);
+        Graphics2D g = frame.createGraphics();
+        g.drawImage(image, 0, 0, (int)Math.round(image.getWidth() * levelScale), (int)Math.round(image.getHeight() * levelScale), null);
+        g.dispose();
+    }
+
+    private static double meanError(BufferedImage cache, double zoom, boolean isPyramid, SceneRenderer renderer) {
+        int factor = (int)Math.round(1 / zoom);
+        int width = Math.min(VIEW_WIDTH, cache.getWidth() / factor);
+        int height = Math.min(VIEW_HEIGHT, cache.getHeight() / factor);
+        BufferedImage frame = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        if (isPyramid) {
+            paintLevel(renderer, frame, 1.0 / factor);
+        } else {
+            Graphics2D g = frame.createGraphics();
+            g.drawImage(cache, 0, 0, cache.getWidth() / factor, cache.getHeight() / factor, null);
+            g.dispose();
+        }
+        long error = 0;
+        int step = 7;
+        long samples = 0;
+        for (int y = 0; y < height; y += step) {
+            for (int x = 0; x < width; x += step) {
+                int r = 0, gr = 0, b = 0;
+                for (int sy = 0; sy < factor; sy++) {
+                    for (int sx = 0; sx < factor; sx++) {
+                        int pixel = cache.getRGB(x * factor + sx, y * factor + sy);
+                        r += (pixel >> 16) & 0xFF;
+                        gr += (pixel >> 8) & 0xFF;
+                        b += pixel & 0xFF;
+                    }
+                }
+                int n = factor * factor;
+                int pixel = frame.getRGB(x, y);
+                error += Math.abs(((pixel >> 16) & 0xFF) - r / n) + Math.abs(((pixel >> 8) & 0xFF) - gr / n) + Math.abs((pixel & 0xFF) - b / n);
+                samples += 3;
+            }
+        }
+        return error / (double)samples;
+    }
+
+    private static double average(long[] times) {
+        long total = 0;
+        for (long time : times) {
+            total += time;
+        }
+        return total / (double)times.length;
+    }
+}
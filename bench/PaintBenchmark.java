@@ -0,0 +1,115 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class PaintBenchmark {
+
+    private static final int CANVAS_WIDTH = 3840;
+    private static final int CANVAS_HEIGHT = 2160;
+    private static final int OBJECT_COUNT = 10_000;
+    private static final int FRAMES = 200;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.printf("Java %s, %d cpus, canvas %dx%d%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), CANVAS_WIDTH, CANVAS_HEIGHT);
+
+        Screen screen = new Screen();
+        screen.setSize(CANVAS_WIDTH, CANVAS_HEIGHT);
+        BufferedImage frame = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        paint(screen, frame, CANVAS_WIDTH, CANVAS_HEIGHT);
+        Random random = new Random(SEED);
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            Point p = new Point(random.nextInt(CANVAS_WIDTH - 100), random.nextInt(CANVAS_HEIGHT - 100));
+            screen.getScene().addObject(new DrawRectangle(p, new Point(p.x + 10 + random.nextInt(80), p.y + 10 + random.nextInt(80)), Color.BLACK, 1, false, Color.WHITE));
+        }
+        paint(screen, frame, CANVAS_WIDTH, CANVAS_HEIGHT);
+
+        for (int round = 0; round < 2; round++) {
+            report("full-frame repaint", measure(screen, frame, CANVAS_WIDTH, CANVAS_HEIGHT));
+            report("256x256 dirty-region repaint", measure(screen, frame, 256, 256));
+        }
+
+        screen.setDrawMode(Screen.FILL_BUCKET);
+        long[] fills = new long[10];
+        for (int i = 0; i < fills.length; i++) {
+            screen.setCurrentFillColor((i % 2 == 0) ? Color.RED : Color.BLUE);
+            long start = System.nanoTime();
+            click(screen, 3, 3);
+            fills[i] = System.nanoTime() - start;
+            paint(screen, frame, CANVAS_WIDTH, CANVAS_HEIGHT);
+        }
+        report("flood fill after repaint", fills);
+
+        screen.setDrawMode(Screen.RECTANGLE);
+        screen.setCurrentStroke(3);
+        screen.setCurrentFill(true);
+        long[] drags = new long[FRAMES];
+        press(screen, 500, 500);
+        Rectangle previous = new Rectangle(500, 500, 1, 1);
+        for (int i = 0; i < drags.length; i++) {
+            int x = 510 + i * 5;
+            int y = 510 + i * 3;
+            long start = System.nanoTime();
+            drag(screen, x, y);
+            screen.flushInput();
+            Rectangle current = new Rectangle(500, 500, x - 500 + 1, y - 500 + 1);
+            Rectangle dirty = previous.union(current);
+            dirty.grow(6, 6);
+            Graphics2D g2 = frame.createGraphics();
+            g2.setClip(dirty);
+            screen.paint(g2);
+            g2.dispose();
+            drags[i] = System.nanoTime() - start;
+            previous = current;
+        }
+        report("rectangle preview drag", drags);
+    }
+
+    private static long[] measure(Screen screen, BufferedImage frame, int width, int height) {
+        long[] times = new long[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            long start = System.nanoTime();
+            paint(screen, frame, width, height);
+            times[i] = System.nanoTime() - start;
+        }
+        return times;
+    }
+
+    private static void paint(Screen screen, BufferedImage frame, int width, int height) {
+        Graphics2D g2 = frame.createGraphics();
+        g2.setClip(0, 0, width, height);
+        screen.paint(g2);
+        g2.dispose();
+    }
+
+    private static void press(Screen screen, int x, int y) {
+        screen.mousePressed(new MouseEvent(screen, MouseEvent.MOUSE_PRESSED, System.currentTimeMillis(), InputEvent.BUTTON1_DOWN_MASK, x, y, 1, false, MouseEvent.BUTTON1));
+    }
+
+    private static void drag(Screen screen, int x, int y) {
+        screen.mouseDragged(new MouseEvent(screen, MouseEvent.MOUSE_DRAGGED, System.currentTimeMillis(), InputEvent.BUTTON1_DOWN_MASK, x, y, 0, false, MouseEvent.NOBUTTON));
+    }
+
+    private static void click(Screen screen, int x, int y) {
+        long now = System.currentTimeMillis();
+        screen.mousePressed(new MouseEvent(screen, MouseEvent.MOUSE_PRESSED, now, InputEvent.BUTTON1_DOWN_MASK, x, y, 1, false, MouseEvent.BUTTON1));
+        screen.mouseReleased(new MouseEvent(screen, MouseEvent.MOUSE_RELEASED, now, 0, x, y, 1, false, MouseEvent.BUTTON1));
+    }
+
+    private static void report(String name, long[] times) {
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (long time : times) {
+            best = Math.min(best, time);
+            total += time;
+        }
+        System.out.printf("%-30s %10.2f ms avg %10.2f ms best%n", name, total / 1e6 / times.length, best / 1e6);
+    }
+}
@@ -0,0 +1,81 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class PanBenchmark {
+
+    private static final int VIEW_WIDTH = 1920;
+    private static final int VIEW_HEIGHT = 1080;
+    private static final int STEP = 16;
+    private static final int FRAMES = 60;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.printf("Java %s, %d cpus, view %dx%d, pan %d px/frame diagonally%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), VIEW_WIDTH, VIEW_HEIGHT, STEP);
+        measure(3840, 2160, 10_000);
+        measure(12000, 8000, 100_000);
+    }
+
+    private static void measure(int width, int height, int objectCount) {
+        Screen screen = new Screen();
+        screen.setSize(width, height);
+        BufferedImage frame = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        paint(screen, frame, new Rectangle(0, 0, VIEW_WIDTH, VIEW_HEIGHT), 0, 0);
+        Random random = new Random(SEED);
+        for (int i = 0; i < objectCount; i++) {
+            Point p = new Point(random.nextInt(width - 100), random.nextInt(height - 100));
+            screen.getScene().addObject(new DrawRectangle(p, new Point(p.x + 10 + random.nextInt(80), p.y + 10 + random.nextInt(80)), Color.BLACK, 1, false, Color.WHITE));
+        }
+        paint(screen, frame, new Rectangle(0, 0, VIEW_WIDTH, VIEW_HEIGHT), 0, 0);
+
+        for (float zoom : new float[] { 1.0f, 0.25f, 2.0f }) {
+            screen.setZoomLevel(zoom);
+            int startX = (int)(width * zoom / 4);
+            int startY = (int)(height * zoom / 4);
+            paint(screen, frame, new Rectangle(startX, startY, VIEW_WIDTH, VIEW_HEIGHT), startX, startY);
+            long[] full = new long[FRAMES];
+            long[] blit = new long[FRAMES];
+            for (int i = 0; i < FRAMES; i++) {
+                int x = startX + i * STEP;
+                int y = startY + i * STEP;
+                long start = System.nanoTime();
+                paint(screen, frame, new Rectangle(x, y, VIEW_WIDTH, VIEW_HEIGHT), x, y);
+                full[i] = System.nanoTime() - start;
+            }
+            for (int i = 0; i < FRAMES; i++) {
+                int x = startX + (FRAMES + i) * STEP;
+                int y = startY + (FRAMES + i) * STEP;
+                long start = System.nanoTime();
+                Graphics2D g2 = frame.createGraphics();
+                g2.copyArea(STEP, STEP, VIEW_WIDTH - STEP, VIEW_HEIGHT - STEP, -STEP, -STEP);
+                g2.dispose();
+                paint(screen, frame, new Rectangle(x, y + VIEW_HEIGHT - STEP, VIEW_WIDTH, STEP), x, y);
+                paint(screen, frame, new Rectangle(x + VIEW_WIDTH - STEP, y, STEP, VIEW_HEIGHT - STEP), x, y);
+                blit[i] = System.nanoTime() - start;
+            }
+            System.out.printf("%5dx%-5d %7d objects, zoom %4.2f: full repaint %7.2f ms/frame   blit + exposed strips %6.2f ms/frame%n",
+                width, height, objectCount, zoom, average(full) / 1e6, average(blit) / 1e6);
+        }
+    }
+
+    private static void paint(Screen screen, BufferedImage frame, Rectangle clip, int viewX, int viewY) {
+        Graphics2D g2 = frame.createGraphics();
+        g2.translate(-viewX, -viewY);
+        g2.setClip(clip);
+        screen.paint(g2);
+        g2.dispose();
+    }
+
+    private static double average(long[] times) {
+        long total = 0;
+        for (long time : times) {
+            total += time;
+        }
+        return total / (double)times.length;
+    }
+}
@@ -0,0 +1,187 @@
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SceneFileBenchmark {
+
+    private static final int CANVAS_WIDTH = 1920;
+    private static final int CANVAS_HEIGHT = 1080;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        int objectCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 3;
+        System.out.printf("Java %s, %d cpus, %d objects, %d iterations%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), objectCount, iterations);
+
+        File workDir = new File(System.getProperty("java.io.tmpdir"), "scene-file-benchmark");
+        workDir.mkdirs();
+        Scene scene = createScene(objectCount, new Random(SEED));
+        BufferedImage background = scene.getBackground();
+
+        File legacy = new File(workDir, "legacy.sav");
+        File plain = new File(workDir, "chunked.sav");
+        File deflated = new File(workDir, "chunked-deflate.sav");
+
+        long[] legacySave = new long[iterations];
+        long[] legacyOpen = new long[iterations];
+        long[] plainSave = new long[iterations];
+        long[] plainOpen = new long[iterations];
+        long[] deflateSave = new long[iterations];
+        long[] deflateOpen = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            writeLegacy(scene, legacy);
+            legacySave[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            readLegacy(new Scene(CANVAS_WIDTH, CANVAS_HEIGHT), legacy);
+            legacyOpen[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            SceneFile.write(scene, plain, false);
+            plainSave[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            SceneFile.load(plain, background);
+            plainOpen[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            SceneFile.write(scene, deflated, true);
+            deflateSave[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            SceneFile.load(deflated, background);
+            deflateOpen[i] = System.nanoTime() - start;
+        }
+
+        report("legacy save", legacySave, legacySave);
+        report("legacy open", legacyOpen, legacyOpen);
+        report("v3 save", plainSave, legacySave);
+        report("v3 open", plainOpen, legacyOpen);
+        report("v3 deflate save", deflateSave, legacySave);
+        report("v3 deflate open", deflateOpen, legacyOpen);
+        System.out.printf("%-20s %10.1f MB%n", "legacy size", legacy.length() / 1e6);
+        System.out.printf("%-20s %10.1f MB %6.1fx smaller%n", "v3 size", plain.length() / 1e6, (double)legacy.length() / plain.length());
+        System.out.printf("%-20s %10.1f MB %6.1fx smaller%n", "v3 deflate size", deflated.length() / 1e6, (double)legacy.length() / deflated.length());
+
+        Scene legacyLoaded = SceneFile.load(legacy, background);
+        System.out.println("legacy file loads through SceneFile: " + (legacyLoaded.getObjectCount() == scene.getObjectCount()));
+        System.out.println("v" + SceneFile.VERSION + " round trip keeps scene: " + sameScene(scene, SceneFile.load(plain, background)));
+        System.out.println("v" + SceneFile.VERSION + " deflate round trip keeps scene: " + sameScene(scene, SceneFile.load(deflated, background)));
+
+        AtomicLong progress = new AtomicLong();
+        long start = System.nanoTime();
+        try {
+            SceneFile.load(plain, background, progress, () -> progress.get() > 0);
+            System.out.println("cancelled load: not cancelled");
+        } catch (CancellationException e) {
+            System.out.printf("cancelled load: stopped after %.2f ms, %d of %d bytes%n", (System.nanoTime() - start) / 1e6, progress.get(), plain.length());
+        }
+    }
+
+    private static Scene createScene(int objectCount, Random random) {
+        Scene scene = new Scene(CANVAS_WIDTH, CANVAS_HEIGHT);
+        Color[] palette = new Color[24];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = new Color(random.nextInt(0x1000000));
+        }
+        for (int i = 0; i < objectCount / 10; i++) {
+            scene.getPoints().add(random.nextInt(CANVAS_WIDTH), random.nextInt(CANVAS_HEIGHT), palette[random.nextInt(palette.length)].getRGB());
+        }
+        for (int i = 0; i < objectCount; i++) {
+            Point start = new Point(random.nextInt(CANVAS_WIDTH), random.nextInt(CANVAS_HEIGHT));
+            Point end = new Point(start.x + 5 + random.nextInt(60), start.y + 5 + random.nextInt(60));
+            Color color = palette[random.nextInt(palette.length)];
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                scene.addObject(new DrawText(start, color, "text " + i, 12 + random.nextInt(12)));
+            } else if (kind < 5) {
+                scene.addObject(new DrawLine(start, end, color, 1 + random.nextInt(4)));
+            } else if (kind < 8) {
+                scene.addObject(new DrawRectangle(start, end, color, 1 + random.nextInt(4), random.nextBoolean(), palette[random.nextInt(palette.length)]));
+            } else {
+                scene.addObject(new DrawCircle(start, end, color, 1 + random.nextInt(4), random.nextBoolean(), palette[random.nextInt(palette.length)]));
+            }
+        }
+        return scene;
+    }
+
+    private static void writeLegacy(Scene scene, File file) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(file))) {
+            PointStore points = scene.getPoints();
+            dos.writeInt(points.size());
+            for (int i = 0; i < points.size(); i++) {
+                dos.writeInt(points.getX(i));
+                dos.writeInt(points.getY(i));
+            }
+            dos.writeInt(scene.getObjectCount());
+            for (AbstractDrawingObject obj : scene.getObjects()) {
+                obj.saveToStream(dos);
+            }
+        }
+    }
+
+    private static void readLegacy(Scene scene, File file) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            int pointCount = dis.readInt();
+            for (int i = 0; i < pointCount; i++) {
+                scene.getPoints().add(dis.readInt(), dis.readInt(), Color.BLACK.getRGB());
+            }
+            int objectCount = dis.readInt();
+            for (int i = 0; i < objectCount; i++) {
+                int drawMode = dis.readInt();
+                AbstractDrawingObject obj = null;
+                switch (drawMode) {
+                    case Screen.LINE: obj = DrawLine.loadFromStream(dis); break;
+                    case Screen.CIRCLE: obj = DrawCircle.loadFromStream(dis); break;
+                    case Screen.RECTANGLE: obj = DrawRectangle.loadFromStream(dis); break;
+                    case Screen.TEXT: obj = DrawText.loadFromStream(dis); break;
+                }
+                if (obj != null && obj.isValid()) {
+                    scene.addObject(obj);
+                }
+            }
+        }
+    }
+
+    private static boolean sameScene(Scene expected, Scene actual) {
+        if (expected.getPoints().size() != actual.getPoints().size() || expected.getObjectCount() != actual.getObjectCount()) {
+            return false;
+        }
+        for (int i = 0; i < expected.getPoints().size(); i++) {
+            if (expected.getPoints().getX(i) != actual.getPoints().getX(i)
+                || expected.getPoints().getY(i) != actual.getPoints().getY(i)
+                || expected.getPoints().getColor(i) != actual.getPoints().getColor(i)) {
+                return false;
+            }
+        }
+        Iterator<AbstractDrawingObject> actualObjects = actual.getObjects().iterator();
+        for (AbstractDrawingObject obj : expected.getObjects()) {
+            if (!obj.toString().equals(actualObjects.next().toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void report(String name, long[] times, long[] baseline) {
+        long best = Long.MAX_VALUE;
+        long baselineBest = Long.MAX_VALUE;
+        for (int i = 0; i < times.length; i++) {
+            best = Math.min(best, times[i]);
+            baselineBest = Math.min(baselineBest, baseline[i]);
+        }
+        System.out.printf("%-20s %10.2f ms best %6.1fx%n", name, best / 1e6, (double)baselineBest / best);
+    }
+}
@@ -0,0 +1,235 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ScreenBenchmark {
+
+    private static final int CANVAS_WIDTH = 1920;
+    private static final int CANVAS_HEIGHT = 1080;
+    private static final int[] DEFAULT_SCENE_SIZES = {100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int[] sceneSizes = (args.length > 0) ? parseSizes(args[0]) : DEFAULT_SCENE_SIZES;
+
+        System.out.printf("Java %s, %d cpus, common pool parallelism %d, canvas %dx%d%n",
+            System.getProperty("java.version"), Runtime.getRuntime().availableProcessors(),
+            ForkJoinPool.getCommonPoolParallelism(), CANVAS_WIDTH, CANVAS_HEIGHT);
+
+        File workDir = new File(System.getProperty("java.io.tmpdir"), "screen-benchmark");
+        workDir.mkdirs();
+
+        for (int objectCount : sceneSizes) {
+            benchmarkScene(objectCount, workDir);
+        }
+        benchmarkRaster(workDir);
+    }
+
+    private static void benchmarkScene(int objectCount, File workDir) throws IOException {
+        System.out.println();
+        System.out.println("== scene with " + objectCount + " objects ==");
+        File scene = new File(workDir, "scene-" + objectCount + ".sav");
+        writeScene(scene, objectCount, new Random(SEED));
+        System.out.printf("%-28s %10.1f MB%n", "file size", scene.length() / 1e6);
+
+        int iterations = (objectCount >= 100_000) ? 3 : 10;
+        Screen screen = createScreen();
+        BufferedImage frame = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        paint(screen, frame);
+
+        long[] openTimes = new long[iterations];
+        long[] coldPaintTimes = new long[iterations];
+        long[] warmPaintTimes = new long[iterations];
+        long[] saveTimes = new long[iterations];
+        long[] saveImageTimes = new long[iterations];
+        File saved = new File(workDir, "scene-" + objectCount + "-out.sav");
+        File savedImage = new File(workDir, "scene-" + objectCount + ".png");
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            screen.open(scene.getPath());
+            openTimes[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            paint(screen, frame);
+            coldPaintTimes[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            paint(screen, frame);
+            warmPaintTimes[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            screen.save(saved.getPath());
+            saveTimes[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            screen.saveImage(savedImage, "png");
+            saveImageTimes[i] = System.nanoTime() - start;
+        }
+
+        report("open", openTimes);
+        report("paint (cache rebuild)", coldPaintTimes);
+        report("paint (cached)", warmPaintTimes);
+        report("save", saveTimes);
+        report("saveImage (png)", saveImageTimes);
+
+        System.out.printf("%-28s %10.1f MB%n", "saved file size", saved.length() / 1e6);
+        int savedObjects = screen.getScene().getObjectCount();
+        screen.open(saved.getPath());
+        paint(screen, frame);
+        System.out.println("save/open round trip keeps objects: " + (savedObjects == screen.getScene().getObjectCount()));
+    }
+
+    private static void benchmarkRaster(File workDir) throws IOException {
+        System.out.println();
+        System.out.println("== raster operations on " + CANVAS_WIDTH + "x" + CANVAS_HEIGHT + " ==");
+        int iterations = 10;
+        Screen screen = createScreen();
+        BufferedImage frame = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        paint(screen, frame);
+
+        File noise = new File(workDir, "blocks.png");
+        javax.imageio.ImageIO.write(createBlocks(CANVAS_WIDTH, CANVAS_HEIGHT, new Random(SEED)), "png", noise);
+
+        long[] loadTimes = new long[iterations];
+        long[] fillTimes = new long[iterations];
+        long[] flipHorizontalTimes = new long[iterations];
+        long[] flipVerticalTimes = new long[iterations];
+        long[] rotateTimes = new long[iterations];
+
+        screen.setDrawMode(Screen.FILL_BUCKET);
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            screen.loadImage(noise);
+            loadTimes[i] = System.nanoTime() - start;
+            paint(screen, frame);
+
+            screen.setCurrentFillColor((i % 2 == 0) ? Color.RED : Color.BLUE);
+            start = System.nanoTime();
+            click(screen, 5, 5);
+            fillTimes[i] = System.nanoTime() - start;
+            paint(screen, frame);
+
+            start = System.nanoTime();
+            screen.applyFlipHorizontal();
+            flipHorizontalTimes[i] = System.nanoTime() - start;
+            paint(screen, frame);
+
+            start = System.nanoTime();
+            screen.applyFlipVertical();
+            flipVerticalTimes[i] = System.nanoTime() - start;
+            paint(screen, frame);
+
+            start = System.nanoTime();
+            screen.applyRotate90Degrees(true);
+            rotateTimes[i] = System.nanoTime() - start;
+        }
+
+        report("loadImage (png)", loadTimes);
+        report("flood fill (click)", fillTimes);
+        report("applyFlipHorizontal", flipHorizontalTimes);
+        report("applyFlipVertical", flipVerticalTimes);
+        report("applyRotate90Degrees", rotateTimes);
+    }
+
+    private static Screen createScreen() {
+        Screen screen = new Screen();
+        screen.setSize(CANVAS_WIDTH, CANVAS_HEIGHT);
+        return screen;
+    }
+
+    private static void paint(Screen screen, BufferedImage frame) {
+        Graphics2D g2 = frame.createGraphics();
+        g2.setClip(0, 0, frame.getWidth(), frame.getHeight());
+        screen.paint(g2);
+        g2.dispose();
+    }
+
+    private static void click(Screen screen, int x, int y) {
+        long now = System.currentTimeMillis();
+        screen.mousePressed(new MouseEvent(screen, MouseEvent.MOUSE_PRESSED, now, InputEvent.BUTTON1_DOWN_MASK, x, y, 1, false, MouseEvent.BUTTON1));
+        screen.mouseReleased(new MouseEvent(screen, MouseEvent.MOUSE_RELEASED, now, 0, x, y, 1, false, MouseEvent.BUTTON1));
+    }
+
+    private static void writeScene(File file, int objectCount, Random random) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            int pointCount = objectCount / 10;
+            dos.writeInt(pointCount);
+            for (int i = 0; i < pointCount; i++) {
+                dos.writeInt(random.nextInt(CANVAS_WIDTH));
+                dos.writeInt(random.nextInt(CANVAS_HEIGHT));
+            }
+
+            dos.writeInt(objectCount);
+            for (int i = 0; i < objectCount; i++) {
+                int x = random.nextInt(CANVAS_WIDTH);
+                int y = random.nextInt(CANVAS_HEIGHT);
+                int color = 0xFF000000 | random.nextInt(0x1000000);
+                int kind = random.nextInt(10);
+                if (kind == 0) {
+                    dos.writeInt(Screen.TEXT);
+                    dos.writeInt(x);
+                    dos.writeInt(y);
+                    dos.writeInt(color);
+                    dos.writeUTF("text " + i);
+                    dos.writeInt(12 + random.nextInt(12));
+                    dos.writeBoolean(false);
+                    dos.writeInt(0xFFFFFFFF);
+                } else {
+                    int mode = (kind < 5) ? Screen.LINE : (kind < 8) ? Screen.RECTANGLE : Screen.CIRCLE;
+                    dos.writeInt(mode);
+                    dos.writeInt(x);
+                    dos.writeInt(y);
+                    dos.writeInt(x + 5 + random.nextInt(60));
+                    dos.writeInt(y + 5 + random.nextInt(60));
+                    dos.writeInt(color);
+                    dos.writeInt(1 + random.nextInt(4));
+                    dos.writeBoolean(mode != Screen.LINE && random.nextBoolean());
+                    dos.writeInt(0xFF000000 | random.nextInt(0x1000000));
+                }
+            }
+        }
+    }
+
+    private static BufferedImage createBlocks(int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, width, height);
+        for (int i = 0; i < 400; i++) {
+            g2.setColor(new Color(random.nextInt(0x1000000)));
+            g2.fillRect(100 + random.nextInt(width - 200), 100 + random.nextInt(height - 200), 10 + random.nextInt(80), 10 + random.nextInt(80));
+        }
+        g2.dispose();
+        return image;
+    }
+
+    private static void report(String name, long[] times) {
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (long time : times) {
+            best = Math.min(best, time);
+            total += time;
+        }
+        System.out.printf("%-28s %10.2f ms avg %10.2f ms best%n", name, total / 1e6 / times.length, best / 1e6);
+    }
+
+    private static int[] parseSizes(String argument) {
+        String[] parts = argument.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,88 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SpatialGridBenchmark {
+
+    private static final int OBJECT_COUNT = 1_000_000;
+    private static final int WORLD_SIZE = 40_000;
+    private static final int QUERY_COUNT = 10_000;
+    private static final int QUERY_SIZE = 400;
+    private static final int LINEAR_QUERY_COUNT = 20;
+
+    public static void main(String[] args) {
+        int objectCount = args.length > 0 ? Integer.parseInt(args[0]) : OBJECT_COUNT;
+        Random random = new Random(42);
+
+        Rectangle[] bounds = new Rectangle[objectCount];
+        Object[] items = new Object[objectCount];
+        for (int i = 0; i < objectCount; i++) {
+            int w = 5 + random.nextInt(120);
+            int h = 5 + random.nextInt(120);
+            bounds[i] = new Rectangle(random.nextInt(WORLD_SIZE - w), random.nextInt(WORLD_SIZE - h), w, h);
+            items[i] = new Object();
+        }
+
+        SpatialGrid<Object> grid = new SpatialGrid<>(128);
+        long start = System.nanoTime();
+        for (int i = 0; i < objectCount; i++) {
+            grid.insert(items[i], bounds[i]);
+        }
+        report("insert", objectCount, System.nanoTime() - start);
+
+        Rectangle[] queries = new Rectangle[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = new Rectangle(random.nextInt(WORLD_SIZE - QUERY_SIZE), random.nextInt(WORLD_SIZE - QUERY_SIZE), QUERY_SIZE, QUERY_SIZE);
+        }
+
+        long hits = 0;
+        for (int round = 0; round < 3; round++) {
+            hits = 0;
+            start = System.nanoTime();
+            for (Rectangle query : queries) {
+                hits += grid.query(query).size();
+            }
+        }
+        report("query " + QUERY_SIZE + "x" + QUERY_SIZE + " (avg hits " + (hits / QUERY_COUNT) + ")", QUERY_COUNT, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            hits += grid.queryPoint(queries[i].x, queries[i].y).size();
+        }
+        report("point pick", QUERY_COUNT, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        long linearHits = 0;
+        for (int i = 0; i < LINEAR_QUERY_COUNT; i++) {
+            List<Object> found = new ArrayList<>();
+            for (int j = 0; j < objectCount; j++) {
+                if (bounds[j].intersects(queries[i])) {
+                    found.add(items[j]);
+                }
+            }
+            linearHits += found.size();
+        }
+        report("linear scan baseline (avg hits " + (linearHits / LINEAR_QUERY_COUNT) + ")", LINEAR_QUERY_COUNT, System.nanoTime() - start);
+
+        int moveCount = objectCount / 10;
+        start = System.nanoTime();
+        for (int i = 0; i < moveCount; i++) {
+            bounds[i].translate(random.nextInt(21) - 10, random.nextInt(21) - 10);
+            grid.update(items[i], bounds[i]);
+        }
+        report("translate", moveCount, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < moveCount; i++) {
+            grid.remove(items[i]);
+        }
+        report("remove", moveCount, System.nanoTime() - start);
+        System.out.println("remaining objects: " + grid.size());
+    }
+
+    private static void report(String name, int operations, long elapsedNanos) {
+        System.out.printf("%-48s %10d ops %12.1f ns/op %10.1f ms total%n",
+            name, operations, (double)elapsedNanos / operations, elapsedNanos / 1e6);
+    }
+}
@@ -0,0 +1,206 @@
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Deflater;
+import javax.imageio.ImageIO;
+
+public class TiledRasterBenchmark {
+
+    private static final int VIEW_WIDTH = 1920;
+    private static final int VIEW_HEIGHT = 1080;
+    private static final int CELL_SIZE = 1000;
+    private static final int FILE_TILE = 512;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 24000;
+        long cap = ((args.length > 1) ? Long.parseLong(args[1]) : 128) << 20;
+        System.out.printf("Java %s, %d cpus, max heap %d MB, image %dx%d (%.0f MP, %.1f GB as int pixels)%n",
+            System.getProperty("java.version"), Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() >> 20,
+            size, size, size * (double)size / 1e6, 4.0 * size * size / (1L << 30));
+
+        File file = new File(System.getProperty("java.io.tmpdir"), "tiled-" + size + ".tif");
+        if (!file.isFile()) {
+            long start = System.nanoTime();
+            writeTiledTiff(file, size, size);
+            System.out.printf("%-34s %10.1f s %10.1f MB%n", "write tiled TIFF", (System.nanoTime() - start) / 1e9, file.length() / 1e6);
+        }
+
+        long start = System.nanoTime();
+        try {
+            BufferedImage whole = ImageIO.read(file);
+            System.out.printf("%-34s %10.1f ms (%dx%d)%n", "ImageIO.read (whole image)", (System.nanoTime() - start) / 1e6, whole.getWidth(), whole.getHeight());
+        } catch (OutOfMemoryError e) {
+            System.out.printf("%-34s %10s after %.1f ms%n", "ImageIO.read (whole image)", "OOM", (System.nanoTime() - start) / 1e6);
+        }
+
+        start = System.nanoTime();
+        TiledRaster raster = TiledRaster.open(file, cap);
+        System.out.printf("%-34s %10.2f ms%n", "TiledRaster.open", (System.nanoTime() - start) / 1e6);
+
+        BufferedImage frame = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        measureView(raster, frame, "viewport top-left, 1:1", 0, 0, 1.0);
+        measureView(raster, frame, "viewport bottom-right, 1:1", size - VIEW_WIDTH, size - VIEW_HEIGHT, 1.0);
+        measureView(raster, frame, "viewport top-left, cached", 0, 0, 1.0);
+        double overview = Math.min(VIEW_WIDTH, VIEW_HEIGHT) / (double)size;
+        measureView(raster, frame, String.format("whole image at %.3fx", overview), 0, 0, overview);
+
+        start = System.nanoTime();
+        int steps = 40;
+        for (int i = 0; i < steps; i++) {
+            int x = (int)((long)(size - VIEW_WIDTH) * i / steps);
+            int y = (int)((long)(size - VIEW_HEIGHT) * i / steps);
+            paintUntilLoaded(raster, frame, x, y, 1.0);
+        }
+        System.out.printf("%-34s %10.1f ms/view %6d decoded %8.1f MB cached (cap %d MB)%n", "diagonal pan, " + steps + " views",
+            (System.nanoTime() - start) / 1e6 / steps, raster.getDecodeCount(), raster.getMemoryUsage() / (1024.0 * 1024), raster.getMemoryCap() >> 20);
+
+        start = System.nanoTime();
+        TiledRaster.Patch patch = raster.floodFill(CELL_SIZE * 5 + 500, CELL_SIZE * 7 + 500, 0x3366CC, 0, FloodFill.RGB_DISTANCE, null);
+        long fillNanos = System.nanoTime() - start;
+        System.out.printf("%-34s %10.1f ms %6d tiles %8.1f KB undo%n", "flood fill one grid cell", fillNanos / 1e6, patch.getTileCount(), patch.getMemoryUsage() / 1e3);
+        int filled = raster.getRGB(CELL_SIZE * 5 + 10, CELL_SIZE * 7 + 10);
+        start = System.nanoTime();
+        raster.swap(patch);
+        long undoNanos = System.nanoTime() - start;
+        int restored = raster.getRGB(CELL_SIZE * 5 + 10, CELL_SIZE * 7 + 10);
+        System.out.printf("%-34s %10.2f ms (filled %06x, restored %06x)%n", "undo fill", undoNanos / 1e6, filled & 0xFFFFFF, restored & 0xFFFFFF);
+
+        start = System.nanoTime();
+        TiledRaster.Patch rect = raster.fillRect(new Rectangle(0, 0, 8192, 8192), 0xFFCC00);
+        System.out.printf("%-34s %10.1f ms %6d tiles %6d spilled%n", "fill 8192x8192 selection", (System.nanoTime() - start) / 1e6, rect.getTileCount(), raster.getSpillCount());
+        measureView(raster, frame, "viewport over edited tiles", 4000, 4000, 1.0);
+
+        start = System.nanoTime();
+        raster.transform(RasterTransform.ROTATE_CLOCKWISE);
+        raster.transform(RasterTransform.FLIP_HORIZONTAL);
+        System.out.printf("%-34s %10.3f ms%n", "rotate + flip", (System.nanoTime() - start) / 1e6);
+        measureView(raster, frame, "viewport after rotate + flip", 0, 0, 1.0);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.out.printf("%-34s %10.1f MB heap, %.1f MB tile cache, %d edited tiles%n", "memory after run",
+            (runtime.totalMemory() - runtime.freeMemory()) / (1024.0 * 1024), raster.getMemoryUsage() / (1024.0 * 1024), raster.getDirtyTileCount());
+        raster.close();
+    }
+
+    private static void measureView(TiledRaster raster, BufferedImage frame, String name, int x, int y, double scale) throws InterruptedException {
+        long start = System.nanoTime();
+        long firstPaint = paint(raster, frame, x, y, scale);
+        long decoded = raster.getDecodeCount();
+        paintUntilLoaded(raster, frame, x, y, scale);
+        System.out.printf("%-34s %10.1f ms complete %8.2f ms first paint %6d decoded%n", name,
+            (System.nanoTime() - start) / 1e6, firstPaint / 1e6, raster.getDecodeCount() - decoded);
+    }
+
+    private static void paintUntilLoaded(TiledRaster raster, BufferedImage frame, int x, int y, double scale) throws InterruptedException {
+        while (true) {
+            paint(raster, frame, x, y, scale);
+            if (raster.getPendingTileCount() == 0) {
+                return;
+            }
+            while (raster.getPendingTileCount() > 0) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static long paint(TiledRaster raster, BufferedImage frame, int x, int y, double scale) {
+        long start = System.nanoTime();
+        Graphics2D g2 = frame.createGraphics();
+        g2.scale(scale, scale);
+        g2.translate(-x, -y);
+        raster.paint(g2, new Rectangle(x, y, (int)Math.ceil(VIEW_WIDTH / scale), (int)Math.ceil(VIEW_HEIGHT / scale)), scale);
+        g2.dispose();
+        return System.nanoTime() - start;
+    }
+
+    private static void writeTiledTiff(File file, int width, int height) throws IOException {
+        int tilesX = (width + FILE_TILE - 1) / FILE_TILE;
+        int tilesY = (height + FILE_TILE - 1) / FILE_TILE;
+        long[] offsets = new long[tilesX * tilesY];
+        long[] counts = new long[tilesX * tilesY];
+        byte[] raw = new byte[FILE_TILE * FILE_TILE * 3];
+        byte[] packed = new byte[raw.length + 1024];
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(0);
+            out.write(new byte[8]);
+            for (int ty = 0; ty < tilesY; ty++) {
+                for (int tx = 0; tx < tilesX; tx++) {
+                    for (int y = 0, i = 0; y < FILE_TILE; y++) {
+                        for (int x = 0; x < FILE_TILE; x++) {
+                            int rgb = pixel(tx * FILE_TILE + x, ty * FILE_TILE + y);
+                            raw[i++] = (byte)(rgb >> 16);
+                            raw[i++] = (byte)(rgb >> 8);
+                            raw[i++] = (byte)rgb;
+                        }
+                    }
+                    deflater.reset();
+                    deflater.setInput(raw);
+                    deflater.finish();
+                    int length = 0;
+                    while (!deflater.finished()) {
+                        length += deflater.deflate(packed, length, packed.length - length);
+                    }
+                    offsets[ty * tilesX + tx] = out.getFilePointer();
+                    counts[ty * tilesX + tx] = length;
+                    out.write(packed, 0, length);
+                }
+            }
+            deflater.end();
+
+            long arrays = out.getFilePointer();
+            ByteBuffer tail = ByteBuffer.allocate(8 + offsets.length * 8 + 2 + 11 * 12 + 4).order(ByteOrder.LITTLE_ENDIAN);
+            tail.putShort((short)8).putShort((short)8).putShort((short)8).putShort((short)0);
+            for (long offset : offsets) {
+                tail.putInt((int)offset);
+            }
+            for (long count : counts) {
+                tail.putInt((int)count);
+            }
+            long ifd = arrays + tail.position();
+            tail.putShort((short)11);
+            entry(tail, 256, 4, 1, width);
+            entry(tail, 257, 4, 1, height);
+            entry(tail, 258, 3, 3, (int)arrays);
+            entry(tail, 259, 3, 1, 8);
+            entry(tail, 262, 3, 1, 2);
+            entry(tail, 277, 3, 1, 3);
+            entry(tail, 284, 3, 1, 1);
+            entry(tail, 322, 4, 1, FILE_TILE);
+            entry(tail, 323, 4, 1, FILE_TILE);
+            entry(tail, 324, 4, offsets.length, (int)(arrays + 8));
+            entry(tail, 325, 4, counts.length, (int)(arrays + 8 + offsets.length * 4L));
+            tail.putInt(0);
+            out.write(tail.array(), 0, tail.position());
+
+            ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            header.put((byte)'I').put((byte)'I').putShort((short)42).putInt((int)ifd);
+            out.seek(0);
+            out.write(header.array());
+        }
+    }
+
+    private static void entry(ByteBuffer buffer, int tag, int type, int count, int value) {
+        buffer.putShort((short)tag).putShort((short)type).putInt(count);
+        if (type == 3 && count == 1) {
+            buffer.putShort((short)value).putShort((short)0);
+        } else {
+            buffer.putInt(value);
+        }
+    }
+
+    private static int pixel(int x, int y) {
+        if (x % CELL_SIZE < 4 || y % CELL_SIZE < 4) {
+            return 0x000000;
+        }
+        int cell = (y / CELL_SIZE) * 97 + (x / CELL_SIZE);
+        return 0x404040 + ((cell * 0x1F3D5B) & 0x7F7F7F);
+    }
+}
@@ -0,0 +1,121 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class UndoBenchmark {
+
+    private static final int WIDTH = 8660;
+    private static final int HEIGHT = 5780;
+    private static final int ITERATIONS = 10;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int objectCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("Java %s, %d cpus, %dx%d (%.1f MP)%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), WIDTH, HEIGHT, WIDTH * (double)HEIGHT / 1e6);
+
+        Scene scene = new Scene(WIDTH, HEIGHT);
+        BufferedImage background = scene.getBackground();
+        Graphics2D g2 = background.createGraphics();
+        g2.setColor(Color.BLACK);
+        g2.drawRect(1000, 1000, 1200, 900);
+        g2.dispose();
+        Random random = new Random(SEED);
+        Rectangle noise = new Rectangle(3000, 3000, 2048, 2048);
+        for (int y = noise.y; y < noise.y + noise.height; y++) {
+            for (int x = noise.x; x < noise.x + noise.width; x++) {
+                background.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        int[] original = FloodFill.getPixels(background).clone();
+
+        long start = System.nanoTime();
+        int[] fullCopy = FloodFill.getPixels(background).clone();
+        System.out.printf("%-34s %10.2f ms %10.1f MB%n", "full image copy (baseline)", (System.nanoTime() - start) / 1e6, fullCopy.length * 4 / 1e6);
+        fullCopy = null;
+
+        measureFill("local fill 1200x900", scene, new Point(1500, 1500), null, false);
+        measureFill("full-canvas fill", scene, new Point(10, 10), null, false);
+        measureFill("2048x2048 noise rect, raw", scene, null, noise, false);
+        measureFill("2048x2048 noise rect, compressed", scene, null, noise, true);
+        System.out.println("pixels restored after undo: " + Arrays.equals(original, FloodFill.getPixels(background)));
+
+        UndoHistory budgeted = new UndoHistory();
+        budgeted.setMemoryBudget(32L << 20);
+        for (int i = 0; i < 200; i++) {
+            SelectionMask mask = FloodFill.select(background, 1500, 1500, 0, FloodFill.RGB_DISTANCE, true, null);
+            TileDelta tiles = TileDelta.capture(background, mask, false);
+            mask.fill(FloodFill.getPixels(background), 0x101010 * (i % 15));
+            budgeted.push(UndoHistory.raster("fill", tiles));
+        }
+        System.out.printf("%-34s %10d kept %8d evicted %8.1f MB used (budget %d MB)%n", "200 fills, 32 MB budget",
+            budgeted.getUndoCount(), budgeted.getEvictedCount(), budgeted.getMemoryUsage() / 1e6, budgeted.getMemoryBudget() >> 20);
+
+        Scene vectors = new Scene(1920, 1080);
+        for (int i = 0; i < objectCount; i++) {
+            Point p = new Point(random.nextInt(1900), random.nextInt(1060));
+            vectors.addObject(new DrawLine(p, new Point(p.x + 10, p.y + 10), Color.BLACK, 1));
+        }
+        UndoHistory history = new UndoHistory();
+        List<AbstractDrawingObject> selection = new ArrayList<>(vectors.query(new Rectangle(100, 100, 40, 40)));
+        int[] indices = vectors.indicesOf(selection);
+        history.push(UndoHistory.delete(indices, vectors.getObjectsAt(indices)));
+        vectors.removeObjects(selection);
+        start = System.nanoTime();
+        history.undo(vectors, null);
+        long undoNanos = System.nanoTime() - start;
+        boolean isRestored = vectors.query(new Rectangle(100, 100, 40, 40)).equals(selection);
+        System.out.printf("%-34s %10.2f ms (%d of %d objects, order kept: %b)%n", "undo delete", undoNanos / 1e6, selection.size(), objectCount, isRestored);
+    }
+
+    private static void measureFill(String name, Scene scene, Point seed, Rectangle rect, boolean isCompressed) {
+        BufferedImage background = scene.getBackground();
+        UndoHistory history = new UndoHistory();
+        long[] undo = new long[ITERATIONS];
+        long[] redo = new long[ITERATIONS];
+        TileDelta tiles = null;
+        long captureNanos = Long.MAX_VALUE;
+        long capturedBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            SelectionMask mask = (seed != null) ? FloodFill.select(background, seed.x, seed.y, 0, FloodFill.RGB_DISTANCE, true, null) : null;
+            long start = System.nanoTime();
+            tiles = (mask != null) ? TileDelta.capture(background, mask, isCompressed) : TileDelta.capture(background, rect, isCompressed);
+            captureNanos = Math.min(captureNanos, System.nanoTime() - start);
+            capturedBytes = tiles.getMemoryUsage();
+            if (mask != null) {
+                mask.fill(FloodFill.getPixels(background), 0x3366CC);
+            } else {
+                Graphics2D g2 = background.createGraphics();
+                g2.setColor(new Color(0x3366CC));
+                g2.fill(rect);
+                g2.dispose();
+            }
+            history.push(UndoHistory.raster(name, tiles));
+
+            start = System.nanoTime();
+            history.undo(scene, null);
+            undo[i] = System.nanoTime() - start;
+            start = System.nanoTime();
+            history.redo(scene, null);
+            redo[i] = System.nanoTime() - start;
+            history.undo(scene, null);
+        }
+        System.out.printf("%-34s %10.2f ms undo %8.2f ms redo %8.2f ms capture, %6d tiles %10.1f KB%n", name,
+            best(undo) / 1e6, best(redo) / 1e6, captureNanos / 1e6, tiles.getTileCount(), capturedBytes / 1e3);
+    }
+
+    private static long best(long[] times) {
+        long best = Long.MAX_VALUE;
+        for (long time : times) {
+            best = Math.min(best, time);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,89 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class ZoomBenchmark {
+
+    private static final int CANVAS_WIDTH = 3840;
+    private static final int CANVAS_HEIGHT = 2160;
+    private static final int VIEW_WIDTH = 1920;
+    private static final int VIEW_HEIGHT = 1080;
+    private static final int OBJECT_COUNT = 10_000;
+    private static final int FRAMES = 50;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.out.printf("Java %s, %d cpus, canvas %dx%d, view %dx%d%n", System.getProperty("java.version"),
+            Runtime.getRuntime().availableProcessors(), CANVAS_WIDTH, CANVAS_HEIGHT, VIEW_WIDTH, VIEW_HEIGHT);
+
+        Screen screen = new Screen();
+        screen.setSize(CANVAS_WIDTH, CANVAS_HEIGHT);
+        BufferedImage frame = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        paint(screen, frame, 0, 0);
+        Random random = new Random(SEED);
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            Point p = new Point(random.nextInt(CANVAS_WIDTH - 100), random.nextInt(CANVAS_HEIGHT - 100));
+            Point q = new Point(p.x + 10 + random.nextInt(80), p.y + 10 + random.nextInt(80));
+            screen.getScene().addObject((i % 2 == 0) ? new DrawRectangle(p, q, Color.BLACK, 1, false, Color.WHITE) : new DrawCircle(p, q, Color.BLUE, 2, false, Color.WHITE));
+        }
+        paint(screen, frame, 0, 0);
+        BufferedImage cache = screen.getRenderer().update();
+
+        for (float zoom : new float[] { 2.0f, 4.0f }) {
+            screen.setZoomLevel(zoom);
+            int x = (int)(1000 * zoom);
+            int y = (int)(600 * zoom);
+            long[] stretched = new long[FRAMES];
+            for (int i = 0; i < FRAMES; i++) {
+                long start = System.nanoTime();
+                Graphics2D g2 = frame.createGraphics();
+                g2.translate(-x, -y);
+                g2.setClip(x, y, VIEW_WIDTH, VIEW_HEIGHT);
+                g2.drawImage(cache, 0, 0, (int)(CANVAS_WIDTH * zoom), (int)(CANVAS_HEIGHT * zoom), null);
+                g2.dispose();
+                stretched[i] = System.nanoTime() - start;
+            }
+            long rendered = screen.getRenderer().getZoomTiles().getTilesRendered();
+            long start = System.nanoTime();
+            paint(screen, frame, x, y);
+            long firstNanos = System.nanoTime() - start;
+            long[] cached = new long[FRAMES];
+            for (int i = 0; i < FRAMES; i++) {
+                start = System.nanoTime();
+                paint(screen, frame, x, y);
+                cached[i] = System.nanoTime() - start;
+            }
+            long[] pan = new long[FRAMES];
+            for (int i = 0; i < FRAMES; i++) {
+                start = System.nanoTime();
+                paint(screen, frame, x + i * 32, y + i * 16);
+                pan[i] = System.nanoTime() - start;
+            }
+            System.out.printf("zoom %.0fx: stretched cache %7.2f ms   tiles first %7.2f ms, cached %6.2f ms, pan 32px/frame %6.2f ms   (%d tiles rendered)%n",
+                zoom, average(stretched) / 1e6, firstNanos / 1e6, average(cached) / 1e6, average(pan) / 1e6,
+                screen.getRenderer().getZoomTiles().getTilesRendered() - rendered);
+        }
+        ZoomTileCache zoomTiles = screen.getRenderer().getZoomTiles();
+        System.out.printf("zoom tile cache: %d tiles, %.1f MB (cap %d MB)%n",
+            zoomTiles.getTileCount(), zoomTiles.getMemoryUsage() / (1024.0 * 1024), zoomTiles.getMemoryCap() >> 20);
+    }
+
+    private static void paint(Screen screen, BufferedImage frame, int x, int y) {
+        Graphics2D g2 = frame.createGraphics();
+        g2.translate(-x, -y);
+        g2.setClip(x, y, VIEW_WIDTH, VIEW_HEIGHT);
+        screen.paint(g2);
+        g2.dispose();
+    }
+
+    private static double average(long[] times) {
+        long total = 0;
+        for (long time : times) {
+            total += time;
+        }
+        return total / (double)times.length;
+    }
+}